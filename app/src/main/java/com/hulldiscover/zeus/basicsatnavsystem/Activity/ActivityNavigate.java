@@ -18,9 +18,10 @@ import android.widget.Toast;
 
 import com.hulldiscover.zeus.basicsatnavsystem.Adapter.ListAdapter;
 import com.hulldiscover.zeus.basicsatnavsystem.Adapter.ShortestPathListAdapter;
-import com.hulldiscover.zeus.basicsatnavsystem.Production.BreadthFirstFindAllPaths;
 import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
 import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraFindShortestPath;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.Route;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.YenKShortestPaths;
 import com.hulldiscover.zeus.basicsatnavsystem.R;
 
 import java.util.ArrayList;
@@ -32,6 +33,8 @@ import java.util.Map;
  */
 public class ActivityNavigate extends AppCompatActivity implements Animation.AnimationListener{
 
+    // Number of routes listed by Search Routes
+    private static final int ALTERNATIVE_ROUTES = 5;
 
     EditText start;
     EditText destination;
@@ -90,26 +93,25 @@ public class ActivityNavigate extends AppCompatActivity implements Animation.Ani
                 }
 
                 // Init search
-                BreadthFirstFindAllPaths findAllPaths = new BreadthFirstFindAllPaths(directedDirectedGraph);
+                YenKShortestPaths findRoutes = new YenKShortestPaths(directedDirectedGraph.compressed());
 
                 // Get inputs from screen
                 String startInput = start.getText().toString().toUpperCase();
                 String destinationInput = destination.getText().toString().toUpperCase();
 
-                // Get list of paths between start and destination
-                List<List<String>> pathList = findAllPaths.getAllPaths(startInput,destinationInput);
-
-
                 // Display results
-                // 1) Loop through all results from search
+                // 1) Find the best few routes, shortest first
                 // 2) Add them to a list
                 // 3) Path list into adapter
                 ArrayList<List<String>> paths = new ArrayList<List<String>>();
 
-                // Add results to list
-                for(List<String> pathNames : pathList) {
-                    System.out.println(pathNames);
-                    paths.add(pathNames);
+                // Unknown places have no routes
+                if (directedDirectedGraph.compressed().id(startInput) != -1
+                        && directedDirectedGraph.compressed().id(destinationInput) != -1) {
+                    // Add results to list
+                    for (Route route : findRoutes.shortestRoutes(startInput, destinationInput, ALTERNATIVE_ROUTES)) {
+                        paths.add(route.names());
+                    }
                 }
 
                 // Create ArrayAdapter using the paths list
@@ -0,0 +1,137 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Goal directed point-to-point queries: A* search using the
+ * landmark lower bounds of a LandmarkIndex as heuristic.
+ *
+ * The heap is ordered by distance from the source plus the lower
+ * bound to the destination, so vertices leading away from the
+ * destination are settled late or not at all. The bounds are
+ * consistent, so the answers equal those of DijkstraQueryEngine.
+ *
+ * lastSettledCount and LandmarkIndex.landmarkCount let the
+ * number of landmarks be tuned against the search space.
+ *
+ * Every thread reuses its own DijkstraWorkspace.
+ */
+public class AStarLandmarkQueryEngine {
+
+    private final CompressedDirectedGraph graph;
+
+    private final LandmarkIndex landmarks;
+
+    // one workspace per querying thread
+    private final ThreadLocal<DijkstraWorkspace> workspaces;
+
+    /**
+     * Creates a query engine.
+     *
+     * @param landmarks the landmark index of the graph to search
+     */
+    public AStarLandmarkQueryEngine(LandmarkIndex landmarks) {
+        if (landmarks == null) {
+            throw new NullPointerException("The landmark index cannot be null.");
+        }
+        this.landmarks = landmarks;
+        this.graph = landmarks.graph();
+        this.workspaces = new ThreadLocal<DijkstraWorkspace>() {
+            @Override
+            protected DijkstraWorkspace initialValue() {
+                return new DijkstraWorkspace(graph.numberOfVertices());
+            }
+        };
+    }
+
+    /**
+     * Length of the shortest route between two vertices.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @return the distance, Integer.MAX_VALUE if there is no route
+     */
+    public int shortestDistance(int source, int target) {
+        return search(source, target).distanceTo(target);
+    }
+
+    /**
+     * Shortest route between two vertices.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @param path buffer the route is written to, source first;
+     *             numberOfVertices() slots always suffice
+     * @return the number of vertices in the route, 0 if there is no route
+     */
+    public int shortestPath(int source, int target, int[] path) {
+        return search(source, target).pathTo(target, path);
+    }
+
+    /**
+     * Shortest route between two named vertices.
+     *
+     * @param from the start vertex
+     * @param to the destination vertex
+     * @return the vertex names of the route, empty if there is no route
+     */
+    public List<String> shortestPath(String from, String to) {
+        int[] path = new int[graph.numberOfVertices()];
+        int length = shortestPath(graph.requireId(from), graph.requireId(to), path);
+
+        List<String> names = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            names.add(graph.name(path[i]));
+        }
+        return names;
+    }
+
+    /**
+     * Number of vertices settled by the last query
+     * of the calling thread.
+     *
+     * @return the settled vertex count
+     */
+    public int lastSettledCount() {
+        return workspaces.get().settledCount;
+    }
+
+    /**
+     * Number of landmarks used for the lower bounds.
+     *
+     * @return the landmark count
+     */
+    public int landmarkCount() {
+        return landmarks.landmarkCount();
+    }
+
+    private DijkstraWorkspace search(int source, int target) {
+        DijkstraWorkspace workspace = workspaces.get();
+        workspace.begin();
+        workspace.relax(source, 0, DijkstraWorkspace.NO_PARENT, landmarks.lowerBound(source, target));
+
+        while (!workspace.heap.empty()) {
+            int current = workspace.settleMin();
+            if (current == target) {
+                break; // destination settled, its distance is final
+            }
+            int currentDistance = workspace.distance[current];
+            for (int edge = graph.firstEdge(current), end = graph.endEdge(current); edge < end; edge++) {
+                int weight = graph.weight(edge);
+                if (weight == CompressedDirectedGraph.CLOSED) {
+                    continue;
+                }
+                int next = graph.target(edge);
+                int nextDistance = currentDistance + weight;
+                // the bound is only needed if the vertex can improve
+                if (nextDistance < workspace.distanceTo(next) && !workspace.isSettled(next)) {
+                    workspace.relax(next, nextDistance, current, landmarks.lowerBound(next, target));
+                }
+            }
+        }
+        return workspace;
+    }
+}
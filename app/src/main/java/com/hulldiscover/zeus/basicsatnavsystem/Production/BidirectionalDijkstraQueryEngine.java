@@ -0,0 +1,202 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Bidirectional Dijkstra point-to-point queries over a
+ * CompressedDirectedGraph.
+ *
+ * One search runs forward from the source over outgoing edges,
+ * the other backward from the destination over the incoming edge
+ * index. The side with the smaller heap minimum is advanced each
+ * step, and every edge that reaches a vertex already seen by the
+ * other side offers a candidate route. The search stops when the
+ * two heap minimums together are no shorter than the best
+ * candidate, which is then the shortest route.
+ *
+ * Like DijkstraQueryEngine every thread reuses its own pair of
+ * workspaces, so queries allocate nothing once warmed up.
+ *
+ * References
+ * https://en.wikipedia.org/wiki/Bidirectional_search
+ */
+public class BidirectionalDijkstraQueryEngine {
+
+    private final CompressedDirectedGraph graph;
+
+    // forward and backward workspace of every querying thread
+    private final ThreadLocal<Workspaces> workspaces;
+
+    /**
+     * State of one thread's queries.
+     */
+    private static final class Workspaces {
+        final DijkstraWorkspace forward;
+        final DijkstraWorkspace backward;
+
+        // vertex where the best route of the last query joins both searches
+        int meeting;
+
+        Workspaces(int vertexCount) {
+            forward = new DijkstraWorkspace(vertexCount);
+            backward = new DijkstraWorkspace(vertexCount);
+        }
+    }
+
+    /**
+     * Creates a query engine for a graph.
+     *
+     * @param graph the graph to search
+     */
+    public BidirectionalDijkstraQueryEngine(final CompressedDirectedGraph graph) {
+        if (graph == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        this.graph = graph;
+        this.workspaces = new ThreadLocal<Workspaces>() {
+            @Override
+            protected Workspaces initialValue() {
+                return new Workspaces(graph.numberOfVertices());
+            }
+        };
+    }
+
+    /**
+     * Length of the shortest route between two vertices.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @return the distance, Integer.MAX_VALUE if there is no route
+     */
+    public int shortestDistance(int source, int target) {
+        long best = search(source, target);
+        return best == Long.MAX_VALUE ? Integer.MAX_VALUE : (int) best;
+    }
+
+    /**
+     * Shortest route between two vertices.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @param path buffer the route is written to, source first;
+     *             numberOfVertices() slots always suffice
+     * @return the number of vertices in the route, 0 if there is no route
+     */
+    public int shortestPath(int source, int target, int[] path) {
+        if (search(source, target) == Long.MAX_VALUE) {
+            return 0;
+        }
+        Workspaces state = workspaces.get();
+        int meeting = state.meeting;
+
+        // source .. meeting from the forward parents
+        int length = state.forward.pathTo(meeting, path);
+
+        // meeting .. target from the backward parents,
+        // which point towards the destination
+        DijkstraWorkspace backward = state.backward;
+        for (int v = backward.parent[meeting]; v != DijkstraWorkspace.NO_PARENT; v = backward.parent[v]) {
+            if (length == path.length) {
+                throw new IllegalArgumentException("The path buffer of length " + path.length
+                        + " is too short for the route.");
+            }
+            path[length++] = v;
+        }
+        return length;
+    }
+
+    /**
+     * Shortest route between two named vertices.
+     *
+     * @param from the start vertex
+     * @param to the destination vertex
+     * @return the vertex names of the route, empty if there is no route
+     */
+    public List<String> shortestPath(String from, String to) {
+        int[] path = new int[graph.numberOfVertices()];
+        int length = shortestPath(graph.requireId(from), graph.requireId(to), path);
+
+        List<String> names = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            names.add(graph.name(path[i]));
+        }
+        return names;
+    }
+
+    /**
+     * Number of vertices settled by both sides in the
+     * last query of the calling thread.
+     *
+     * @return the settled vertex count
+     */
+    public int lastSettledCount() {
+        Workspaces state = workspaces.get();
+        return state.forward.settledCount + state.backward.settledCount;
+    }
+
+    /**
+     * Runs both searches until they meet.
+     *
+     * @return the length of the best route, Long.MAX_VALUE if none
+     */
+    private long search(int source, int target) {
+        Workspaces state = workspaces.get();
+        DijkstraWorkspace forward = state.forward;
+        DijkstraWorkspace backward = state.backward;
+        forward.begin();
+        backward.begin();
+        forward.relax(source, 0, DijkstraWorkspace.NO_PARENT);
+        backward.relax(target, 0, DijkstraWorkspace.NO_PARENT);
+
+        long best = source == target ? 0 : Long.MAX_VALUE;
+        int meeting = source;
+
+        while (!forward.heap.empty() && !backward.heap.empty()) {
+            // stopping criterion: no route through the
+            // unsettled vertices can beat the best one
+            if ((long) forward.heap.minWeight() + backward.heap.minWeight() >= best) {
+                break;
+            }
+
+            if (forward.heap.minWeight() <= backward.heap.minWeight()) {
+                int current = forward.settleMin();
+                int currentDistance = forward.distance[current];
+                for (int edge = graph.firstEdge(current), end = graph.endEdge(current); edge < end; edge++) {
+                    int weight = graph.weight(edge);
+                    if (weight == CompressedDirectedGraph.CLOSED) {
+                        continue;
+                    }
+                    int next = graph.target(edge);
+                    int nextDistance = currentDistance + weight;
+                    forward.relax(next, nextDistance, current);
+                    if (backward.isReached(next) && (long) nextDistance + backward.distance[next] < best) {
+                        best = (long) nextDistance + backward.distance[next];
+                        meeting = next;
+                    }
+                }
+            } else {
+                int current = backward.settleMin();
+                int currentDistance = backward.distance[current];
+                for (int inEdge = graph.firstInEdge(current), end = graph.endInEdge(current); inEdge < end; inEdge++) {
+                    int weight = graph.weight(graph.forwardEdge(inEdge));
+                    if (weight == CompressedDirectedGraph.CLOSED) {
+                        continue;
+                    }
+                    int previous = graph.source(inEdge);
+                    int previousDistance = currentDistance + weight;
+                    backward.relax(previous, previousDistance, current);
+                    if (forward.isReached(previous) && (long) previousDistance + forward.distance[previous] < best) {
+                        best = (long) previousDistance + forward.distance[previous];
+                        meeting = previous;
+                    }
+                }
+            }
+        }
+
+        state.meeting = meeting;
+        return best;
+    }
+}
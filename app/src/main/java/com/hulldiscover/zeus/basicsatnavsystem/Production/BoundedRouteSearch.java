@@ -0,0 +1,273 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Counts or lists the routes between two vertices within
+ * RouteBounds, by a depth first branch and bound search.
+ *
+ * Before the search, a backward breadth first search from the
+ * destination gives the fewest stops from every vertex to it, and
+ * a backward Dijkstra search the shortest distance. A branch is
+ * cut as soon as its stops plus the fewest remaining stops pass
+ * the stop limit, or its distance plus the shortest remaining
+ * distance reaches the distance limit, so no route that cannot
+ * meet the bounds is ever followed to its end. Branches that
+ * cannot reach the destination at all are never entered.
+ *
+ * A route may pass the destination and come back to it; every
+ * visit within the bounds counts as a route.
+ *
+ * The search runs on an explicit stack of vertex ids, so long
+ * routes do not overflow the call stack. Every thread reuses its
+ * own search state; one instance can be shared by any number of
+ * threads.
+ */
+public class BoundedRouteSearch {
+
+    private final CompressedDirectedGraph graph;
+
+    private final ThreadLocal<DijkstraWorkspace> workspaces;
+
+    /**
+     * Receives every route found.
+     */
+    private interface Visitor {
+        void visit(int[] stack, int length, long distance);
+    }
+
+    /**
+     * Creates a search for a graph.
+     *
+     * @param graph the graph to search
+     */
+    public BoundedRouteSearch(final CompressedDirectedGraph graph) {
+        if (graph == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        this.graph = graph;
+        this.workspaces = new ThreadLocal<DijkstraWorkspace>() {
+            @Override
+            protected DijkstraWorkspace initialValue() {
+                return new DijkstraWorkspace(graph.numberOfVertices());
+            }
+        };
+    }
+
+    /**
+     * Accessor for the graph this search runs on.
+     *
+     * @return the graph
+     */
+    public CompressedDirectedGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Number of routes between two named vertices.
+     *
+     * @param from the start vertex
+     * @param to the destination vertex
+     * @param bounds the limits on the routes
+     * @return the number of routes
+     */
+    public long countRoutes(String from, String to, RouteBounds bounds) {
+        return countRoutes(graph.requireId(from), graph.requireId(to), bounds);
+    }
+
+    /**
+     * Number of routes between two vertices, without building them.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @param bounds the limits on the routes
+     * @return the number of routes
+     */
+    public long countRoutes(int source, int target, RouteBounds bounds) {
+        final long[] count = new long[1];
+        search(source, target, bounds, new Visitor() {
+            @Override
+            public void visit(int[] stack, int length, long distance) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * Routes between two named vertices.
+     *
+     * @param from the start vertex
+     * @param to the destination vertex
+     * @param bounds the limits on the routes
+     * @return the routes in depth first order
+     */
+    public List<Route> routes(String from, String to, RouteBounds bounds) {
+        return routes(graph.requireId(from), graph.requireId(to), bounds);
+    }
+
+    /**
+     * Routes between two vertices.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @param bounds the limits on the routes
+     * @return the routes in depth first order
+     */
+    public List<Route> routes(int source, int target, RouteBounds bounds) {
+        final List<Route> routes = new ArrayList<>();
+        search(source, target, bounds, new Visitor() {
+            @Override
+            public void visit(int[] stack, int length, long distance) {
+                routes.add(new Route(graph, Arrays.copyOf(stack, length),
+                        (int) Math.min(distance, Integer.MAX_VALUE)));
+            }
+        });
+        return routes;
+    }
+
+    private void search(int source, int target, RouteBounds bounds, Visitor visitor) {
+        if (bounds == null) {
+            throw new NullPointerException("The route bounds cannot be null.");
+        }
+        int vertexCount = graph.numberOfVertices();
+        if (source < 0 || source >= vertexCount || target < 0 || target >= vertexCount) {
+            throw new IllegalArgumentException("The pair: " + source + ", " + target
+                    + " is not in the graph.");
+        }
+        if (!bounds.isFinite(graph)) {
+            throw new IllegalArgumentException("The bounds: " + bounds
+                    + " allow endless routes; limit the stops or use simplePaths().");
+        }
+
+        int[] hops = stopsToTarget(target);
+        if (hops[source] == Integer.MAX_VALUE) {
+            return;
+        }
+        // shortest remaining distance, only needed under a distance limit
+        DijkstraWorkspace toTarget = bounds.distanceBelow() == RouteBounds.UNLIMITED
+                ? null : distancesToTarget(target);
+
+        int minStops = bounds.minStops();
+        int maxStops = bounds.maxStops();
+        long distanceBelow = bounds.distanceBelow();
+        boolean simple = bounds.isSimple();
+
+        // current route, the next edge slot to try and the
+        // distance so far at every level
+        int capacity = simple ? vertexCount + 1 : Math.min(16, maxStops) + 1;
+        int[] stack = new int[capacity];
+        int[] cursor = new int[capacity];
+        long[] distance = new long[capacity];
+        long[] onRoute = simple ? new long[(vertexCount + 63) >>> 6] : null;
+
+        stack[0] = source;
+        cursor[0] = graph.firstEdge(source);
+        if (simple) {
+            onRoute[source >>> 6] |= 1L << source;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            int level = depth - 1;
+            int vertex = stack[level];
+            if (cursor[level] == graph.endEdge(vertex)) {
+                depth--;
+                if (simple) {
+                    onRoute[vertex >>> 6] &= ~(1L << vertex);
+                }
+                continue;
+            }
+            int edge = cursor[level]++;
+            int weight = graph.weight(edge);
+            if (weight == CompressedDirectedGraph.CLOSED) {
+                continue;
+            }
+            int next = graph.target(edge);
+            // stops of the route once the edge is taken
+            int stops = depth;
+            long nextDistance = distance[level] + weight;
+
+            // bound: can the branch still end within the limits
+            if (hops[next] == Integer.MAX_VALUE || (long) stops + hops[next] > maxStops) {
+                continue;
+            }
+            if (toTarget != null && nextDistance + toTarget.distanceTo(next) >= distanceBelow) {
+                continue;
+            }
+            if (simple && next != target && (onRoute[next >>> 6] & (1L << next)) != 0) {
+                continue;
+            }
+
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+                cursor = Arrays.copyOf(cursor, depth * 2);
+                distance = Arrays.copyOf(distance, depth * 2);
+            }
+            stack[depth] = next;
+            distance[depth] = nextDistance;
+            if (next == target && stops >= minStops) {
+                visitor.visit(stack, depth + 1, nextDistance);
+            }
+            // a simple route ends at the destination
+            if (stops < maxStops && !(simple && next == target)) {
+                cursor[depth] = graph.firstEdge(next);
+                if (simple) {
+                    onRoute[next >>> 6] |= 1L << next;
+                }
+                depth++;
+            }
+        }
+    }
+
+    /**
+     * Fewest stops from every vertex to the target by a backward
+     * breadth first search, Integer.MAX_VALUE where it cannot be
+     * reached.
+     */
+    private int[] stopsToTarget(int target) {
+        int[] hops = new int[graph.numberOfVertices()];
+        Arrays.fill(hops, Integer.MAX_VALUE);
+        int[] queue = new int[graph.numberOfVertices()];
+        int head = 0;
+        int tail = 0;
+        hops[target] = 0;
+        queue[tail++] = target;
+        while (head < tail) {
+            int vertex = queue[head++];
+            for (int inEdge = graph.firstInEdge(vertex), end = graph.endInEdge(vertex); inEdge < end; inEdge++) {
+                int previous = graph.source(inEdge);
+                if (hops[previous] == Integer.MAX_VALUE
+                        && graph.weight(graph.forwardEdge(inEdge)) != CompressedDirectedGraph.CLOSED) {
+                    hops[previous] = hops[vertex] + 1;
+                    queue[tail++] = previous;
+                }
+            }
+        }
+        return hops;
+    }
+
+    /**
+     * Shortest distance from every vertex to the target by a
+     * backward Dijkstra search, read with distanceTo.
+     */
+    private DijkstraWorkspace distancesToTarget(int target) {
+        DijkstraWorkspace workspace = workspaces.get();
+        workspace.begin();
+        workspace.relax(target, 0, DijkstraWorkspace.NO_PARENT);
+        while (!workspace.heap.empty()) {
+            int current = workspace.settleMin();
+            int currentDistance = workspace.distance[current];
+            for (int inEdge = graph.firstInEdge(current), end = graph.endInEdge(current); inEdge < end; inEdge++) {
+                int weight = graph.weight(graph.forwardEdge(inEdge));
+                if (weight != CompressedDirectedGraph.CLOSED) {
+                    workspace.relax(graph.source(inEdge), currentDistance + weight, current);
+                }
+            }
+        }
+        return workspace;
+    }
+}
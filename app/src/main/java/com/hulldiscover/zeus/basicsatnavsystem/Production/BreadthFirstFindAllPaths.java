@@ -2,6 +2,7 @@ package com.hulldiscover.zeus.basicsatnavsystem.Production;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -75,6 +76,47 @@ public class BreadthFirstFindAllPaths {
         return paths;
     }
 
+    /**
+     * Returns the paths one at a time, where path itself is a list
+     * of nodes. Unlike getAllPaths nothing is kept once a path has
+     * been returned, so the caller can stop at any time and the
+     * number of paths is not limited by memory.
+     *
+     * @param source      the source node
+     * @param destination the destination node
+     * @return iterator over all paths
+     */
+    public Iterator<List<String>> pathIterator(String source, String destination) {
+        // Validate source vertex
+        // and destination vertex
+        validate(source, destination);
+
+        final CompressedDirectedGraph graph = directedGraph.compressed();
+        final SimplePathIterator paths = new SimplePathIterator(graph,
+                graph.requireId(source), graph.requireId(destination));
+        return new Iterator<List<String>>() {
+            @Override
+            public boolean hasNext() {
+                return paths.hasNext();
+            }
+
+            @Override
+            public List<String> next() {
+                int[] path = paths.next();
+                List<String> names = new ArrayList<String>(path.length);
+                for (int v : path) {
+                    names.add(graph.name(v));
+                }
+                return names;
+            }
+
+            @Override
+            public void remove() {
+                paths.remove();
+            }
+        };
+    }
+
     // this ignore's cycles.
     private void recursive(String current, String destination, List<List<String>> paths, LinkedHashSet<String> path) {
         path.add(current);
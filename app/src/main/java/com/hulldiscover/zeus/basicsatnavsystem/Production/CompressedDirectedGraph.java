@@ -0,0 +1,980 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Frozen compressed-sparse-row (CSR) form of a directed graph.
+ *
+ * Every vertex is given an int id (in the order it is first seen in
+ * the edge array) and the outgoing edges of vertex v are stored in
+ * the slots firstEdge(v) .. endEdge(v) - 1 of the targets and
+ * weights arrays. A road segment costs two ints instead of the
+ * three or four objects used by DirectedGraph.Vertex.
+ *
+ * Each row is sorted by target id. When the same road segment is
+ * listed more than once only its shortest distance is kept.
+ *
+ * A reverse index holds the incoming edges of every vertex in the
+ * same layout (firstInEdge, endInEdge, sources), each pointing back
+ * at the forward edge slot so weights are stored only once.
+ *
+ * Every array is split into pages of PAGE_SIZE slots, so a new
+ * version made by VersionedGraph copies only the pages it changes
+ * and shares the rest with the version before. A closed segment
+ * keeps its slot with the weight CLOSED, which every search skips.
+ * A new segment goes into the spare slots at the end of its row,
+ * or the row moves to the end of the slots with room to grow. Once
+ * the closed, spare and abandoned slots outnumber the open edges,
+ * the next version is built again without them.
+ *
+ * Instances are immutable once built, so one graph can be shared
+ * by any number of threads without locks or copies. No search
+ * writes into the graph; every query keeps its state in a context
+ * of its own (a DijkstraWorkspace per thread in the engines, local
+ * arrays elsewhere) and returns its result as a new object such as
+ * a ShortestPathTree or a Route.
+ */
+public final class CompressedDirectedGraph {
+
+    /**
+     * Returned by the edge lookups when
+     * there is no edge between two vertices.
+     */
+    public static final int NO_EDGE = -1;
+
+    /**
+     * Weight of the slot of a closed segment.
+     */
+    public static final int CLOSED = Integer.MIN_VALUE;
+
+    // slots in a page of every array
+    static final int PAGE_SHIFT = 10;
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final int vertexCount;
+
+    // vertex names, paged by id
+    private final String[][] names;
+
+    // mapping of vertex names to ids, split over a few maps
+    // so a version adding vertices does not copy all of them
+    private final List<Map<String, Integer>> ids;
+
+    // forward row of every vertex, paged by id: the slots
+    // rowStart .. rowEnd - 1, with spare slots up to rowLimit
+    final int[][] rowStart;
+    final int[][] rowEnd;
+    final int[][] rowLimit;
+
+    // edge target ids and weights, paged by edge slot
+    final int[][] targets;
+    final int[][] weights;
+
+    // incoming row of every vertex, laid out like the forward rows
+    final int[][] inStart;
+    final int[][] inEnd;
+    final int[][] inLimit;
+
+    // source vertex ids of incoming edges and the forward edge
+    // slot of each, paged by incoming edge slot
+    final int[][] sources;
+    final int[][] reverseEdges;
+
+    // edge slots and incoming edge slots handed out
+    private final int slotCount;
+    private final int inSlotCount;
+
+    // open edges
+    private final int edgeCount;
+
+    // longest edge weight, 0 without edges; after an update it
+    // may be the weight of an edge since shortened or closed
+    private final int maxWeight;
+
+    // version number given by VersionedGraph, 0 when built from edges
+    private final long version;
+
+    private CompressedDirectedGraph(int vertexCount, String[][] names, List<Map<String, Integer>> ids,
+                                    int[][] rowStart, int[][] rowEnd, int[][] rowLimit,
+                                    int[][] targets, int[][] weights,
+                                    int[][] inStart, int[][] inEnd, int[][] inLimit,
+                                    int[][] sources, int[][] reverseEdges,
+                                    int slotCount, int inSlotCount, int edgeCount, int maxWeight, long version) {
+        this.vertexCount = vertexCount;
+        this.names = names;
+        this.ids = ids;
+        this.rowStart = rowStart;
+        this.rowEnd = rowEnd;
+        this.rowLimit = rowLimit;
+        this.targets = targets;
+        this.weights = weights;
+        this.inStart = inStart;
+        this.inEnd = inEnd;
+        this.inLimit = inLimit;
+        this.sources = sources;
+        this.reverseEdges = reverseEdges;
+        this.slotCount = slotCount;
+        this.inSlotCount = inSlotCount;
+        this.edgeCount = edgeCount;
+        this.maxWeight = maxWeight;
+        this.version = version;
+    }
+
+    /**
+     * Builds a compressed graph from a set of edges.
+     *
+     * @param edges an array of edges
+     * @return the compressed graph
+     */
+    public static CompressedDirectedGraph fromEdges(DirectedGraph.Edge[] edges) {
+        // one pass to number all vertices
+        Map<String, Integer> ids = new HashMap<>(edges.length);
+        int[] from = new int[edges.length];
+        int[] to = new int[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            from[i] = idOf(ids, edges[i].vertex1);
+            to[i] = idOf(ids, edges[i].vertex2);
+        }
+
+        int[] distances = new int[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            distances[i] = edges[i].distance;
+        }
+
+        String[] names = new String[ids.size()];
+        for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+            names[entry.getValue()] = entry.getKey();
+        }
+        return fromIds(names, ids, from, to, distances, edges.length, 0);
+    }
+
+    /**
+     * Builds a compressed graph from edges between numbered
+     * vertices, edge i going from[i] to to[i] with weight
+     * distances[i].
+     *
+     * @param names vertex names, indexed by id
+     * @param ids mapping of the names to ids, not changed afterwards
+     * @param from start vertex ids
+     * @param to end vertex ids
+     * @param distances edge weights
+     * @param edgeCount number of edges in the arrays
+     * @param version version number of the graph
+     * @return the compressed graph
+     */
+    static CompressedDirectedGraph fromIds(String[] names, Map<String, Integer> ids, int[] from, int[] to,
+                                           int[] distances, int edgeCount, long version) {
+        // two stable counting sorts (by target, then by source)
+        // leave every row sorted by target id
+        int vertexCount = names.length;
+        int[] byTarget = countingSort(identity(edgeCount), to, vertexCount);
+        int[] order = countingSort(byTarget, from, vertexCount);
+
+        // copy into rows, collapsing parallel edges
+        int[] offsets = new int[vertexCount + 1];
+        int[] targets = new int[edgeCount];
+        int[] weights = new int[edgeCount];
+        int size = 0;
+        int row = 0;
+        for (int i : order) {
+            while (row < from[i]) {
+                offsets[++row] = size;
+            }
+            if (size > offsets[row] && targets[size - 1] == to[i]) {
+                weights[size - 1] = Math.min(weights[size - 1], distances[i]);
+            } else {
+                targets[size] = to[i];
+                weights[size] = distances[i];
+                size++;
+            }
+        }
+        while (row < vertexCount) {
+            offsets[++row] = size;
+        }
+        int longest = 0;
+        for (int i = 0; i < size; i++) {
+            longest = Math.max(longest, weights[i]);
+        }
+
+        // counting sort of the forward edges by target builds
+        // the incoming rows, each sorted by source id
+        int[] reverseOffsets = new int[vertexCount + 1];
+        for (int i = 0; i < size; i++) {
+            reverseOffsets[targets[i] + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+        int[] next = Arrays.copyOf(reverseOffsets, vertexCount);
+        int[] sources = new int[size];
+        int[] reverseEdges = new int[size];
+        for (int v = 0; v < vertexCount; v++) {
+            for (int edge = offsets[v]; edge < offsets[v + 1]; edge++) {
+                int slot = next[targets[edge]]++;
+                sources[slot] = v;
+                reverseEdges[slot] = edge;
+            }
+        }
+
+        // rows are packed, with no spare slots
+        int[][] rowStart = paged(offsets, vertexCount);
+        int[][] rowEnd = paged(Arrays.copyOfRange(offsets, 1, vertexCount + 1), vertexCount);
+        int[][] inStart = paged(reverseOffsets, vertexCount);
+        int[][] inEnd = paged(Arrays.copyOfRange(reverseOffsets, 1, vertexCount + 1), vertexCount);
+        String[][] namePages = new String[Math.max(1, (vertexCount + PAGE_MASK) >>> PAGE_SHIFT)][];
+        for (int page = 0; page < namePages.length; page++) {
+            namePages[page] = new String[PAGE_SIZE];
+            int first = page << PAGE_SHIFT;
+            System.arraycopy(names, first, namePages[page], 0, Math.max(0, Math.min(PAGE_SIZE, vertexCount - first)));
+        }
+        return new CompressedDirectedGraph(vertexCount, namePages, Collections.singletonList(ids),
+                rowStart, rowEnd, rowEnd, paged(targets, size), paged(weights, size),
+                inStart, inEnd, inEnd, paged(sources, size), paged(reverseEdges, size),
+                size, size, size, longest, version);
+    }
+
+    /**
+     * Splits the first length ints of an array into pages.
+     */
+    private static int[][] paged(int[] array, int length) {
+        int[][] pages = new int[Math.max(1, (length + PAGE_MASK) >>> PAGE_SHIFT)][];
+        for (int page = 0; page < pages.length; page++) {
+            pages[page] = new int[PAGE_SIZE];
+            int first = page << PAGE_SHIFT;
+            System.arraycopy(array, first, pages[page], 0, Math.max(0, Math.min(PAGE_SIZE, length - first)));
+        }
+        return pages;
+    }
+
+    private static int read(int[][] pages, int index) {
+        return pages[index >>> PAGE_SHIFT][index & PAGE_MASK];
+    }
+
+    /**
+     * Returns the id of a vertex name, assigning the next free
+     * id if the name has not been seen before.
+     */
+    private static int idOf(Map<String, Integer> ids, String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = ids.size();
+            ids.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * Stable counting sort of a permutation by an int key.
+     *
+     * @param order the permutation to sort
+     * @param key the key of every element
+     * @param range the keys are in 0 .. range - 1
+     * @return the sorted permutation
+     */
+    private static int[] countingSort(int[] order, int[] key, int range) {
+        int[] start = new int[range + 1];
+        for (int i : order) {
+            start[key[i] + 1]++;
+        }
+        for (int k = 0; k < range; k++) {
+            start[k + 1] += start[k];
+        }
+        int[] sorted = new int[order.length];
+        for (int i : order) {
+            sorted[start[key[i]]++] = i;
+        }
+        return sorted;
+    }
+
+    private static int[] identity(int length) {
+        int[] order = new int[length];
+        for (int i = 0; i < length; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Method returns the
+     * number of vertices in graph.
+     *
+     * @return the number of vertices
+     */
+    public int numberOfVertices() {
+        return vertexCount;
+    }
+
+    /**
+     * Method returns the
+     * number of (distinct) open edges in graph.
+     *
+     * @return the number of edges
+     */
+    public int numberOfEdges() {
+        return edgeCount;
+    }
+
+    /**
+     * Number of edge slots, one more than the highest slot of any
+     * row. Arrays indexed by edge slot need this length, as rows
+     * may hold closed and spare slots.
+     *
+     * @return the edge slot count
+     */
+    int edgeSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Starts the next version of this graph.
+     *
+     * @return an editor sharing every page with this graph
+     */
+    Editor edit() {
+        return new Editor(this);
+    }
+
+    /**
+     * Method returns the version number of the graph, 0 unless
+     * it was made by a VersionedGraph update.
+     *
+     * @return the version number
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Method returns the
+     * longest edge distance in graph.
+     *
+     * @return the longest edge weight, 0 without edges; after an
+     *         update possibly the weight of an edge since shortened
+     */
+    public int maxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Method returns the
+     * shortest open edge distance in graph.
+     *
+     * @return the shortest edge weight, Integer.MAX_VALUE without edges
+     */
+    int minWeight() {
+        int shortest = Integer.MAX_VALUE;
+        for (int v = 0; v < vertexCount; v++) {
+            for (int edge = firstEdge(v), end = endEdge(v); edge < end; edge++) {
+                int weight = weight(edge);
+                if (weight != CLOSED) {
+                    shortest = Math.min(shortest, weight);
+                }
+            }
+        }
+        return shortest;
+    }
+
+    /**
+     * Method to get the id of a vertex by name.
+     *
+     * @param name the name of the vertex point
+     * @return the vertex id, or -1 if it is not in graph
+     */
+    public int id(String name) {
+        for (int i = 0; i < ids.size(); i++) {
+            Integer id = ids.get(i).get(name);
+            if (id != null) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method to get the id of a vertex that must be in graph.
+     *
+     * @param name the name of the vertex point
+     * @return the vertex id
+     * @throws IllegalArgumentException if the vertex is not in graph
+     */
+    int requireId(String name) {
+        if (name == null) {
+            throw new NullPointerException("The vertex name cannot be null.");
+        }
+        int id = id(name);
+        if (id == -1) {
+            throw new IllegalArgumentException(name + " is not a vertex");
+        }
+        return id;
+    }
+
+    /**
+     * Method to get the name of a vertex by id.
+     *
+     * @param id the vertex id
+     * @return the vertex name
+     */
+    public String name(int id) {
+        if (id < 0 || id >= vertexCount) {
+            throw new ArrayIndexOutOfBoundsException(id);
+        }
+        return names[id >>> PAGE_SHIFT][id & PAGE_MASK];
+    }
+
+    /**
+     * Index of the first outgoing edge of a vertex.
+     *
+     * @param vertex the vertex id
+     * @return the first edge slot of the vertex
+     */
+    public int firstEdge(int vertex) {
+        return read(rowStart, vertex);
+    }
+
+    /**
+     * Index one past the last outgoing edge of a vertex.
+     * The slots in between may hold closed edges.
+     *
+     * @param vertex the vertex id
+     * @return the end (exclusive) edge slot of the vertex
+     */
+    public int endEdge(int vertex) {
+        return read(rowEnd, vertex);
+    }
+
+    /**
+     * Number of open outgoing edges of a vertex.
+     *
+     * @param vertex the vertex id
+     * @return the out degree
+     */
+    public int outDegree(int vertex) {
+        int degree = 0;
+        for (int edge = firstEdge(vertex), end = endEdge(vertex); edge < end; edge++) {
+            if (weight(edge) != CLOSED) {
+                degree++;
+            }
+        }
+        return degree;
+    }
+
+    /**
+     * Target vertex of an edge slot.
+     *
+     * @param edge the edge slot
+     * @return the target vertex id
+     */
+    public int target(int edge) {
+        return read(targets, edge);
+    }
+
+    /**
+     * Distance of an edge slot.
+     *
+     * @param edge the edge slot
+     * @return the edge distance, CLOSED for a closed segment
+     */
+    public int weight(int edge) {
+        return read(weights, edge);
+    }
+
+    /**
+     * Method to find the edge slot between two vertices.
+     * Binary search over the sorted row of the start vertex,
+     * O(log out degree).
+     *
+     * @param from the start vertex id
+     * @param to the end vertex id
+     * @return the edge slot, or NO_EDGE if there is no such edge
+     *         or it is closed
+     */
+    public int findEdge(int from, int to) {
+        int edge = findSlot(from, to);
+        return edge == NO_EDGE || weight(edge) == CLOSED ? NO_EDGE : edge;
+    }
+
+    /**
+     * Slot of the edge between two vertices, open or closed.
+     *
+     * @param from the start vertex id
+     * @param to the end vertex id
+     * @return the edge slot, or NO_EDGE if the row has none
+     */
+    int findSlot(int from, int to) {
+        return search(targets, firstEdge(from), endEdge(from), to);
+    }
+
+    /**
+     * Binary search of a key in the sorted slots low .. end - 1.
+     */
+    private static int search(int[][] keys, int low, int end, int key) {
+        int high = end - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int found = read(keys, middle);
+            if (found < key) {
+                low = middle + 1;
+            } else if (found > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return NO_EDGE;
+    }
+
+    /**
+     * Method to return the distance of the edge
+     * between two vertices.
+     *
+     * @param from the start vertex id
+     * @param to the end vertex id
+     * @return the distance, or NO_EDGE if there is no such edge
+     */
+    public int distance(int from, int to) {
+        int edge = findEdge(from, to);
+        return edge == NO_EDGE ? NO_EDGE : weight(edge);
+    }
+
+    /**
+     * Method to check whether a directed cycle can be reached
+     * from a vertex. Depth first search with the colour of every
+     * vertex kept in arrays local to the call.
+     *
+     * @param vertex the start vertex id
+     * @return true if a cycle is reachable from the vertex
+     */
+    public boolean hasCycleFrom(int vertex) {
+        // 0 not seen, 1 on the search path, 2 done
+        byte[] colour = new byte[vertexCount];
+        int[] stack = new int[vertexCount];
+        int[] cursor = new int[vertexCount];
+        int depth = 0;
+        stack[depth] = vertex;
+        cursor[depth] = firstEdge(vertex);
+        colour[vertex] = 1;
+        depth++;
+        while (depth > 0) {
+            int current = stack[depth - 1];
+            if (cursor[depth - 1] == endEdge(current)) {
+                colour[current] = 2;
+                depth--;
+                continue;
+            }
+            int edge = cursor[depth - 1]++;
+            if (weight(edge) == CLOSED) {
+                continue;
+            }
+            int next = target(edge);
+            if (colour[next] == 1) {
+                return true; // back to the search path
+            }
+            if (colour[next] == 0) {
+                colour[next] = 1;
+                stack[depth] = next;
+                cursor[depth] = firstEdge(next);
+                depth++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Index of the first incoming edge of a vertex.
+     *
+     * @param vertex the vertex id
+     * @return the first incoming edge slot of the vertex
+     */
+    public int firstInEdge(int vertex) {
+        return read(inStart, vertex);
+    }
+
+    /**
+     * Index one past the last incoming edge of a vertex.
+     * The slots in between may hold closed edges.
+     *
+     * @param vertex the vertex id
+     * @return the end (exclusive) incoming edge slot of the vertex
+     */
+    public int endInEdge(int vertex) {
+        return read(inEnd, vertex);
+    }
+
+    /**
+     * Number of open incoming edges of a vertex.
+     *
+     * @param vertex the vertex id
+     * @return the in degree
+     */
+    public int inDegree(int vertex) {
+        int degree = 0;
+        for (int inEdge = firstInEdge(vertex), end = endInEdge(vertex); inEdge < end; inEdge++) {
+            if (weight(forwardEdge(inEdge)) != CLOSED) {
+                degree++;
+            }
+        }
+        return degree;
+    }
+
+    /**
+     * Source vertex of an incoming edge slot.
+     *
+     * @param inEdge the incoming edge slot
+     * @return the source vertex id
+     */
+    public int source(int inEdge) {
+        return read(sources, inEdge);
+    }
+
+    /**
+     * Forward edge slot of an incoming edge slot.
+     *
+     * @param inEdge the incoming edge slot
+     * @return the forward edge slot
+     */
+    public int forwardEdge(int inEdge) {
+        return read(reverseEdges, inEdge);
+    }
+
+    /**
+     * Builds the next version of a graph. A page is copied the
+     * first time the editor writes to it, so the new version
+     * shares every page the changes do not touch.
+     *
+     * An editor belongs to one writer and builds one version.
+     */
+    static final class Editor {
+
+        // the version being changed
+        private final CompressedDirectedGraph base;
+
+        // page tables and pages copied by this editor,
+        // the only ones it may write to
+        private final Set<Object> owned = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+        private final Rows forward;
+        private final Rows reverse;
+
+        private String[][] names;
+
+        // names of the vertices added by this editor
+        private final Map<String, Integer> addedIds = new HashMap<>();
+
+        private int vertexCount;
+        private int edgeCount;
+        private int maxWeight;
+        private boolean changed;
+
+        Editor(CompressedDirectedGraph base) {
+            this.base = base;
+            this.forward = new Rows(base.rowStart, base.rowEnd, base.rowLimit,
+                    base.targets, base.weights, base.slotCount);
+            this.reverse = new Rows(base.inStart, base.inEnd, base.inLimit,
+                    base.sources, base.reverseEdges, base.inSlotCount);
+            this.names = base.names;
+            this.vertexCount = base.vertexCount;
+            this.edgeCount = base.edgeCount;
+            this.maxWeight = base.maxWeight;
+        }
+
+        /**
+         * Whether anything was changed.
+         *
+         * @return true once an edge or vertex is changed or added
+         */
+        boolean changed() {
+            return changed;
+        }
+
+        /**
+         * Id of a vertex in the graph being built.
+         *
+         * @param name the name of the vertex point
+         * @return the vertex id, or -1 if it is not in graph
+         */
+        int id(String name) {
+            Integer id = addedIds.get(name);
+            return id == null ? base.id(name) : id;
+        }
+
+        /**
+         * Id of a vertex, adding the vertex if it is new.
+         *
+         * @param name the name of the vertex point
+         * @return the vertex id
+         */
+        int vertex(String name) {
+            int id = id(name);
+            if (id != -1) {
+                return id;
+            }
+            id = vertexCount++;
+            addedIds.put(name, id);
+            names = writeName(names, id, name);
+            // empty rows, moved to room of their own on the first edge
+            forward.clear(id);
+            reverse.clear(id);
+            changed = true;
+            return id;
+        }
+
+        /**
+         * Slot of the edge between two vertices, open or closed.
+         *
+         * @param from the start vertex id
+         * @param to the end vertex id
+         * @return the edge slot, or NO_EDGE if the row has none
+         */
+        int findSlot(int from, int to) {
+            return search(forward.keys, read(forward.start, from), read(forward.end, from), to);
+        }
+
+        /**
+         * Weight of an edge slot in the graph being built.
+         *
+         * @param edge the edge slot
+         * @return the edge distance, CLOSED for a closed segment
+         */
+        int weight(int edge) {
+            return read(forward.values, edge);
+        }
+
+        /**
+         * Sets the weight of an edge slot, closing the edge with
+         * CLOSED or opening it again with a distance.
+         *
+         * @param edge the edge slot
+         * @param weight the new weight
+         */
+        void setWeight(int edge, int weight) {
+            int old = weight(edge);
+            if (old == weight) {
+                return;
+            }
+            if (old == CLOSED) {
+                edgeCount++;
+            } else if (weight == CLOSED) {
+                edgeCount--;
+            }
+            forward.values = write(forward.values, edge, weight);
+            maxWeight = Math.max(maxWeight, weight);
+            changed = true;
+        }
+
+        /**
+         * Adds an edge the rows do not have yet.
+         *
+         * @param from the start vertex id
+         * @param to the end vertex id
+         * @param weight the edge distance
+         */
+        void addEdge(int from, int to, int weight) {
+            int edge = forward.insert(from, to, weight);
+
+            // incoming entries of the forward slots that moved
+            // must point at the new slots
+            for (int slot = forward.moved, end = read(forward.end, from); slot < end; slot++) {
+                if (slot != edge) {
+                    int target = read(forward.keys, slot);
+                    int inEdge = search(reverse.keys, read(reverse.start, target), read(reverse.end, target), from);
+                    reverse.values = write(reverse.values, inEdge, slot);
+                }
+            }
+            reverse.insert(to, from, edge);
+            edgeCount++;
+            maxWeight = Math.max(maxWeight, weight);
+            changed = true;
+        }
+
+        /**
+         * Builds the new version. The pages written by this
+         * editor belong to it, so it must not be used again.
+         *
+         * @param version version number of the new graph
+         * @return the new graph
+         */
+        CompressedDirectedGraph build(long version) {
+            // once most slots are waste, pack the rows again
+            if (forward.slotCount - edgeCount > edgeCount + PAGE_SIZE
+                    || reverse.slotCount - edgeCount > edgeCount + PAGE_SIZE) {
+                return compact(version);
+            }
+            List<Map<String, Integer>> ids = base.ids;
+            if (!addedIds.isEmpty()) {
+                // merge the newest maps while they are as large as
+                // the one before, which keeps log(vertices) maps
+                List<Map<String, Integer>> merged = new ArrayList<>(ids);
+                merged.add(addedIds);
+                int last = merged.size() - 1;
+                while (last > 0 && merged.get(last).size() >= merged.get(last - 1).size()) {
+                    Map<String, Integer> map = new HashMap<>(merged.remove(last - 1));
+                    map.putAll(merged.remove(last - 1));
+                    merged.add(map);
+                    last--;
+                }
+                ids = merged;
+            }
+            return new CompressedDirectedGraph(vertexCount, names, ids,
+                    forward.start, forward.end, forward.limit, forward.keys, forward.values,
+                    reverse.start, reverse.end, reverse.limit, reverse.keys, reverse.values,
+                    forward.slotCount, reverse.slotCount, edgeCount, maxWeight, version);
+        }
+
+        /**
+         * New packed rows with only the open edges.
+         */
+        private CompressedDirectedGraph compact(long version) {
+            String[] allNames = new String[vertexCount];
+            Map<String, Integer> allIds = new HashMap<>(vertexCount);
+            int[] from = new int[edgeCount];
+            int[] to = new int[edgeCount];
+            int[] distances = new int[edgeCount];
+            int size = 0;
+            for (int v = 0; v < vertexCount; v++) {
+                allNames[v] = names[v >>> PAGE_SHIFT][v & PAGE_MASK];
+                allIds.put(allNames[v], v);
+                for (int edge = read(forward.start, v), end = read(forward.end, v); edge < end; edge++) {
+                    int weight = read(forward.values, edge);
+                    if (weight != CLOSED) {
+                        from[size] = v;
+                        to[size] = read(forward.keys, edge);
+                        distances[size] = weight;
+                        size++;
+                    }
+                }
+            }
+            return fromIds(allNames, allIds, from, to, distances, size, version);
+        }
+
+        /**
+         * Writes a slot, copying the page table and the page
+         * first unless this editor already did.
+         *
+         * @return the page table, to be stored back
+         */
+        private int[][] write(int[][] table, int index, int value) {
+            int page = index >>> PAGE_SHIFT;
+            if (page >= table.length || !owned.contains(table)) {
+                table = Arrays.copyOf(table, Math.max(table.length, page + 1 + (page >>> 1)));
+                owned.add(table);
+            }
+            int[] slots = table[page];
+            if (slots == null) {
+                slots = new int[PAGE_SIZE];
+                table[page] = slots;
+                owned.add(slots);
+            } else if (!owned.contains(slots)) {
+                slots = slots.clone();
+                table[page] = slots;
+                owned.add(slots);
+            }
+            slots[index & PAGE_MASK] = value;
+            return table;
+        }
+
+        private String[][] writeName(String[][] table, int index, String value) {
+            int page = index >>> PAGE_SHIFT;
+            if (page >= table.length || !owned.contains(table)) {
+                table = Arrays.copyOf(table, Math.max(table.length, page + 1 + (page >>> 1)));
+                owned.add(table);
+            }
+            String[] slots = table[page];
+            if (slots == null) {
+                slots = new String[PAGE_SIZE];
+                table[page] = slots;
+                owned.add(slots);
+            } else if (!owned.contains(slots)) {
+                slots = slots.clone();
+                table[page] = slots;
+                owned.add(slots);
+            }
+            slots[index & PAGE_MASK] = value;
+            return table;
+        }
+
+        /**
+         * The forward or the incoming rows: per vertex the slots
+         * start .. end - 1 with room up to limit, and per slot a
+         * key the row is sorted by and a value.
+         */
+        private final class Rows {
+            int[][] start;
+            int[][] end;
+            int[][] limit;
+            int[][] keys;
+            int[][] values;
+            int slotCount;
+
+            // first slot of the row last inserted into whose
+            // entry moved, the new entry included
+            int moved;
+
+            Rows(int[][] start, int[][] end, int[][] limit, int[][] keys, int[][] values, int slotCount) {
+                this.start = start;
+                this.end = end;
+                this.limit = limit;
+                this.keys = keys;
+                this.values = values;
+                this.slotCount = slotCount;
+            }
+
+            void clear(int vertex) {
+                start = write(start, vertex, 0);
+                end = write(end, vertex, 0);
+                limit = write(limit, vertex, 0);
+            }
+
+            /**
+             * Inserts an entry in key order, in the spare slots of
+             * the row if it has one, or else after moving the row to
+             * the end of the slots with as much room again.
+             *
+             * @return the slot of the new entry
+             */
+            int insert(int vertex, int key, int value) {
+                int first = read(start, vertex);
+                int last = read(end, vertex);
+                int at = first;
+                while (at < last && read(keys, at) < key) {
+                    at++;
+                }
+                if (last == read(limit, vertex)) {
+                    int degree = last - first;
+                    int room = Math.max(4, 2 * (degree + 1));
+                    int moved = slotCount;
+                    slotCount += room;
+                    for (int slot = first; slot < last; slot++) {
+                        int to = moved + slot - first + (slot < at ? 0 : 1);
+                        keys = write(keys, to, read(keys, slot));
+                        values = write(values, to, read(values, slot));
+                    }
+                    at = moved + at - first;
+                    last = moved + degree;
+                    start = write(start, vertex, moved);
+                    limit = write(limit, vertex, moved + room);
+                    this.moved = moved;
+                } else {
+                    for (int slot = last; slot > at; slot--) {
+                        keys = write(keys, slot, read(keys, slot - 1));
+                        values = write(values, slot, read(values, slot - 1));
+                    }
+                    this.moved = at;
+                }
+                keys = write(keys, at, key);
+                values = write(values, at, value);
+                end = write(end, vertex, last + 1);
+                return at;
+            }
+        }
+    }
+}
@@ -0,0 +1,527 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Contraction hierarchy of a CompressedDirectedGraph.
+ *
+ * Vertices are contracted one at a time, least important first.
+ * Contracting v removes it from the remaining graph and adds a
+ * shortcut u -> w (through v) for every pair of neighbours whose
+ * only shortest route uses v. A local witness search decides
+ * whether another route exists. The position of a vertex in the
+ * contraction order is its rank.
+ *
+ * Importance is the edge difference (shortcuts added minus edges
+ * removed) plus the number of neighbours already contracted, kept
+ * up to date lazily.
+ *
+ * The result is stored as two CSR graphs over the same vertex ids:
+ *     up   - edges v -> w with rank[w] > rank[v], for forward search
+ *     down - edges u -> v with rank[u] > rank[v], stored at v, for
+ *            backward search
+ * Every edge records the vertex it shortcuts (or NO_MIDDLE for an
+ * original road segment) so routes can be unpacked.
+ *
+ * Built once, immutable afterwards; queries are answered by
+ * ContractionHierarchyQueryEngine.
+ *
+ * References
+ * Geisberger et al., Contraction Hierarchies: Faster and Simpler
+ * Hierarchical Routing in Road Networks (2008)
+ */
+public class ContractionHierarchy {
+
+    /**
+     * Middle vertex of an edge that is not a shortcut.
+     */
+    public static final int NO_MIDDLE = -1;
+
+    // witness searches give up after settling this many vertices;
+    // a missed witness only costs an unneeded shortcut, so the
+    // estimate used for ordering searches less than the real one
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+    private static final int ESTIMATE_SETTLE_LIMIT = 50;
+
+    private final CompressedDirectedGraph graph;
+
+    // contraction order of every vertex
+    final int[] rank;
+
+    // upward edges in forward direction, rows sorted by target
+    final int[] upOffsets;
+    final int[] upTargets;
+    final int[] upWeights;
+    final int[] upMiddles;
+
+    // upward edges in backward direction, rows sorted by source
+    final int[] downOffsets;
+    final int[] downSources;
+    final int[] downWeights;
+    final int[] downMiddles;
+
+    private final int shortcutCount;
+
+    private ContractionHierarchy(CompressedDirectedGraph graph, int[] rank, int[][] up, int[][] down,
+                                 int shortcutCount) {
+        this.graph = graph;
+        this.rank = rank;
+        this.upOffsets = up[0];
+        this.upTargets = up[1];
+        this.upWeights = up[2];
+        this.upMiddles = up[3];
+        this.downOffsets = down[0];
+        this.downSources = down[1];
+        this.downWeights = down[2];
+        this.downMiddles = down[3];
+        this.shortcutCount = shortcutCount;
+    }
+
+    /**
+     * Contracts every vertex of a graph.
+     *
+     * @param graph the graph
+     * @return the hierarchy
+     */
+    public static ContractionHierarchy build(CompressedDirectedGraph graph) {
+        if (graph == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        return new Contractor(graph).contractAll();
+    }
+
+    /**
+     * Accessor for the graph of this hierarchy.
+     *
+     * @return the graph
+     */
+    public CompressedDirectedGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Position of a vertex in the contraction order.
+     *
+     * @param vertex the vertex id
+     * @return the rank, 0 for the first contracted vertex
+     */
+    public int rank(int vertex) {
+        return rank[vertex];
+    }
+
+    /**
+     * Number of shortcut edges added by the contraction.
+     *
+     * @return the shortcut count
+     */
+    public int numberOfShortcuts() {
+        return shortcutCount;
+    }
+
+    /**
+     * Unpacks a route of hierarchy vertices into the original
+     * vertices of the graph.
+     *
+     * With zero distance segments, a shortest route through the
+     * hierarchy can unpack to a walk that goes round a zero length
+     * loop, such as u v u w. Any loop of a shortest walk has length
+     * zero, so every time a zero distance segment leads back to a
+     * vertex of the current run of zero distance segments, the
+     * route is cut back to that vertex. The route stays a simple
+     * path of the same distance and fits numberOfVertices() slots.
+     *
+     * @param chain hierarchy vertices of the route, source first
+     * @param count number of vertices in the chain
+     * @param path buffer for the original vertices, source first
+     * @return the number of vertices in the path
+     */
+    int unpackRoute(int[] chain, int count, int[] path) {
+        Unpacked route = new Unpacked(path, chain[0]);
+        for (int i = 1; i < count; i++) {
+            int from = chain[i - 1];
+            int to = chain[i];
+            if (rank[to] > rank[from]) {
+                int slot = findUp(from, to);
+                unpack(from, to, upMiddles[slot], upWeights[slot], route);
+            } else {
+                int slot = findDown(to, from);
+                unpack(from, to, downMiddles[slot], downWeights[slot], route);
+            }
+        }
+        return route.length;
+    }
+
+    /**
+     * Appends the original vertices of a hierarchy edge to a route.
+     *
+     * @param from start of the edge, already in the route
+     * @param to end of the edge
+     * @param middle the vertex the edge shortcuts, or NO_MIDDLE
+     * @param weight distance of the edge
+     * @param route the route so far
+     */
+    private void unpack(int from, int to, int middle, int weight, Unpacked route) {
+        if (middle == NO_MIDDLE) {
+            route.append(to, weight);
+            return;
+        }
+        // from -> middle is a down edge of middle, middle -> to an up edge
+        int down = findDown(middle, from);
+        unpack(from, middle, downMiddles[down], downWeights[down], route);
+        int up = findUp(middle, to);
+        unpack(middle, to, upMiddles[up], upWeights[up], route);
+    }
+
+    /**
+     * A route being unpacked.
+     */
+    private static final class Unpacked {
+        final int[] path;
+        int length;
+
+        // first vertex of the trailing run of zero distance segments
+        int zeroRun;
+
+        Unpacked(int[] path, int source) {
+            this.path = path;
+            path[0] = source;
+            length = 1;
+        }
+
+        void append(int vertex, int weight) {
+            if (weight != 0) {
+                zeroRun = length;
+            } else {
+                for (int i = zeroRun; i < length; i++) {
+                    if (path[i] == vertex) {
+                        length = i + 1; // zero length loop, cut it out
+                        return;
+                    }
+                }
+            }
+            path[length++] = vertex;
+        }
+    }
+
+    /**
+     * Slot of the up edge vertex -> target.
+     */
+    int findUp(int vertex, int target) {
+        return search(upTargets, upOffsets[vertex], upOffsets[vertex + 1] - 1, target);
+    }
+
+    /**
+     * Slot of the down edge source -> vertex.
+     */
+    int findDown(int vertex, int source) {
+        return search(downSources, downOffsets[vertex], downOffsets[vertex + 1] - 1, source);
+    }
+
+    private static int search(int[] keys, int low, int high, int key) {
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < key) {
+                low = middle + 1;
+            } else if (keys[middle] > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        throw new IllegalStateException("Hierarchy edge to " + key + " is missing.");
+    }
+
+    /**
+     * Contraction state: the remaining graph as growable
+     * adjacency lists, shortcuts included.
+     */
+    private static final class Contractor {
+        private final CompressedDirectedGraph graph;
+        private final int vertexCount;
+
+        // outgoing edges: target, weight, middle
+        private final int[][] outTarget;
+        private final int[][] outWeight;
+        private final int[][] outMiddle;
+        private final int[] outSize;
+
+        // incoming edges: source, weight, middle
+        private final int[][] inSource;
+        private final int[][] inWeight;
+        private final int[][] inMiddle;
+        private final int[] inSize;
+
+        private final boolean[] contracted;
+        private final int[] contractedNeighbours;
+        private final int[] rank;
+
+        private final DijkstraWorkspace witness;
+        private int shortcutCount;
+
+        Contractor(CompressedDirectedGraph graph) {
+            this.graph = graph;
+            vertexCount = graph.numberOfVertices();
+            outTarget = new int[vertexCount][];
+            outWeight = new int[vertexCount][];
+            outMiddle = new int[vertexCount][];
+            outSize = new int[vertexCount];
+            inSource = new int[vertexCount][];
+            inWeight = new int[vertexCount][];
+            inMiddle = new int[vertexCount][];
+            inSize = new int[vertexCount];
+            contracted = new boolean[vertexCount];
+            contractedNeighbours = new int[vertexCount];
+            rank = new int[vertexCount];
+            witness = new DijkstraWorkspace(vertexCount);
+
+            for (int v = 0; v < vertexCount; v++) {
+                int out = Math.max(2, graph.outDegree(v));
+                outTarget[v] = new int[out];
+                outWeight[v] = new int[out];
+                outMiddle[v] = new int[out];
+                int in = Math.max(2, graph.inDegree(v));
+                inSource[v] = new int[in];
+                inWeight[v] = new int[in];
+                inMiddle[v] = new int[in];
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                for (int edge = graph.firstEdge(v); edge < graph.endEdge(v); edge++) {
+                    if (graph.weight(edge) == CompressedDirectedGraph.CLOSED) {
+                        continue;
+                    }
+                    if (graph.target(edge) != v) { // self loops never help a shortest route
+                        addEdge(v, graph.target(edge), graph.weight(edge), NO_MIDDLE);
+                    }
+                }
+            }
+        }
+
+        ContractionHierarchy contractAll() {
+            IndexedDaryMinHeap queue = new IndexedDaryMinHeap(vertexCount);
+            for (int v = 0; v < vertexCount; v++) {
+                queue.add(priority(v), v);
+            }
+
+            int order = 0;
+            while (!queue.empty()) {
+                int v = queue.extractMin();
+
+                // lazy update: contract only if v is still the least important
+                int current = priority(v);
+                if (!queue.empty() && current > queue.minWeight()) {
+                    queue.add(current, v);
+                    continue;
+                }
+
+                contract(v, true);
+                contracted[v] = true;
+                rank[v] = order++;
+
+                // neighbours lost an edge, refresh their importance
+                for (int i = 0; i < outSize[v]; i++) {
+                    refresh(queue, outTarget[v][i]);
+                }
+                for (int i = 0; i < inSize[v]; i++) {
+                    refresh(queue, inSource[v][i]);
+                }
+            }
+            return new ContractionHierarchy(graph, rank, upwardEdges(), downwardEdges(), shortcutCount);
+        }
+
+        private void refresh(IndexedDaryMinHeap queue, int neighbour) {
+            if (!contracted[neighbour] && queue.containsData(neighbour)) {
+                contractedNeighbours[neighbour]++;
+                queue.update(neighbour, priority(neighbour));
+            }
+        }
+
+        /**
+         * Edge difference plus contracted neighbours.
+         */
+        private int priority(int v) {
+            int removed = 0;
+            for (int i = 0; i < outSize[v]; i++) {
+                if (!contracted[outTarget[v][i]]) {
+                    removed++;
+                }
+            }
+            for (int i = 0; i < inSize[v]; i++) {
+                if (!contracted[inSource[v][i]]) {
+                    removed++;
+                }
+            }
+            return contract(v, false) - removed + contractedNeighbours[v];
+        }
+
+        /**
+         * Finds (and if apply is set, adds) the shortcuts needed
+         * to contract a vertex.
+         *
+         * @return the number of shortcuts
+         */
+        private int contract(int v, boolean apply) {
+            int shortcuts = 0;
+            for (int i = 0; i < inSize[v]; i++) {
+                int u = inSource[v][i];
+                if (contracted[u]) {
+                    continue;
+                }
+                int toV = inWeight[v][i];
+
+                // longest route through v that a witness must beat
+                int limit = -1;
+                for (int j = 0; j < outSize[v]; j++) {
+                    int w = outTarget[v][j];
+                    if (!contracted[w] && w != u) {
+                        limit = Math.max(limit, toV + outWeight[v][j]);
+                    }
+                }
+                if (limit == -1) {
+                    continue; // no uncontracted neighbour to connect
+                }
+                witnessSearch(u, v, limit, apply ? WITNESS_SETTLE_LIMIT : ESTIMATE_SETTLE_LIMIT);
+
+                for (int j = 0; j < outSize[v]; j++) {
+                    int w = outTarget[v][j];
+                    if (contracted[w] || w == u) {
+                        continue;
+                    }
+                    int through = toV + outWeight[v][j];
+                    if (witness.distanceTo(w) > through) {
+                        shortcuts++;
+                        if (apply) {
+                            addEdge(u, w, through, v);
+                        }
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        /**
+         * Dijkstra from u in the remaining graph without v,
+         * bounded by distance and settled vertex count.
+         */
+        private void witnessSearch(int u, int v, int limit, int settleLimit) {
+            witness.begin();
+            witness.relax(u, 0, DijkstraWorkspace.NO_PARENT);
+            while (!witness.heap.empty() && witness.heap.minWeight() <= limit
+                    && witness.settledCount < settleLimit) {
+                int current = witness.settleMin();
+                int currentDistance = witness.distance[current];
+                for (int i = 0; i < outSize[current]; i++) {
+                    int next = outTarget[current][i];
+                    if (next != v && !contracted[next]) {
+                        witness.relax(next, currentDistance + outWeight[current][i], current);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds an edge or shortcut, or shortens an existing one.
+         */
+        private void addEdge(int from, int to, int weight, int middle) {
+            for (int i = 0; i < outSize[from]; i++) {
+                if (outTarget[from][i] == to) {
+                    if (weight < outWeight[from][i]) {
+                        outWeight[from][i] = weight;
+                        outMiddle[from][i] = middle;
+                        for (int j = 0; j < inSize[to]; j++) {
+                            if (inSource[to][j] == from) {
+                                inWeight[to][j] = weight;
+                                inMiddle[to][j] = middle;
+                            }
+                        }
+                    }
+                    return;
+                }
+            }
+            if (middle != NO_MIDDLE) {
+                shortcutCount++;
+            }
+
+            if (outSize[from] == outTarget[from].length) {
+                outTarget[from] = grow(outTarget[from]);
+                outWeight[from] = grow(outWeight[from]);
+                outMiddle[from] = grow(outMiddle[from]);
+            }
+            outTarget[from][outSize[from]] = to;
+            outWeight[from][outSize[from]] = weight;
+            outMiddle[from][outSize[from]] = middle;
+            outSize[from]++;
+
+            if (inSize[to] == inSource[to].length) {
+                inSource[to] = grow(inSource[to]);
+                inWeight[to] = grow(inWeight[to]);
+                inMiddle[to] = grow(inMiddle[to]);
+            }
+            inSource[to][inSize[to]] = from;
+            inWeight[to][inSize[to]] = weight;
+            inMiddle[to][inSize[to]] = middle;
+            inSize[to]++;
+        }
+
+        private static int[] grow(int[] array) {
+            int[] grown = new int[array.length * 2];
+            System.arraycopy(array, 0, grown, 0, array.length);
+            return grown;
+        }
+
+        /**
+         * Edges to higher ranked vertices, grouped by source.
+         */
+        private int[][] upwardEdges() {
+            return toRows(outTarget, outWeight, outMiddle, outSize);
+        }
+
+        /**
+         * Edges from higher ranked vertices, grouped by target.
+         */
+        private int[][] downwardEdges() {
+            return toRows(inSource, inWeight, inMiddle, inSize);
+        }
+
+        /**
+         * CSR rows of the adjacency entries that lead to a
+         * higher ranked vertex, each row sorted by neighbour.
+         *
+         * @return offsets, neighbours, weights and middles
+         */
+        private int[][] toRows(int[][] neighbour, int[][] weight, int[][] middle, int[] size) {
+            int[] offsets = new int[vertexCount + 1];
+            for (int v = 0; v < vertexCount; v++) {
+                int count = 0;
+                for (int i = 0; i < size[v]; i++) {
+                    if (rank[neighbour[v][i]] > rank[v]) {
+                        count++;
+                    }
+                }
+                offsets[v + 1] = offsets[v] + count;
+            }
+            int[] neighbours = new int[offsets[vertexCount]];
+            int[] weights = new int[neighbours.length];
+            int[] middles = new int[neighbours.length];
+            for (int v = 0; v < vertexCount; v++) {
+                int slot = offsets[v];
+                for (int i = 0; i < size[v]; i++) {
+                    if (rank[neighbour[v][i]] <= rank[v]) {
+                        continue;
+                    }
+                    // insertion into the sorted row
+                    int j = slot++;
+                    while (j > offsets[v] && neighbours[j - 1] > neighbour[v][i]) {
+                        neighbours[j] = neighbours[j - 1];
+                        weights[j] = weights[j - 1];
+                        middles[j] = middles[j - 1];
+                        j--;
+                    }
+                    neighbours[j] = neighbour[v][i];
+                    weights[j] = weight[v][i];
+                    middles[j] = middle[v][i];
+                }
+            }
+            return new int[][] {offsets, neighbours, weights, middles};
+        }
+    }
+}
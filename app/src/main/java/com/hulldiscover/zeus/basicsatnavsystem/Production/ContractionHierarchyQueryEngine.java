@@ -0,0 +1,197 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Point-to-point queries over a ContractionHierarchy.
+ *
+ * A forward search from the source and a backward search from the
+ * destination both only follow edges to higher ranked vertices.
+ * Each side stops once its heap minimum is no shorter than the
+ * best route found, and the shortest route is the best sum of the
+ * two distances at a vertex reached by both. Both searches only
+ * see a few hundred vertices even on large graphs.
+ *
+ * Routes are unpacked from shortcuts back to the original vertex
+ * list, so the answers match DijkstraFindShortestPath.
+ *
+ * Every thread reuses its own pair of DijkstraWorkspaces.
+ */
+public class ContractionHierarchyQueryEngine {
+
+    private final ContractionHierarchy hierarchy;
+
+    private final CompressedDirectedGraph graph;
+
+    // forward and backward workspace of every querying thread
+    private final ThreadLocal<Workspaces> workspaces;
+
+    /**
+     * State of one thread's queries.
+     */
+    private static final class Workspaces {
+        final DijkstraWorkspace forward;
+        final DijkstraWorkspace backward;
+
+        // hierarchy vertices of the last route, before unpacking
+        final int[] chain;
+
+        // vertex where the best route of the last query joins both searches
+        int meeting;
+
+        Workspaces(int vertexCount) {
+            forward = new DijkstraWorkspace(vertexCount);
+            backward = new DijkstraWorkspace(vertexCount);
+            chain = new int[vertexCount];
+        }
+    }
+
+    /**
+     * Creates a query engine.
+     *
+     * @param hierarchy the contracted graph to search
+     */
+    public ContractionHierarchyQueryEngine(ContractionHierarchy hierarchy) {
+        if (hierarchy == null) {
+            throw new NullPointerException("The hierarchy cannot be null.");
+        }
+        this.hierarchy = hierarchy;
+        this.graph = hierarchy.graph();
+        this.workspaces = new ThreadLocal<Workspaces>() {
+            @Override
+            protected Workspaces initialValue() {
+                return new Workspaces(graph.numberOfVertices());
+            }
+        };
+    }
+
+    /**
+     * Length of the shortest route between two vertices.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @return the distance, Integer.MAX_VALUE if there is no route
+     */
+    public int shortestDistance(int source, int target) {
+        long best = search(source, target);
+        return best == Long.MAX_VALUE ? Integer.MAX_VALUE : (int) best;
+    }
+
+    /**
+     * Shortest route between two vertices.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @param path buffer the route is written to, source first;
+     *             numberOfVertices() slots always suffice
+     * @return the number of vertices in the route, 0 if there is no route
+     */
+    public int shortestPath(int source, int target, int[] path) {
+        if (search(source, target) == Long.MAX_VALUE) {
+            return 0;
+        }
+        Workspaces state = workspaces.get();
+        DijkstraWorkspace forward = state.forward;
+        DijkstraWorkspace backward = state.backward;
+        int[] chain = state.chain;
+
+        // hierarchy vertices source .. meeting .. target
+        int count = forward.pathTo(state.meeting, chain);
+        for (int v = backward.parent[state.meeting]; v != DijkstraWorkspace.NO_PARENT; v = backward.parent[v]) {
+            chain[count++] = v;
+        }
+
+        // unpack every hierarchy edge into original vertices
+        return hierarchy.unpackRoute(chain, count, path);
+    }
+
+    /**
+     * Shortest route between two named vertices.
+     *
+     * @param from the start vertex
+     * @param to the destination vertex
+     * @return the vertex names of the route, empty if there is no route
+     */
+    public List<String> shortestPath(String from, String to) {
+        int[] path = new int[graph.numberOfVertices()];
+        int length = shortestPath(graph.requireId(from), graph.requireId(to), path);
+
+        List<String> names = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            names.add(graph.name(path[i]));
+        }
+        return names;
+    }
+
+    /**
+     * Number of vertices settled by both sides in the
+     * last query of the calling thread.
+     *
+     * @return the settled vertex count
+     */
+    public int lastSettledCount() {
+        Workspaces state = workspaces.get();
+        return state.forward.settledCount + state.backward.settledCount;
+    }
+
+    /**
+     * Runs both upward searches.
+     *
+     * @return the length of the best route, Long.MAX_VALUE if none
+     */
+    private long search(int source, int target) {
+        Workspaces state = workspaces.get();
+        DijkstraWorkspace forward = state.forward;
+        DijkstraWorkspace backward = state.backward;
+        forward.begin();
+        backward.begin();
+        forward.relax(source, 0, DijkstraWorkspace.NO_PARENT);
+        backward.relax(target, 0, DijkstraWorkspace.NO_PARENT);
+
+        long best = Long.MAX_VALUE;
+        int meeting = source;
+
+        int[] upOffsets = hierarchy.upOffsets;
+        int[] upTargets = hierarchy.upTargets;
+        int[] upWeights = hierarchy.upWeights;
+        int[] downOffsets = hierarchy.downOffsets;
+        int[] downSources = hierarchy.downSources;
+        int[] downWeights = hierarchy.downWeights;
+
+        while (true) {
+            boolean forwardDone = forward.heap.empty() || forward.heap.minWeight() >= best;
+            boolean backwardDone = backward.heap.empty() || backward.heap.minWeight() >= best;
+            if (forwardDone && backwardDone) {
+                break;
+            }
+
+            if (!forwardDone && (backwardDone || forward.heap.minWeight() <= backward.heap.minWeight())) {
+                int current = forward.settleMin();
+                int currentDistance = forward.distance[current];
+                if (backward.isReached(current) && (long) currentDistance + backward.distance[current] < best) {
+                    best = (long) currentDistance + backward.distance[current];
+                    meeting = current;
+                }
+                for (int edge = upOffsets[current]; edge < upOffsets[current + 1]; edge++) {
+                    forward.relax(upTargets[edge], currentDistance + upWeights[edge], current);
+                }
+            } else {
+                int current = backward.settleMin();
+                int currentDistance = backward.distance[current];
+                if (forward.isReached(current) && (long) currentDistance + forward.distance[current] < best) {
+                    best = (long) currentDistance + forward.distance[current];
+                    meeting = current;
+                }
+                for (int edge = downOffsets[current]; edge < downOffsets[current + 1]; edge++) {
+                    backward.relax(downSources[edge], currentDistance + downWeights[edge], current);
+                }
+            }
+        }
+
+        state.meeting = meeting;
+        return best;
+    }
+}
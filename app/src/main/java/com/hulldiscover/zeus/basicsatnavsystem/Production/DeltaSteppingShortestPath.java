@@ -0,0 +1,349 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Parallel single source shortest paths by delta-stepping.
+ *
+ * Tentative distances are grouped into buckets of width delta.
+ * The lowest non-empty bucket is emptied in phases: all of its
+ * vertices relax their light edges (weight <= delta) at once,
+ * which may put vertices back into the same bucket, until it
+ * stays empty. Then every vertex removed from the bucket relaxes
+ * its heavy edges once. Each phase is spread over an
+ * ExecutorService.
+ *
+ * Tentative distances never run more than the longest edge past
+ * the current bucket, so the buckets are a ring of
+ * maxWeight / delta + 2 lists indexed by bucket modulo the ring
+ * size, and the search jumps straight to the next non-empty one.
+ * The ring has at most about one list per vertex; with longer
+ * edges, buckets past its window wait in a far list that is
+ * taken in once the search reaches them.
+ *
+ * Distance and parent of a vertex are packed into one long
+ *     distance << 32 | parent
+ * and lowered with compareAndSet, so relaxations from different
+ * threads never lock and the parent always matches the distance.
+ *
+ * delta trades work for parallelism: a small delta does little
+ * more work than Dijkstra but has small phases, a large one has
+ * big phases but relaxes edges more often. The longest edge
+ * weight is a common start point.
+ *
+ * The result is a ShortestPathTree, the same as
+ * DijkstraQueryEngine.shortestPathTree.
+ *
+ * References
+ * Meyer and Sanders, Delta-stepping: a parallelizable shortest
+ * path algorithm (2003)
+ */
+public class DeltaSteppingShortestPath {
+
+    // phases with fewer vertices are run on the calling thread
+    private static final int PARALLEL_THRESHOLD = 512;
+
+    private static final long UNREACHED = pack(ShortestPathTree.UNREACHABLE, ShortestPathTree.NO_PARENT);
+
+    private final CompressedDirectedGraph graph;
+
+    private final int delta;
+
+    /**
+     * Creates an engine.
+     *
+     * @param graph the graph to search
+     * @param delta width of a bucket, at least 1
+     */
+    public DeltaSteppingShortestPath(CompressedDirectedGraph graph, int delta) {
+        if (graph == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        if (delta < 1) {
+            throw new IllegalArgumentException("The delta: " + delta + " must be at least 1.");
+        }
+        this.graph = graph;
+        this.delta = delta;
+    }
+
+    /**
+     * Accessor for the graph this engine searches.
+     *
+     * @return the graph
+     */
+    public CompressedDirectedGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Accessor for the bucket width.
+     *
+     * @return the delta
+     */
+    public int delta() {
+        return delta;
+    }
+
+    /**
+     * Shortest routes from one vertex to every other vertex.
+     *
+     * @param source the start vertex id
+     * @param executor the threads to run on, or null for the calling thread
+     * @return the shortest path tree rooted at the source
+     */
+    public ShortestPathTree shortestPathTree(int source, ExecutorService executor) {
+        return new Search(source, executor).run();
+    }
+
+    private static long pack(int distance, int parent) {
+        return (long) distance << 32 | (parent & 0xffffffffL);
+    }
+
+    private static int distanceOf(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    private static int parentOf(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * State of one search.
+     */
+    private final class Search {
+        private final int source;
+        private final ExecutorService executor;
+
+        // packed distance and parent of every vertex
+        private final AtomicLongArray state;
+
+        // ring of buckets of vertex ids, bucket i in slot
+        // i % ring.length for the buckets base .. base + ring.length - 1;
+        // a vertex may sit in a bucket it no longer belongs to
+        // and is then skipped
+        private final IntList[] ring;
+
+        // slots of the ring holding vertices
+        private final BitSet filled;
+
+        // bucket being emptied
+        private int base;
+
+        // vertices of buckets past the ring, and the lowest of those buckets
+        private final IntList far = new IntList();
+        private int farMin = Integer.MAX_VALUE;
+
+        // phase in which a vertex was last taken from a bucket
+        private final int[] takenInPhase;
+        private int phase;
+
+        // vertices improved by every task of the current phase
+        private IntList[] improved = new IntList[0];
+
+        Search(int source, ExecutorService executor) {
+            this.source = source;
+            this.executor = executor;
+            int vertexCount = graph.numberOfVertices();
+            state = new AtomicLongArray(vertexCount);
+            for (int v = 0; v < vertexCount; v++) {
+                state.set(v, UNREACHED);
+            }
+            takenInPhase = new int[vertexCount];
+            // every tentative bucket is within maxWeight / delta + 1 of the base
+            long span = (long) graph.maxWeight() / delta + 2;
+            ring = new IntList[(int) Math.min(span, Math.max(16, vertexCount))];
+            filled = new BitSet(ring.length);
+        }
+
+        ShortestPathTree run() {
+            state.set(source, pack(0, ShortestPathTree.NO_PARENT));
+            file(source, 0);
+
+            IntList settled = new IntList();
+            for (int index = next(); index != -1; index = next()) {
+                base = index;
+                settled.clear();
+                int slot = index % ring.length;
+                IntList current = ring[slot];
+                while (current.size() > 0) {
+                    // take the vertices that still belong here
+                    phase++;
+                    IntList frontier = new IntList(current.size());
+                    for (int i = 0; i < current.size(); i++) {
+                        int v = current.get(i);
+                        if (takenInPhase[v] != phase && distanceOf(state.get(v)) / delta == index) {
+                            takenInPhase[v] = phase;
+                            frontier.add(v);
+                            settled.add(v);
+                        }
+                    }
+                    current.clear();
+                    relaxAll(frontier, true);
+                }
+                filled.clear(slot);
+                relaxAll(settled, false);
+            }
+
+            int vertexCount = graph.numberOfVertices();
+            int[] distance = new int[vertexCount];
+            int[] parent = new int[vertexCount];
+            for (int v = 0; v < vertexCount; v++) {
+                long packed = state.get(v);
+                distance[v] = distanceOf(packed);
+                parent[v] = parentOf(packed);
+            }
+            return ShortestPathTree.of(graph, source, distance, parent);
+        }
+
+        /**
+         * Puts a vertex into a bucket, the ring if
+         * the bucket is in its window.
+         */
+        private void file(int v, int index) {
+            if ((long) index - base >= ring.length) {
+                far.add(v);
+                farMin = Math.min(farMin, index);
+                return;
+            }
+            int slot = index % ring.length;
+            if (ring[slot] == null) {
+                ring[slot] = new IntList();
+            }
+            ring[slot].add(v);
+            filled.set(slot);
+        }
+
+        /**
+         * Lowest bucket holding vertices, taking the far vertices
+         * into the ring once they are the lowest.
+         *
+         * @return the bucket index, or -1 when every bucket is empty
+         */
+        private int next() {
+            while (true) {
+                int index = Integer.MAX_VALUE;
+                int slot = base % ring.length;
+                int found = filled.nextSetBit(slot);
+                if (found == -1) {
+                    found = filled.nextSetBit(0);
+                }
+                if (found != -1) {
+                    index = base + (found - slot + ring.length) % ring.length;
+                }
+                if (far.size() == 0 || index < farMin) {
+                    return index == Integer.MAX_VALUE ? -1 : index;
+                }
+                // the ring holds no bucket below the far ones, so it
+                // fits the window starting at the lowest far bucket
+                base = farMin;
+                farMin = Integer.MAX_VALUE;
+                IntList waiting = new IntList(far.size());
+                for (int i = 0; i < far.size(); i++) {
+                    waiting.add(far.get(i));
+                }
+                far.clear();
+                for (int i = 0; i < waiting.size(); i++) {
+                    int v = waiting.get(i);
+                    int bucket = distanceOf(state.get(v)) / delta;
+                    if (bucket >= base) { // lower ones were filed again when improved
+                        file(v, bucket);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Relaxes the light or heavy edges of some vertices,
+         * then files every improved vertex into its bucket.
+         */
+        private void relaxAll(final IntList vertices, final boolean light) {
+            final int count = vertices.size();
+            if (count == 0) {
+                return;
+            }
+            int taskCount;
+            if (executor == null || count < PARALLEL_THRESHOLD) {
+                taskCount = 1;
+                improvedLists(1);
+                relax(vertices, 0, count, light, improved[0]);
+            } else {
+                final int chunk = ParallelTasks.chunkSize(count);
+                taskCount = (count + chunk - 1) / chunk;
+                improvedLists(taskCount);
+                ParallelTasks.run(executor, taskCount, new ParallelTasks.Task() {
+                    @Override
+                    public void run(int index) {
+                        relax(vertices, index * chunk, Math.min(count, (index + 1) * chunk), light, improved[index]);
+                    }
+                });
+            }
+            for (int task = 0; task < taskCount; task++) {
+                IntList list = improved[task];
+                for (int i = 0; i < list.size(); i++) {
+                    int v = list.get(i);
+                    file(v, distanceOf(state.get(v)) / delta);
+                }
+            }
+        }
+
+        private void improvedLists(int count) {
+            if (improved.length < count) {
+                IntList[] grown = new IntList[count];
+                System.arraycopy(improved, 0, grown, 0, improved.length);
+                for (int i = improved.length; i < count; i++) {
+                    grown[i] = new IntList();
+                }
+                improved = grown;
+            }
+            for (int i = 0; i < count; i++) {
+                improved[i].clear();
+            }
+        }
+
+        /**
+         * Relaxes the light or heavy edges of vertices[from .. to - 1].
+         */
+        private void relax(IntList vertices, int from, int to, boolean light, IntList out) {
+            for (int i = from; i < to; i++) {
+                int v = vertices.get(i);
+                int distance = distanceOf(state.get(v));
+                for (int edge = graph.firstEdge(v), end = graph.endEdge(v); edge < end; edge++) {
+                    int weight = graph.weight(edge);
+                    if (weight == CompressedDirectedGraph.CLOSED || (weight <= delta) != light) {
+                        continue;
+                    }
+                    long candidate = (long) distance + weight;
+                    if (candidate >= ShortestPathTree.UNREACHABLE) {
+                        continue;
+                    }
+                    int next = graph.target(edge);
+                    if (lower(next, (int) candidate, v)) {
+                        out.add(next);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Lowers the distance of a vertex if the offered one is shorter.
+         *
+         * @return true if the distance improved
+         */
+        private boolean lower(int vertex, int distance, int parent) {
+            long offered = pack(distance, parent);
+            while (true) {
+                long current = state.get(vertex);
+                if (distanceOf(current) <= distance) {
+                    return false;
+                }
+                if (state.compareAndSet(vertex, current, offered)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.Arrays;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Dial's bucket queue over int keys 0 .. capacity - 1.
+ *
+ * Only for monotone use, as in Dijkstra's algorithm: no weight
+ * added is smaller than the last one extracted, and all weights
+ * in the queue lie within maxWeight of each other. With
+ * maxWeight + 1 buckets in a ring each bucket then holds exactly
+ * one weight, and finding the minimum is a scan forward from the
+ * last one.
+ *
+ * Buckets are doubly linked lists threaded through int arrays,
+ * so decrease is an unlink and a relink.
+ *
+ * The ring costs an int per bucket, so maxWeight is limited to
+ * MIN_BUCKETS or eight buckets per key, whichever is more;
+ * fits() tells whether a queue can be made.
+ *
+ * extractMin - O(1) amortised over a search
+ * add - O(1)
+ * containsData - O(1)
+ * decrease - O(1)
+ * getWeight - O(1)
+ *
+ * References
+ * Dial, Algorithm 360: Shortest-path forest with topological
+ * ordering (1969)
+ */
+public class DialBucketQueue implements IndexedMinQueue {
+
+    private static final int NONE = -1;
+
+    /**
+     * Buckets always allowed, however few the keys.
+     */
+    public static final int MIN_BUCKETS = 1 << 16;
+
+    // buckets allowed per key above MIN_BUCKETS
+    private static final int BUCKETS_PER_KEY = 8;
+
+    // first key of every bucket, NONE if empty
+    private final int[] bucketHead;
+
+    // links of the bucket lists, indexed by key
+    private final int[] next;
+    private final int[] previous;
+
+    // weight of every key, valid while queued
+    private final int[] weights;
+
+    private final boolean[] queued;
+
+    // weight the minimum search starts from
+    private int cursor;
+
+    // smallest weight that may be added, the last one extracted
+    private int floor;
+
+    private int size;
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param capacity keys are in 0 .. capacity - 1
+     * @param maxWeight largest difference between two queued
+     *                  weights, the longest edge weight for Dijkstra
+     * @throws IllegalArgumentException if the ring would be too
+     *         large for the capacity, see fits()
+     */
+    public DialBucketQueue(int capacity, int maxWeight) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("The maximum weight: " + maxWeight + " cannot be negative.");
+        }
+        if (!fits(capacity, maxWeight)) {
+            throw new IllegalArgumentException("The maximum weight: " + maxWeight
+                    + " needs too many buckets for the capacity: " + capacity + ".");
+        }
+        bucketHead = new int[maxWeight + 1];
+        Arrays.fill(bucketHead, NONE);
+        next = new int[capacity];
+        previous = new int[capacity];
+        weights = new int[capacity];
+        queued = new boolean[capacity];
+    }
+
+    /**
+     * Whether a queue of a capacity can have
+     * a ring for a maximum weight.
+     *
+     * @param capacity keys are in 0 .. capacity - 1
+     * @param maxWeight largest difference between two queued weights
+     * @return true if the ring is small enough
+     */
+    public static boolean fits(int capacity, int maxWeight) {
+        return (long) maxWeight + 1 <= Math.max(MIN_BUCKETS, (long) BUCKETS_PER_KEY * capacity);
+    }
+
+    @Override
+    public boolean containsData(int key) {
+        return queued[key];
+    }
+
+    @Override
+    public void add(int weight, int key) {
+        if (size == 0) {
+            // window may start anywhere from the floor
+            cursor = weight - floor < bucketHead.length ? floor : weight;
+        }
+        if (weight < cursor || weight - cursor >= bucketHead.length) {
+            throw new IllegalArgumentException("The weight: " + weight + " is outside the bucket window at "
+                    + cursor + ".");
+        }
+        weights[key] = weight;
+        queued[key] = true;
+        link(key);
+        size++;
+    }
+
+    @Override
+    public int min() {
+        return bucketHead[findMinBucket()];
+    }
+
+    @Override
+    public int minWeight() {
+        return weights[min()];
+    }
+
+    @Override
+    public boolean empty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void decrease(int key, int newWeight) {
+        if (newWeight < cursor) {
+            throw new IllegalArgumentException("The weight: " + newWeight + " is below the bucket window at "
+                    + cursor + ".");
+        }
+        unlink(key);
+        weights[key] = newWeight;
+        link(key);
+    }
+
+    @Override
+    public int getWeight(int key) {
+        return weights[key];
+    }
+
+    @Override
+    public int extractMin() {
+        int key = bucketHead[findMinBucket()];
+        unlink(key);
+        queued[key] = false;
+        size--;
+        floor = weights[key];
+        return key;
+    }
+
+    /**
+     * Removes every key, O(size + maxWeight)
+     */
+    @Override
+    public void clear() {
+        for (int bucket = 0; size > 0; bucket++) {
+            for (int key = bucketHead[bucket]; key != NONE; key = next[key]) {
+                queued[key] = false;
+                size--;
+            }
+            bucketHead[bucket] = NONE;
+        }
+        floor = 0;
+    }
+
+    /**
+     * Moves the cursor to the first non-empty bucket.
+     *
+     * @return the bucket index
+     */
+    private int findMinBucket() {
+        if (size == 0) {
+            throw new IllegalStateException("The queue is empty.");
+        }
+        int bucket = cursor % bucketHead.length;
+        while (bucketHead[bucket] == NONE) {
+            cursor++;
+            bucket = bucket + 1 == bucketHead.length ? 0 : bucket + 1;
+        }
+        return bucket;
+    }
+
+    private void link(int key) {
+        int bucket = weights[key] % bucketHead.length;
+        int head = bucketHead[bucket];
+        next[key] = head;
+        previous[key] = NONE;
+        if (head != NONE) {
+            previous[head] = key;
+        }
+        bucketHead[bucket] = key;
+    }
+
+    private void unlink(int key) {
+        int before = previous[key];
+        int after = next[key];
+        if (before == NONE) {
+            bucketHead[weights[key] % bucketHead.length] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.hulldiscover.zeus.basicsatnavsystem.Production;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -15,12 +16,42 @@ import java.util.Map;
  * Space complexity - O(E + V)
  * Time complexity - O(ElogV)
  *
+ * The search itself runs in the per-thread workspace of the
+ * graph's DijkstraQueryEngine, so repeated queries reuse the
+ * same arrays and heap. The priority queue can be chosen when
+ * the search is created, see QueueType.
+ *
+ * One instance can be shared by any number of threads. The route
+ * kept for getPath is the one of the last search on the calling
+ * thread; shortestRoute returns its result instead of keeping it.
+ *
  * References
  * https://en.wikipedia.org/wiki/Dijkstra%27s_algorithm
  *
  */
 public class DijkstraFindShortestPath {
-    LinkedList<DirectedGraph.Vertex> shortestPath; // Shortest path between two vertex
+    // Shortest path between two vertex, found by the last search of every thread
+    private final ThreadLocal<LinkedList<DirectedGraph.Vertex>> shortestPath = new ThreadLocal<>();
+    private final IndexedMinQueue.Factory queue; // Priority queue of the searches
+
+    /**
+     * Creates a search on the default priority queue.
+     */
+    public DijkstraFindShortestPath() {
+        this(QueueType.DARY_HEAP);
+    }
+
+    /**
+     * Creates a search on the given priority queue.
+     *
+     * @param queue the priority queue to search with
+     */
+    public DijkstraFindShortestPath(IndexedMinQueue.Factory queue) {
+        if (queue == null) {
+            throw new NullPointerException("The queue type cannot be null.");
+        }
+        this.queue = queue;
+    }
 
     /**
      * Main function to find shortest path
@@ -37,96 +68,115 @@ public class DijkstraFindShortestPath {
      */
     public Map<DirectedGraph.Vertex, Integer> shortestPath(DirectedGraph directedGraph, String from, String to) {
 
-        DirectedGraph.Vertex sourceVertex = directedGraph.getV(from);
-        DirectedGraph.Vertex destination = directedGraph.getV(to);
+        // Compressed rows of the graph
+        CompressedDirectedGraph graph = directedGraph.compressed();
+        DijkstraQueryEngine engine = directedGraph.queryEngine();
 
-        DirectedGraph.Vertex empty = new DirectedGraph.Vertex("NULL");
+        // Search from source vertex in the reusable
+        // workspace of this thread
+        DijkstraWorkspace workspace = engine.search(graph.requireId(from), DijkstraQueryEngine.ALL_VERTICES, queue);
 
-        // Heap + map data structure
-        BinaryMinHeap<DirectedGraph.Vertex> minHeap = new BinaryMinHeap<>();
-
-        // Stores shortest distance from source to every vertex
-        Map<DirectedGraph.Vertex, Integer> distance = new HashMap<>();
-
-        // Stores parent of every vertex in shortest distance
-        Map<DirectedGraph.Vertex, DirectedGraph.Vertex> parent = new HashMap<>();
-
-        // Init all vertex with infinite distance from source vertex
-        // Because we initially don't know the distance between them
-        for (DirectedGraph.Vertex vertex : directedGraph.verticesList()) {
-            minHeap.add(Integer.MAX_VALUE, vertex);
+        // Stores shortest distance from source to every vertex,
+        // unreachable vertices keep an infinite distance
+        Map<DirectedGraph.Vertex, Integer> distance = new HashMap<>(graph.numberOfVertices() * 2);
+        for (int id = 0; id < graph.numberOfVertices(); id++) {
+            distance.put(directedGraph.vertex(id), workspace.distanceTo(id));
         }
 
-        // Set distance of source vertex to 0
-        minHeap.decrease(sourceVertex, 0);
-
-        // Put it in map
-        distance.put(sourceVertex, 0);
-
-        // Source vertex parent is null
-        parent.put(sourceVertex, empty);
-
-        // Iterate until heap is empty
-        while (!minHeap.empty()) {
-            // Get the min value heap node which has vertex and distance of that vertex from source vertex.
-            BinaryMinHeap<DirectedGraph.Vertex>.Node heapNode = minHeap.extractMinNode();
-            DirectedGraph.Vertex current = heapNode.key;
-
-            // Update shortest distance of current vertex from source vertex
-            distance.put(current, heapNode.weight);
-
-            // Iterate through all edges of current vertex
-            for (DirectedGraph.Edge edge : current.getEdges()) {
-
-                // Get the adjacent vertex
-                DirectedGraph.Vertex adjacent = getVertexForEdge(directedGraph, current, edge);
-
-                // If heap does not contain adjacent vertex means adjacent vertex
-                // already has shortest distance from source vertex
-                if (!minHeap.containsData(adjacent)) {
-                    continue;
-                }
+        recordPath(directedGraph, workspace, graph.requireId(to));
+        return distance;
+    }
 
-                // Add distance of current vertex to edge weight to get distance of adjacent
-                // vertex from source
+    /**
+     * Point-to-point variant of shortestPath. Only vertices
+     * reached by the search enter the heap and the search stops
+     * as soon as the destination is settled, so the distances
+     * of the rest of the graph are not computed.
+     *
+     * The route is available from getPath afterwards.
+     *
+     * @param
+     *          directedGraph the graph
+     * @param
+     *          from stating vertex
+     * @param
+     *          to destination vertex
+     * @return
+     *          length of the shortest route, Integer.MAX_VALUE
+     *          if there is no route
+     */
+    public int shortestDistance(DirectedGraph directedGraph, String from, String to) {
+        CompressedDirectedGraph graph = directedGraph.compressed();
+        DijkstraQueryEngine engine = directedGraph.queryEngine();
+        int destination = graph.requireId(to);
 
-                int newDistance = distance.get(current) + edge.getDistance();
-                //int newDistance = directedGraph.getDistance(current.name, adjacent.name);
+        // Search stops once destination is settled
+        DijkstraWorkspace workspace = engine.search(graph.requireId(from), destination, queue);
 
-                // See if the above calculated distance is less than current
-                // distance stored for adjacent vertex from source vertex
-                if (minHeap.getWeight(adjacent) > newDistance) {
-                    minHeap.decrease(adjacent, newDistance);
-                    parent.put(adjacent, current);
-                }
+        recordPath(directedGraph, workspace, destination);
+        return workspace.distanceTo(destination);
+    }
 
-                directedGraph.getV(adjacent.name);
-            }
+    /**
+     * Point-to-point variant of shortestPath that keeps no state:
+     * the route is returned rather than stored for getPath.
+     *
+     * @param
+     *          directedGraph the graph
+     * @param
+     *          from stating vertex
+     * @param
+     *          to destination vertex
+     * @return
+     *          the shortest route, or null if there is no route
+     */
+    public Route shortestRoute(DirectedGraph directedGraph, String from, String to) {
+        CompressedDirectedGraph graph = directedGraph.compressed();
+        int destination = graph.requireId(to);
+        DijkstraWorkspace workspace = directedGraph.queryEngine().search(graph.requireId(from), destination, queue);
+        if (!workspace.isSettled(destination)) {
+            return null;
         }
-
-        //DirectedGraph.Vertex destination = new DirectedGraph.Vertex("C");
-        discover(destination, sourceVertex, parent, new LinkedHashSet<DirectedGraph.Vertex>());
-        return distance;
+        int[] path = new int[graph.numberOfVertices()];
+        int length = workspace.pathTo(destination, path);
+        return new Route(graph, Arrays.copyOf(path, length), workspace.distance[destination]);
     }
 
     /**
-     * Method retrieves vertex point from edge.
+     * Single-source variant of shortestPath. The whole
+     * search result is returned as an immutable tree, so the
+     * route to any destination can be read from it without
+     * searching again. getPath is not changed.
      *
-     * @param g
-     *          graph
-     * @param v
-     *          vertex
-     * @param e
-     *          edge
+     * @param
+     *          directedGraph the graph
+     * @param
+     *          from stating vertex
      * @return
-     *          the vertex from an edge in graph
+     *          shortest path tree rooted at the starting vertex
      */
-    private DirectedGraph.Vertex getVertexForEdge(DirectedGraph g, DirectedGraph.Vertex v, DirectedGraph.Edge e){
-        DirectedGraph.Vertex v1 = g.getV(e.vertex1);
-        DirectedGraph.Vertex v2 = g.getV(e.vertex2);
-        return v1.equals(v) ? v2 : v1;
+    public ShortestPathTree shortestPathTree(DirectedGraph directedGraph, String from) {
+        return directedGraph.queryEngine().shortestPathTree(directedGraph.compressed().requireId(from), queue);
     }
 
+    /**
+     * Stores the route to the destination found by the
+     * last search of this thread, for later reference by getPath.
+     *
+     * @param directedGraph the graph
+     * @param workspace the search result
+     * @param destination destination vertex id
+     */
+    private void recordPath(DirectedGraph directedGraph, DijkstraWorkspace workspace, int destination) {
+        // Walk the parents back from the destination
+        LinkedList<DirectedGraph.Vertex> path = new LinkedList<>();
+        if (workspace.isReached(destination)) {
+            for (int id = destination; id != DijkstraWorkspace.NO_PARENT; id = workspace.parent[id]) {
+                path.addFirst(directedGraph.vertex(id));
+            }
+        }
+        shortestPath.set(path);
+    }
 
     /**
      * Function to find the shortest path.
@@ -189,22 +239,29 @@ public class DijkstraFindShortestPath {
     public void addShortestPath(LinkedHashSet<DirectedGraph.Vertex> path) {
         LinkedList<DirectedGraph.Vertex> list = new LinkedList<>(path);
         Iterator<DirectedGraph.Vertex> itr = list.descendingIterator();
-        shortestPath = new LinkedList<>();
+        LinkedList<DirectedGraph.Vertex> shortest = new LinkedList<>();
         // Iterate through shortest path
         // in descending order
         while (itr.hasNext()) {
             DirectedGraph.Vertex v = itr.next();
-            shortestPath.add(v);
+            shortest.add(v);
             System.out.println(v.name + "");
         }
+        shortestPath.set(shortest);
     }
 
     /**
-     * Function to return the shortest path found.
+     * Function to return the shortest path found
+     * by the last search of this thread.
      *
-     * @return list of the shortest path
+     * @return list of the shortest path, empty
+     *         before the first search
      */
     public List<DirectedGraph.Vertex> getPath() {
+        LinkedList<DirectedGraph.Vertex> shortestPath = this.shortestPath.get();
+        if (shortestPath == null) {
+            return new LinkedList<>();
+        }
         LinkedList<DirectedGraph.Vertex> shortest = new LinkedList<>();
         LinkedList<DirectedGraph.Vertex> list = new LinkedList<>(shortestPath);
         // Iterate through shortest path
@@ -0,0 +1,298 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Dijkstra shortest path queries over a CompressedDirectedGraph
+ * that allocate nothing once warmed up.
+ *
+ * Point-to-point queries insert vertices into the heap only when
+ * they are first reached and stop as soon as the destination is
+ * settled, so a short local hop only explores its neighbourhood
+ * rather than the whole graph.
+ *
+ * Every thread gets its own DijkstraWorkspace the first time it
+ * queries the engine; later queries on that thread reuse the same
+ * arrays and heap. Engines can share their workspaces through a
+ * WorkspacePool, as the versions of a VersionedGraph do. The int based methods create no objects, the
+ * String based convenience methods only allocate their result.
+ *
+ * The priority queue can be chosen per engine or per query, from
+ * QueueType or any other IndexedMinQueue.Factory; the default is
+ * IndexedDaryMinHeap.
+ *
+ * One engine can be shared by any number of threads.
+ */
+public class DijkstraQueryEngine {
+
+    /**
+     * Target of a search that settles every reachable vertex.
+     */
+    static final int ALL_VERTICES = -1;
+
+    private final CompressedDirectedGraph graph;
+
+    // queue of the queries that do not name one
+    private final IndexedMinQueue.Factory defaultQueue;
+
+    // one workspace per querying thread
+    private final WorkspacePool workspaces;
+
+    /**
+     * Creates a query engine for a graph.
+     *
+     * @param graph the graph to search
+     */
+    public DijkstraQueryEngine(CompressedDirectedGraph graph) {
+        this(graph, QueueType.DARY_HEAP);
+    }
+
+    /**
+     * Creates a query engine for a graph with
+     * its own default priority queue.
+     *
+     * @param graph the graph to search
+     * @param defaultQueue the queue of queries that do not name one
+     */
+    public DijkstraQueryEngine(CompressedDirectedGraph graph, IndexedMinQueue.Factory defaultQueue) {
+        this(graph, defaultQueue, graph == null ? null : new WorkspacePool(graph.numberOfVertices()));
+    }
+
+    /**
+     * Creates a query engine that takes its
+     * workspaces from a shared pool.
+     *
+     * @param graph the graph to search
+     * @param defaultQueue the queue of queries that do not name one
+     * @param workspaces the per thread workspaces
+     */
+    DijkstraQueryEngine(CompressedDirectedGraph graph, IndexedMinQueue.Factory defaultQueue,
+                        WorkspacePool workspaces) {
+        if (graph == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        if (defaultQueue == null) {
+            throw new NullPointerException("The queue type cannot be null.");
+        }
+        this.graph = graph;
+        this.defaultQueue = defaultQueue;
+        this.workspaces = workspaces;
+    }
+
+    /**
+     * Accessor for the graph this engine searches.
+     *
+     * @return the graph
+     */
+    public CompressedDirectedGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Length of the shortest route between two vertices.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @return the distance, Integer.MAX_VALUE if there is no route
+     */
+    public int shortestDistance(int source, int target) {
+        return shortestDistance(source, target, defaultQueue);
+    }
+
+    /**
+     * Length of the shortest route between two vertices,
+     * searched with the given priority queue.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @param queue the priority queue to search with
+     * @return the distance, Integer.MAX_VALUE if there is no route
+     */
+    public int shortestDistance(int source, int target, IndexedMinQueue.Factory queue) {
+        return search(source, target, queue).distanceTo(target);
+    }
+
+    /**
+     * Shortest route between two vertices.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @param path buffer the route is written to, source first;
+     *             numberOfVertices() slots always suffice
+     * @return the number of vertices in the route, 0 if there is no route
+     */
+    public int shortestPath(int source, int target, int[] path) {
+        return shortestPath(source, target, path, defaultQueue);
+    }
+
+    /**
+     * Shortest route between two vertices,
+     * searched with the given priority queue.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @param path buffer the route is written to, source first;
+     *             numberOfVertices() slots always suffice
+     * @param queue the priority queue to search with
+     * @return the number of vertices in the route, 0 if there is no route
+     */
+    public int shortestPath(int source, int target, int[] path, IndexedMinQueue.Factory queue) {
+        return search(source, target, queue).pathTo(target, path);
+    }
+
+    /**
+     * Shortest route between two named vertices.
+     *
+     * @param from the start vertex
+     * @param to the destination vertex
+     * @return the vertex names of the route, empty if there is no route
+     */
+    public List<String> shortestPath(String from, String to) {
+        int source = graph.requireId(from);
+        int target = graph.requireId(to);
+        int[] path = new int[graph.numberOfVertices()];
+        int length = shortestPath(source, target, path);
+
+        List<String> names = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            names.add(graph.name(path[i]));
+        }
+        return names;
+    }
+
+    /**
+     * Shortest routes from one vertex to every other vertex.
+     *
+     * @param source the start vertex id
+     * @return the shortest path tree rooted at the source
+     */
+    public ShortestPathTree shortestPathTree(int source) {
+        return shortestPathTree(source, defaultQueue);
+    }
+
+    /**
+     * Shortest routes from one vertex to every other vertex,
+     * searched with the given priority queue.
+     *
+     * @param source the start vertex id
+     * @param queue the priority queue to search with
+     * @return the shortest path tree rooted at the source
+     */
+    public ShortestPathTree shortestPathTree(int source, IndexedMinQueue.Factory queue) {
+        return ShortestPathTree.fromWorkspace(graph, source, search(source, ALL_VERTICES, queue));
+    }
+
+    /**
+     * Shortest routes from one named vertex to every other vertex.
+     *
+     * @param from the start vertex
+     * @return the shortest path tree rooted at the source
+     */
+    public ShortestPathTree shortestPathTree(String from) {
+        return shortestPathTree(graph.requireId(from));
+    }
+
+    /**
+     * Runs a full search from a source vertex in the
+     * workspace of the calling thread.
+     *
+     * @param source the start vertex id
+     * @return the workspace holding the result, valid until
+     *         the next query on this thread
+     */
+    DijkstraWorkspace search(int source) {
+        return search(source, ALL_VERTICES);
+    }
+
+    /**
+     * Runs a search from a source vertex in the workspace of
+     * the calling thread, stopping once the target is settled.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id, or ALL_VERTICES
+     *               to settle every reachable vertex
+     * @return the workspace holding the result, valid until
+     *         the next query on this thread
+     */
+    DijkstraWorkspace search(int source, int target) {
+        return search(source, target, defaultQueue);
+    }
+
+    /**
+     * Runs a search from a source vertex in the workspace of
+     * the calling thread, stopping once the target is settled.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id, or ALL_VERTICES
+     *               to settle every reachable vertex
+     * @param queue the priority queue to search with
+     * @return the workspace holding the result, valid until
+     *         the next query on this thread
+     */
+    DijkstraWorkspace search(int source, int target, IndexedMinQueue.Factory queue) {
+        if (queue == null) {
+            throw new NullPointerException("The queue type cannot be null.");
+        }
+        DijkstraWorkspace workspace = workspaces.get(graph.numberOfVertices());
+        workspace.useQueue(queue, graph.maxWeight());
+        workspace.begin();
+        workspace.relax(source, 0, DijkstraWorkspace.NO_PARENT);
+
+        while (!workspace.heap.empty()) {
+            int current = workspace.settleMin();
+            if (current == target) {
+                break; // destination settled, its distance is final
+            }
+            int currentDistance = workspace.distance[current];
+            for (int edge = graph.firstEdge(current), end = graph.endEdge(current); edge < end; edge++) {
+                int weight = graph.weight(edge);
+                if (weight != CompressedDirectedGraph.CLOSED) {
+                    workspace.relax(graph.target(edge), currentDistance + weight, current);
+                }
+            }
+        }
+        return workspace;
+    }
+
+    /**
+     * Runs a full backward search to a target vertex over the
+     * incoming edges, in the workspace of the calling thread.
+     * Distances are then distances to the target and parents
+     * point towards it.
+     *
+     * @param target the destination vertex id
+     * @return the workspace holding the result, valid until
+     *         the next query on this thread
+     */
+    DijkstraWorkspace searchReverse(int target) {
+        DijkstraWorkspace workspace = workspaces.get(graph.numberOfVertices());
+        workspace.useQueue(defaultQueue, graph.maxWeight());
+        workspace.begin();
+        workspace.relax(target, 0, DijkstraWorkspace.NO_PARENT);
+
+        while (!workspace.heap.empty()) {
+            int current = workspace.settleMin();
+            int currentDistance = workspace.distance[current];
+            for (int inEdge = graph.firstInEdge(current), end = graph.endInEdge(current); inEdge < end; inEdge++) {
+                int weight = graph.weight(graph.forwardEdge(inEdge));
+                if (weight != CompressedDirectedGraph.CLOSED) {
+                    workspace.relax(graph.source(inEdge), currentDistance + weight, current);
+                }
+            }
+        }
+        return workspace;
+    }
+
+    /**
+     * Number of vertices settled by the last query
+     * of the calling thread.
+     *
+     * @return the settled vertex count
+     */
+    public int lastSettledCount() {
+        return workspaces.current().settledCount;
+    }
+}
@@ -0,0 +1,228 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Reusable per-query state of a Dijkstra search over a
+ * CompressedDirectedGraph: distance, parent and settled
+ * flags for every vertex id, plus the priority queue.
+ *
+ * Instead of clearing the arrays between queries every
+ * vertex carries the generation (query number) it was last
+ * touched in. Starting a new query only bumps the generation,
+ * so a reset costs O(touched) and no memory is allocated
+ * once the workspace exists.
+ *
+ * A workspace is not thread safe, keep one per thread.
+ */
+final class DijkstraWorkspace {
+
+    /**
+     * Parent of the source vertex and of vertices not reached.
+     */
+    static final int NO_PARENT = -1;
+
+    // distance from source, valid when reached
+    final int[] distance;
+
+    // parent in the shortest path tree, valid when reached
+    final int[] parent;
+
+    // generation in which a vertex was reached / settled
+    private final int[] reached;
+    private final int[] settled;
+
+    // queue of the current query
+    IndexedMinQueue heap;
+
+    // factory of the current queue
+    private IndexedMinQueue.Factory factory = QueueType.DARY_HEAP;
+
+    // longest edge weight the current queue was created for
+    private int heapMaxWeight = Integer.MAX_VALUE;
+
+    // queues created so far, by factory
+    private final Map<IndexedMinQueue.Factory, IndexedMinQueue> queues = new IdentityHashMap<>();
+
+    // longest edge weight every queue was created for
+    private final Map<IndexedMinQueue.Factory, Integer> queueMaxWeights = new IdentityHashMap<>();
+
+    private int generation;
+
+    // number of vertices settled by the current query
+    int settledCount;
+
+    DijkstraWorkspace(int vertexCount) {
+        distance = new int[vertexCount];
+        parent = new int[vertexCount];
+        reached = new int[vertexCount];
+        settled = new int[vertexCount];
+        heap = new IndexedDaryMinHeap(vertexCount);
+        queues.put(factory, heap);
+        // a heap works for any weights
+        queueMaxWeights.put(factory, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Number of vertices the workspace has room for.
+     *
+     * @return the largest vertex id plus one
+     */
+    int capacity() {
+        return distance.length;
+    }
+
+    /**
+     * Selects the queue of the next query, creating it on first
+     * use, or again when a graph has longer edges than the one it
+     * was created for. Must be called before begin().
+     *
+     * @param type the queue factory
+     * @param maxWeight longest edge weight of the searched graph
+     */
+    void useQueue(IndexedMinQueue.Factory type, int maxWeight) {
+        if (type == factory && maxWeight <= heapMaxWeight) {
+            return;
+        }
+        IndexedMinQueue queue = queues.get(type);
+        Integer createdFor = queueMaxWeights.get(type);
+        if (queue == null || createdFor < maxWeight) {
+            queue = type.create(distance.length, maxWeight);
+            createdFor = maxWeight;
+            queues.put(type, queue);
+            queueMaxWeights.put(type, createdFor);
+        }
+        factory = type;
+        heap = queue;
+        heapMaxWeight = createdFor;
+    }
+
+    /**
+     * Starts a new query, forgetting the previous one.
+     */
+    void begin() {
+        heap.clear();
+        settledCount = 0;
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            // stamps wrapped around, clear them once
+            Arrays.fill(reached, 0);
+            Arrays.fill(settled, 0);
+            generation = 1;
+        }
+    }
+
+    boolean isReached(int vertex) {
+        return reached[vertex] == generation;
+    }
+
+    boolean isSettled(int vertex) {
+        return settled[vertex] == generation;
+    }
+
+    /**
+     * Distance of a vertex in the current query.
+     *
+     * @return the distance, Integer.MAX_VALUE if not reached
+     */
+    int distanceTo(int vertex) {
+        return reached[vertex] == generation ? distance[vertex] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Offers a new distance for a vertex. The vertex is put on
+     * the heap the first time it is reached.
+     *
+     * @param vertex the vertex
+     * @param newDistance the offered distance
+     * @param from the parent the distance comes from
+     * @return true if the distance of the vertex improved
+     */
+    boolean relax(int vertex, int newDistance, int from) {
+        if (reached[vertex] != generation) {
+            reached[vertex] = generation;
+            distance[vertex] = newDistance;
+            parent[vertex] = from;
+            heap.add(newDistance, vertex);
+            return true;
+        }
+        if (newDistance < distance[vertex] && settled[vertex] != generation) {
+            distance[vertex] = newDistance;
+            parent[vertex] = from;
+            heap.decrease(vertex, newDistance);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Offers a new distance for a vertex, ordering the heap by
+     * distance plus a lower bound of the remaining distance
+     * (A* search). The bound must be consistent, so a settled
+     * vertex never improves.
+     *
+     * @param vertex the vertex
+     * @param newDistance the offered distance
+     * @param from the parent the distance comes from
+     * @param bound lower bound from the vertex to the destination
+     * @return true if the distance of the vertex improved
+     */
+    boolean relax(int vertex, int newDistance, int from, int bound) {
+        if (reached[vertex] != generation) {
+            reached[vertex] = generation;
+            distance[vertex] = newDistance;
+            parent[vertex] = from;
+            heap.add(newDistance + bound, vertex);
+            return true;
+        }
+        if (newDistance < distance[vertex] && settled[vertex] != generation) {
+            distance[vertex] = newDistance;
+            parent[vertex] = from;
+            heap.decrease(vertex, newDistance + bound);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the closest vertex from the heap and settles it.
+     *
+     * @return the settled vertex
+     */
+    int settleMin() {
+        int vertex = heap.extractMin();
+        settled[vertex] = generation;
+        settledCount++;
+        return vertex;
+    }
+
+    /**
+     * Copies the path from the source to a reached vertex.
+     *
+     * @param target the last vertex of the path
+     * @param path buffer for the path, source first
+     * @return the number of vertices in the path, 0 if not reached
+     */
+    int pathTo(int target, int[] path) {
+        if (!isReached(target)) {
+            return 0;
+        }
+        int length = 0;
+        for (int v = target; v != NO_PARENT; v = parent[v]) {
+            length++;
+        }
+        if (length > path.length) {
+            throw new IllegalArgumentException("The path buffer of length " + path.length
+                    + " cannot hold a path of " + length + " vertices.");
+        }
+        int index = length;
+        for (int v = target; v != NO_PARENT; v = parent[v]) {
+            path[--index] = v;
+        }
+        return length;
+    }
+}
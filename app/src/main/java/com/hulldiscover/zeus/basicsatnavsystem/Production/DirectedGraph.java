@@ -5,10 +5,8 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableSet;
 import java.util.Set;
 import java.util.Stack;
-import java.util.TreeSet;
 
 
 /**
@@ -16,6 +14,12 @@ import java.util.TreeSet;
  *
  * The DirectedGraph class implements an directed graph.
  *
+ * The searches run on compressed(), an immutable snapshot of the
+ * edges that any number of threads can query at once; their state
+ * lives in per-query contexts, not in the Vertex objects. Only the
+ * older dijkstra and printPath methods still leave their result in
+ * the distance and predecessor of every Vertex, and they lock the
+ * graph while doing so.
  *
  * @author  Andre Hitchman
  * @version 1.0
@@ -34,6 +38,15 @@ public class DirectedGraph {
     private int edgesCount;
     Edge[] edges;
 
+    // compressed-sparse-row form of the same edges, used by the search algorithms
+    private final CompressedDirectedGraph compressed;
+
+    // Vertex objects indexed by their compressed graph id
+    private final Vertex[] vertexById;
+
+    // shortest path queries over the compressed graph
+    private final DijkstraQueryEngine queryEngine;
+
     /**
      * In a directed graph,
      * an edge is an ordered pair of nodes.
@@ -136,8 +149,9 @@ public class DirectedGraph {
         // implemented to test for a cycle in graph
         // currently not used in final production code
         private boolean isVisited;
+
+        // result of the last DirectedGraph.dijkstra
         private Vertex predecessor = null;
-        private boolean isOpen;
 
 
         /**
@@ -236,24 +250,6 @@ public class DirectedGraph {
             this.predecessor = predecessor;
         }
 
-        /**
-         * Returns whether this vertex is still open for the purposes
-         * of graph search
-         * @return Whether the vertex is open
-         */
-        boolean isOpen() {
-            return isOpen;
-        }
-
-        /**
-         * Mutator for whether this vertex is still open for the purposes
-         * of graph search
-         * @param open Whether the vertex is open
-         */
-        void setOpen(boolean open) {
-            this.isOpen = open;
-        }
-
         /**
          * This method prints
          * the path of a vertex
@@ -273,13 +269,15 @@ public class DirectedGraph {
 
         /**
          * Method compares the distances
-         * between two vertices.
+         * between two vertices, vertices at the same
+         * distance are ordered by name.
          *
          * @param other the vertex to compare with
          * @return the distance between two vertices
          */
         public int compareTo(Vertex other) {
-            return Integer.compare(distance, other.distance);
+            int byDistance = Integer.compare(distance, other.distance);
+            return byDistance != 0 ? byDistance : name.compareTo(other.name);
         }
 
     }
@@ -322,6 +320,44 @@ public class DirectedGraph {
             graph.get(e.vertex1).addAdjacentVertex(e, getV(e.vertex2));
             //graph.get(e.vertex2).neighbours.put(graph.get(e.vertex1), e.distance); // also do this for an undirected graph
         }
+
+        // frozen CSR layout for the search algorithms
+        compressed = CompressedDirectedGraph.fromEdges(edges);
+        vertexById = new Vertex[compressed.numberOfVertices()];
+        for (int id = 0; id < vertexById.length; id++) {
+            vertexById[id] = graph.get(compressed.name(id));
+        }
+        queryEngine = new DijkstraQueryEngine(compressed);
+    }
+
+    /**
+     * Accessor for the compressed-sparse-row form
+     * of this graph.
+     *
+     * @return the compressed graph
+     */
+    public CompressedDirectedGraph compressed() {
+        return compressed;
+    }
+
+    /**
+     * Accessor for the shortest path query engine
+     * of this graph.
+     *
+     * @return the query engine
+     */
+    public DijkstraQueryEngine queryEngine() {
+        return queryEngine;
+    }
+
+    /**
+     * Method to get vertex by compressed graph id.
+     *
+     * @param id - The id of the vertex point.
+     * @return Vertex
+     */
+    Vertex vertex(int id) {
+        return vertexById[id];
     }
 
     /**
@@ -492,22 +528,13 @@ public class DirectedGraph {
      * @return true of false whether vertex is adjacent to
      */
     public boolean isAdjacentTo(String vertex1, String vertex2) {
-        boolean isAdjacent = false;
-        // Set that contains
-        // keys of @param vertex1
-        // neighbours
-        Set<Vertex> vertexSet = graph.get(vertex1).neighbours.keySet();
+        int start = compressed.id(vertex1);
+        int end = compressed.id(vertex2);
 
         // Check vertex has neighbour
         // of @param vertex2
-        for(Vertex vertex : vertexSet) {
-            if(vertex.name.equals(vertex2)) {
-                isAdjacent = true;
-                return isAdjacent;
-            }
-        }
-
-        return isAdjacent;
+        return start != -1 && end != -1
+                && compressed.findEdge(start, end) != CompressedDirectedGraph.NO_EDGE;
     }
 
     /**
@@ -565,23 +592,19 @@ public class DirectedGraph {
      *          This returns the distance between vertices
      */
     public int getDistance(String startName, String endName) {
-        int distance = 0;
-
-        for (Edge edge : edges) {
-            if (edge.vertex1.equals(startName)
-                    && edge.vertex2.equals(endName)) {
-                distance = edge.distance;
-            }
-            if (edge.vertex1.equals(startName)
-                    && edge.vertex2.equals(endName)) {
-                distance = edge.distance;
-            }
+        int start = compressed.id(startName);
+        int end = compressed.id(endName);
+        if (start == -1 || end == -1) {
+            return 0;
         }
-        return distance;
+
+        // indexed lookup instead of a scan over all edges
+        int distance = compressed.distance(start, end);
+        return distance == CompressedDirectedGraph.NO_EDGE ? 0 : distance;
     }
 
     /** Prints a path from the source to the specified vertex */
-    public void printPath(String endName) {
+    public synchronized void printPath(String endName) {
         if (!graph.containsKey(endName)) {
             System.err.printf("DirectedGraph doesn't contain end vertex \"%s\"\n", endName);
             return;
@@ -605,7 +628,7 @@ public class DirectedGraph {
      * Method to print all paths
      * in graph.
      */
-    public void printAllPaths() {
+    public synchronized void printAllPaths() {
         for (Vertex v : graph.values()) {
             v.printPath();
             System.out.println();
@@ -615,71 +638,57 @@ public class DirectedGraph {
     /**
      * Method to check if graph is cyclic?
      *
+     * The search keeps its visited vertices to itself rather
+     * than marking the Vertex objects, so the answer does not
+     * depend on earlier calls and calls may run at the same time.
+     *
      * @param v - the source vertex
-     * @return boolean
+     * @return true if a cycle can be reached from the vertex
      */
     public boolean isCyclicDirected(Vertex v){
-        if (v.isVisited){
-            return true;
-        }
-        v.setVisited(true);
-        Iterator<Vertex> e = setOfVerticesAdjacentTo(v.name).iterator();
-        while (e.hasNext()) {
-            Vertex t = e.next();
-            // quick test:
-            if (t.isVisited) {
-                return true;
-            }
-            // elaborate, recursive test:
-            if(isCyclicDirected(t)) {
-                return true;
-            }
-        }
-        // none of our adjacent vertices flag as cyclic
-        return false;
+        int id = compressed.id(v.name);
+        return id != -1 && compressed.hasCycleFrom(id);
     }
 
     /** Runs dijkstra using a specified source vertex */
     public void dijkstra(String startName) {
+        dijkstra(startName, QueueType.DARY_HEAP);
+    }
+
+    /**
+     * Runs dijkstra using a specified source vertex and
+     * priority queue. The result is left in the distance and
+     * predecessor of every vertex, as before, so the graph is
+     * locked while it runs. queryEngine().shortestPathTree gives
+     * the same result without touching the vertices.
+     *
+     * The search runs on the indexed queue of the query engine
+     * rather than a TreeSet ordered by Vertex.compareTo, which
+     * kept only one of several vertices at the same distance.
+     *
+     * @param startName the source vertex
+     * @param queue the priority queue to search with
+     */
+    public synchronized void dijkstra(String startName, IndexedMinQueue.Factory queue) {
         if (!graph.containsKey(startName)) {
             System.err.printf("DirectedGraph doesn't contain start vertex \"%s\"\n", startName);
             return;
         }
-        final Vertex source = graph.get(startName);
-        NavigableSet<Vertex> q = new TreeSet<>();
-
-        // set-up vertices
-        for (Vertex v : graph.values()) {
-            v.predecessor = v == source ? source : null;
-            v.distance = v == source ? 0 : Integer.MAX_VALUE;
-            q.add(v);
-        }
-
-        dijkstra(q);
-    }
-
-    /** Implementation of dijkstra's algorithm using a binary heap. */
-    private NavigableSet<DirectedGraph.Vertex>dijkstra(final NavigableSet<DirectedGraph.Vertex> q) {
-        DirectedGraph.Vertex u, v;
-        while (!q.isEmpty()) {
-
-            u = q.pollFirst(); // vertex with shortest distance (first iteration will return source)
-            if (u.distance == Integer.MAX_VALUE) break; // we can ignore u (and any other remaining vertices) since they are unreachable
-
-            //look at distances to each neighbour
-            for (Map.Entry<DirectedGraph.Vertex, Integer> a : u.neighbours.entrySet()) {
-                v = a.getKey(); //the neighbour in this iteration
-
-                final int alternateDist = u.distance + a.getValue();
-                if (alternateDist < v.distance) { // shorter path to neighbour found
-                    q.remove(v);
-                    v.distance = alternateDist;
-                    v.predecessor = u;
-                    q.add(v);
-                }
+        int source = compressed.requireId(startName);
+        DijkstraWorkspace workspace = queryEngine.search(source, DijkstraQueryEngine.ALL_VERTICES, queue);
+
+        // copy distances and predecessors back to the vertices
+        for (int id = 0; id < vertexById.length; id++) {
+            Vertex v = vertexById[id];
+            v.distance = workspace.distanceTo(id);
+            if (id == source) {
+                v.predecessor = v;
+            } else if (workspace.isReached(id)) {
+                v.predecessor = vertexById[workspace.parent[id]];
+            } else {
+                v.predecessor = null;
             }
         }
-        return q;
     }
 
     private Stack<String> cycle;
@@ -703,21 +712,12 @@ public class DirectedGraph {
 
     // get distance between vertex points
     public int getDistance2(String startName, String middleName, String endName) {
-        int distance = 0;
-        for (Edge edge : edges) {
-            if (edge.vertex1.equals(startName)
-                    && edge.vertex2.equals(middleName)
-                    && edge.vertex1.equals(endName)) {
-                distance = edge.distance;
-            }
-            if (edge.vertex1.equals(startName)
-                    && edge.vertex2.equals(middleName)
-                    && edge.vertex1.equals(endName)) {
-                distance = edge.distance;
-            }
-            //throw new RuntimeException("Should not happen");
+        // only a round trip start -> middle with start == end
+        // ever matched, so this is an indexed lookup of start -> middle
+        if (!startName.equals(endName)) {
+            return 0;
         }
-        return distance;
+        return getDistance(startName, middleName);
     }
 
     /**
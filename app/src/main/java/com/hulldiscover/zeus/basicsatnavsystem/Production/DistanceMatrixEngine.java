@@ -0,0 +1,349 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Many-to-many distance tables.
+ *
+ * The result for sources s0 .. sN-1 and targets t0 .. tM-1 is one
+ * flat int array in row-major order, the distance from si to tj at
+ * index i * M + j, Integer.MAX_VALUE where there is no route.
+ *
+ * Over a plain graph one Dijkstra search is run per source, and it
+ * stops as soon as every target is settled.
+ *
+ * Over a ContractionHierarchy the bucket algorithm is used: an
+ * upward backward search from every target leaves (target, distance)
+ * entries in a bucket at each vertex it settles, then an upward
+ * forward search from every source scans the buckets of the
+ * vertices it settles. Both searches are small, so a table costs
+ * about N + M point-to-point queries instead of N * M.
+ *
+ * Sources (and targets in the bucket algorithm) can be spread over
+ * an ExecutorService; every thread reuses its own DijkstraWorkspace.
+ *
+ * References
+ * Knopp et al., Computing Many-to-Many Shortest Paths Using
+ * Highway Hierarchies (2007)
+ */
+public class DistanceMatrixEngine {
+
+    private final CompressedDirectedGraph graph;
+
+    // null when searching the plain graph
+    private final ContractionHierarchy hierarchy;
+
+    private final ThreadLocal<DijkstraWorkspace> workspaces;
+
+    // vertices settled by the last upward search of every thread
+    private final ThreadLocal<IntList> settledOrder = new ThreadLocal<IntList>() {
+        @Override
+        protected IntList initialValue() {
+            return new IntList();
+        }
+    };
+
+    /**
+     * Creates an engine that runs one search per source.
+     *
+     * @param graph the graph
+     */
+    public DistanceMatrixEngine(CompressedDirectedGraph graph) {
+        this(graph, null);
+    }
+
+    /**
+     * Creates an engine that uses the bucket algorithm.
+     *
+     * @param hierarchy the contracted graph
+     */
+    public DistanceMatrixEngine(ContractionHierarchy hierarchy) {
+        this(graphOf(hierarchy), hierarchy);
+    }
+
+    private static CompressedDirectedGraph graphOf(ContractionHierarchy hierarchy) {
+        if (hierarchy == null) {
+            throw new NullPointerException("The hierarchy cannot be null.");
+        }
+        return hierarchy.graph();
+    }
+
+    private DistanceMatrixEngine(final CompressedDirectedGraph graph, ContractionHierarchy hierarchy) {
+        if (graph == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        this.graph = graph;
+        this.hierarchy = hierarchy;
+        this.workspaces = new ThreadLocal<DijkstraWorkspace>() {
+            @Override
+            protected DijkstraWorkspace initialValue() {
+                return new DijkstraWorkspace(graph.numberOfVertices());
+            }
+        };
+    }
+
+    /**
+     * Accessor for the graph of this engine.
+     *
+     * @return the graph
+     */
+    public CompressedDirectedGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Distance table on the calling thread.
+     *
+     * @param sources the start vertex ids
+     * @param targets the destination vertex ids
+     * @return the distances, row-major, sources.length * targets.length
+     */
+    public int[] distances(int[] sources, int[] targets) {
+        return distances(sources, targets, null);
+    }
+
+    /**
+     * Distance table between named vertices on the calling thread.
+     *
+     * @param from the start vertices
+     * @param to the destination vertices
+     * @return the distances, row-major, from.size() * to.size()
+     */
+    public int[] distances(List<String> from, List<String> to) {
+        int[] sources = new int[from.size()];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = graph.requireId(from.get(i));
+        }
+        int[] targets = new int[to.size()];
+        for (int j = 0; j < targets.length; j++) {
+            targets[j] = graph.requireId(to.get(j));
+        }
+        return distances(sources, targets);
+    }
+
+    /**
+     * Distance table, with the searches spread over an executor.
+     *
+     * @param sources the start vertex ids
+     * @param targets the destination vertex ids
+     * @param executor the threads to run on, or null for the calling thread
+     * @return the distances, row-major, sources.length * targets.length
+     * @throws IllegalArgumentException if the table would not fit in an array
+     */
+    public int[] distances(final int[] sources, final int[] targets, ExecutorService executor) {
+        long cells = (long) sources.length * targets.length;
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The table of " + sources.length + " sources and "
+                    + targets.length + " targets is too large.");
+        }
+        final int[] table = new int[(int) cells];
+        if (table.length == 0) {
+            return table;
+        }
+        if (hierarchy == null) {
+            // vertices to wait for before a search may stop
+            final boolean[] wanted = new boolean[graph.numberOfVertices()];
+            int distinct = 0;
+            for (int target : targets) {
+                if (!wanted[target]) {
+                    wanted[target] = true;
+                    distinct++;
+                }
+            }
+            final int wantedCount = distinct;
+            forEachChunk(sources.length, executor, new ParallelTasks.Task() {
+                @Override
+                public void run(int i) {
+                    searchRow(sources[i], targets, wanted, wantedCount, table, i * targets.length);
+                }
+            });
+        } else {
+            final Buckets buckets = fillBuckets(targets, executor);
+            forEachChunk(sources.length, executor, new ParallelTasks.Task() {
+                @Override
+                public void run(int i) {
+                    scanBuckets(sources[i], buckets, table, i * targets.length, targets.length);
+                }
+            });
+        }
+        return table;
+    }
+
+    /**
+     * Runs a task for every index 0 .. count - 1, in chunks
+     * on the executor if there is one.
+     */
+    private static void forEachChunk(final int count, ExecutorService executor, final ParallelTasks.Task task) {
+        if (executor == null) {
+            for (int i = 0; i < count; i++) {
+                task.run(i);
+            }
+            return;
+        }
+        final int chunk = ParallelTasks.chunkSize(count);
+        ParallelTasks.run(executor, (count + chunk - 1) / chunk, new ParallelTasks.Task() {
+            @Override
+            public void run(int index) {
+                int end = Math.min(count, (index + 1) * chunk);
+                for (int i = index * chunk; i < end; i++) {
+                    task.run(i);
+                }
+            }
+        });
+    }
+
+    /**
+     * One row of the table by Dijkstra over the plain graph.
+     */
+    private void searchRow(int source, int[] targets, boolean[] wanted, int wantedCount,
+                           int[] table, int row) {
+        DijkstraWorkspace workspace = workspaces.get();
+        workspace.begin();
+        workspace.relax(source, 0, DijkstraWorkspace.NO_PARENT);
+
+        int remaining = wantedCount;
+        while (!workspace.heap.empty() && remaining > 0) {
+            int current = workspace.settleMin();
+            if (wanted[current]) {
+                remaining--;
+            }
+            int currentDistance = workspace.distance[current];
+            for (int edge = graph.firstEdge(current), end = graph.endEdge(current); edge < end; edge++) {
+                int weight = graph.weight(edge);
+                if (weight != CompressedDirectedGraph.CLOSED) {
+                    workspace.relax(graph.target(edge), currentDistance + weight, current);
+                }
+            }
+        }
+        for (int j = 0; j < targets.length; j++) {
+            table[row + j] = workspace.isSettled(targets[j])
+                    ? workspace.distance[targets[j]] : Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Bucket entries of every vertex, in CSR layout.
+     */
+    private static final class Buckets {
+        final int[] offsets;
+        final int[] targetIndexes;
+        final int[] distances;
+
+        Buckets(int[] offsets, int[] targetIndexes, int[] distances) {
+            this.offsets = offsets;
+            this.targetIndexes = targetIndexes;
+            this.distances = distances;
+        }
+    }
+
+    /**
+     * Upward backward search from every target, collecting
+     * (vertex, target index, distance) entries.
+     */
+    private Buckets fillBuckets(final int[] targets, ExecutorService executor) {
+        final int chunk = executor == null ? targets.length : ParallelTasks.chunkSize(targets.length);
+        final int chunkCount = (targets.length + chunk - 1) / chunk;
+
+        // entries of every chunk, three ints each
+        final IntList[] entries = new IntList[chunkCount];
+        ParallelTasks.Task fill = new ParallelTasks.Task() {
+            @Override
+            public void run(int index) {
+                IntList chunkEntries = new IntList();
+                int end = Math.min(targets.length, (index + 1) * chunk);
+                for (int j = index * chunk; j < end; j++) {
+                    searchUpward(targets[j], false);
+                    DijkstraWorkspace workspace = workspaces.get();
+                    IntList settled = settledOrder.get();
+                    for (int k = 0; k < settled.size(); k++) {
+                        int v = settled.get(k);
+                        chunkEntries.add(v);
+                        chunkEntries.add(j);
+                        chunkEntries.add(workspace.distance[v]);
+                    }
+                }
+                entries[index] = chunkEntries;
+            }
+        };
+        if (executor == null) {
+            fill.run(0);
+        } else {
+            ParallelTasks.run(executor, chunkCount, fill);
+        }
+
+        // counting sort of the entries by vertex
+        int vertexCount = graph.numberOfVertices();
+        int[] offsets = new int[vertexCount + 1];
+        for (IntList chunkEntries : entries) {
+            for (int k = 0; k < chunkEntries.size(); k += 3) {
+                offsets[chunkEntries.get(k) + 1]++;
+            }
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = new int[vertexCount];
+        System.arraycopy(offsets, 0, next, 0, vertexCount);
+        int[] targetIndexes = new int[offsets[vertexCount]];
+        int[] distances = new int[offsets[vertexCount]];
+        for (IntList chunkEntries : entries) {
+            for (int k = 0; k < chunkEntries.size(); k += 3) {
+                int slot = next[chunkEntries.get(k)]++;
+                targetIndexes[slot] = chunkEntries.get(k + 1);
+                distances[slot] = chunkEntries.get(k + 2);
+            }
+        }
+        return new Buckets(offsets, targetIndexes, distances);
+    }
+
+    /**
+     * One row of the table from the buckets met by an
+     * upward forward search.
+     */
+    private void scanBuckets(int source, Buckets buckets, int[] table, int row, int columns) {
+        for (int j = 0; j < columns; j++) {
+            table[row + j] = Integer.MAX_VALUE;
+        }
+        searchUpward(source, true);
+        DijkstraWorkspace workspace = workspaces.get();
+        IntList settled = settledOrder.get();
+        for (int k = 0; k < settled.size(); k++) {
+            int v = settled.get(k);
+            int toV = workspace.distance[v];
+            for (int slot = buckets.offsets[v]; slot < buckets.offsets[v + 1]; slot++) {
+                long distance = (long) toV + buckets.distances[slot];
+                int cell = row + buckets.targetIndexes[slot];
+                if (distance < table[cell]) {
+                    table[cell] = (int) distance;
+                }
+            }
+        }
+    }
+
+    /**
+     * Complete upward search in the hierarchy, recording
+     * the settled vertices in settledOrder.
+     */
+    private void searchUpward(int start, boolean forward) {
+        int[] offsets = forward ? hierarchy.upOffsets : hierarchy.downOffsets;
+        int[] neighbours = forward ? hierarchy.upTargets : hierarchy.downSources;
+        int[] weights = forward ? hierarchy.upWeights : hierarchy.downWeights;
+
+        DijkstraWorkspace workspace = workspaces.get();
+        IntList settled = settledOrder.get();
+        settled.clear();
+        workspace.begin();
+        workspace.relax(start, 0, DijkstraWorkspace.NO_PARENT);
+        while (!workspace.heap.empty()) {
+            int current = workspace.settleMin();
+            settled.add(current);
+            int currentDistance = workspace.distance[current];
+            for (int edge = offsets[current]; edge < offsets[current + 1]; edge++) {
+                workspace.relax(neighbours[edge], currentDistance + weights[edge], current);
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.Arrays;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * A one-to-all shortest path tree that follows a VersionedGraph:
+ * after every GraphDelta the tree is repaired instead of searched
+ * again from scratch, in the style of Ramalingam and Reps.
+ *
+ * A segment that gets longer or is closed only matters if it is a
+ * tree edge; then the subtree below it has lost its routes. Those
+ * vertices are cut off, each is given the best distance over its
+ * in-edges from the rest of the tree, and a Dijkstra search from
+ * them settles the subtree again. A segment that gets shorter or
+ * is added is relaxed once, and the same search carries any gain
+ * on into the tree. Vertices outside the cut subtree and not
+ * improved are never touched, so a traffic tick that changes a few
+ * segments costs about the size of the part of the tree it changes.
+ *
+ * Edge distances must not be negative. A tree is owned by one
+ * thread; snapshot() gives an immutable ShortestPathTree to share.
+ */
+public class DynamicShortestPathTree {
+
+    /**
+     * Distance of unreachable vertices.
+     */
+    public static final int UNREACHABLE = ShortestPathTree.UNREACHABLE;
+
+    /**
+     * Parent of the source and of unreachable vertices.
+     */
+    public static final int NO_PARENT = ShortestPathTree.NO_PARENT;
+
+    private final int source;
+
+    // the version the tree is correct for
+    private CompressedDirectedGraph graph;
+
+    // distance from source, UNREACHABLE if there is no route
+    private int[] distance;
+
+    // previous vertex on the shortest route, NO_PARENT if none
+    private int[] parent;
+
+    // vertices cut off by the current repair
+    private boolean[] cut;
+
+    // cut vertices, and the stack used to find them
+    private int[] cutList;
+
+    private IndexedDaryMinHeap heap;
+
+    /**
+     * Builds the tree of a source with a full search.
+     *
+     * @param graph the first version of the graph
+     * @param source the start vertex id
+     */
+    public DynamicShortestPathTree(CompressedDirectedGraph graph, int source) {
+        if (graph == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        if (source < 0 || source >= graph.numberOfVertices()) {
+            throw new IllegalArgumentException("The source: " + source + " is not in the graph.");
+        }
+        this.graph = graph;
+        this.source = source;
+        grow(graph.numberOfVertices());
+        distance[source] = 0;
+        heap.add(0, source);
+        settle();
+    }
+
+    /**
+     * Builds the tree of a named source with a full search.
+     *
+     * @param graph the first version of the graph
+     * @param from the start vertex
+     */
+    public DynamicShortestPathTree(CompressedDirectedGraph graph, String from) {
+        this(graph, graph.requireId(from));
+    }
+
+    /**
+     * Accessor for the version the tree is correct for.
+     *
+     * @return the graph
+     */
+    public CompressedDirectedGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Accessor for the root of this tree.
+     *
+     * @return the source vertex id
+     */
+    public int source() {
+        return source;
+    }
+
+    /**
+     * Length of the shortest route from the source to a vertex.
+     *
+     * @param vertex the vertex id
+     * @return the distance, UNREACHABLE if there is no route
+     */
+    public int distance(int vertex) {
+        return distance[vertex];
+    }
+
+    /**
+     * Previous vertex on the shortest route to a vertex.
+     *
+     * @param vertex the vertex id
+     * @return the parent id, NO_PARENT for the source and
+     *         unreachable vertices
+     */
+    public int parent(int vertex) {
+        return parent[vertex];
+    }
+
+    /**
+     * Copy of the tree as it is now.
+     *
+     * @return an immutable tree over graph()
+     */
+    public ShortestPathTree snapshot() {
+        int vertexCount = graph.numberOfVertices();
+        return ShortestPathTree.of(graph, source, Arrays.copyOf(distance, vertexCount),
+                Arrays.copyOf(parent, vertexCount));
+    }
+
+    /**
+     * Moves the tree to the next version of the graph.
+     *
+     * @param next the graph VersionedGraph.apply returned for the delta
+     * @param delta the changes from graph() to next
+     * @return the number of vertices the repair settled
+     */
+    public int update(CompressedDirectedGraph next, GraphDelta delta) {
+        if (next == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        if (delta == null) {
+            throw new NullPointerException("The delta cannot be null.");
+        }
+        CompressedDirectedGraph previous = graph;
+        if (next == previous) {
+            return 0; // the delta changed nothing
+        }
+        if (next.version() != previous.version() + 1) {
+            throw new IllegalArgumentException("The version: " + next.version()
+                    + " does not follow the tree version: " + previous.version() + ".");
+        }
+        graph = next;
+        grow(next.numberOfVertices());
+
+        // cut the subtrees below longer or closed tree edges
+        int cutCount = 0;
+        for (GraphDelta.Change change : delta.changes()) {
+            int from = previous.id(change.from);
+            int to = previous.id(change.to);
+            if (from == -1 || to == -1 || parent[to] != from || cut[to]) {
+                continue;
+            }
+            int edge = previous.findEdge(from, to);
+            if (change.weight == GraphDelta.CLOSED || change.weight > previous.weight(edge)) {
+                cutCount = cut(previous, to, cutCount);
+            }
+        }
+
+        // cut vertices restart from the rest of the tree
+        for (int i = 0; i < cutCount; i++) {
+            int v = cutList[i];
+            for (int inEdge = next.firstInEdge(v), end = next.endInEdge(v); inEdge < end; inEdge++) {
+                int u = next.source(inEdge);
+                int weight = next.weight(next.forwardEdge(inEdge));
+                if (!cut[u] && distance[u] != UNREACHABLE && weight != CompressedDirectedGraph.CLOSED) {
+                    relax(v, distance[u] + weight, u);
+                }
+            }
+        }
+        for (int i = 0; i < cutCount; i++) {
+            cut[cutList[i]] = false;
+        }
+
+        // shorter or new segments are relaxed once
+        for (GraphDelta.Change change : delta.changes()) {
+            if (change.weight == GraphDelta.CLOSED) {
+                continue;
+            }
+            int from = next.id(change.from);
+            int to = next.id(change.to);
+            if (distance[from] != UNREACHABLE) {
+                relax(to, distance[from] + change.weight, from);
+            }
+        }
+        return settle();
+    }
+
+    /**
+     * Cuts a vertex and its subtree off the tree, finding the
+     * children over the edges of the version the tree was built on.
+     */
+    private int cut(CompressedDirectedGraph previous, int root, int cutCount) {
+        int start = cutCount;
+        cut[root] = true;
+        cutList[cutCount++] = root;
+        for (int i = start; i < cutCount; i++) {
+            int v = cutList[i];
+            for (int edge = previous.firstEdge(v), end = previous.endEdge(v); edge < end; edge++) {
+                int child = previous.target(edge);
+                if (parent[child] == v && !cut[child]) {
+                    cut[child] = true;
+                    cutList[cutCount++] = child;
+                }
+            }
+        }
+        for (int i = start; i < cutCount; i++) {
+            int v = cutList[i];
+            distance[v] = UNREACHABLE;
+            parent[v] = NO_PARENT;
+        }
+        return cutCount;
+    }
+
+    /**
+     * Offers a shorter distance for a vertex.
+     */
+    private void relax(int vertex, int newDistance, int from) {
+        if (newDistance >= distance[vertex]) {
+            return;
+        }
+        distance[vertex] = newDistance;
+        parent[vertex] = from;
+        if (heap.containsData(vertex)) {
+            heap.decrease(vertex, newDistance);
+        } else {
+            heap.add(newDistance, vertex);
+        }
+    }
+
+    /**
+     * Dijkstra search from the queued vertices until every
+     * improvement has been carried through the tree.
+     *
+     * @return the number of vertices settled
+     */
+    private int settle() {
+        int settled = 0;
+        while (!heap.empty()) {
+            int v = heap.extractMin();
+            settled++;
+            int d = distance[v];
+            for (int edge = graph.firstEdge(v), end = graph.endEdge(v); edge < end; edge++) {
+                int weight = graph.weight(edge);
+                if (weight != CompressedDirectedGraph.CLOSED) {
+                    relax(graph.target(edge), d + weight, v);
+                }
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * Makes room for the vertices added by a new version,
+     * which start unreachable.
+     */
+    private void grow(int vertexCount) {
+        int old = distance == null ? 0 : distance.length;
+        if (vertexCount <= old) {
+            return;
+        }
+        distance = distance == null ? new int[vertexCount] : Arrays.copyOf(distance, vertexCount);
+        parent = parent == null ? new int[vertexCount] : Arrays.copyOf(parent, vertexCount);
+        Arrays.fill(distance, old, vertexCount, UNREACHABLE);
+        Arrays.fill(parent, old, vertexCount, NO_PARENT);
+        cut = new boolean[vertexCount];
+        cutList = new int[vertexCount];
+        heap = new IndexedDaryMinHeap(vertexCount);
+    }
+}
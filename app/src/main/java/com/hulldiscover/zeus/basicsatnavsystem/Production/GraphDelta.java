@@ -0,0 +1,112 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * A set of changes to the edges of a graph, applied all at once
+ * by VersionedGraph.apply: new distances for road segments (for
+ * example from traffic), closed segments and new segments.
+ *
+ * A later change to the same segment replaces an earlier one.
+ * A delta is filled by one thread and not changed once applied.
+ */
+public class GraphDelta {
+
+    // weight given to a closed segment, the one the graph stores
+    static final int CLOSED = CompressedDirectedGraph.CLOSED;
+
+    /**
+     * One change, in the order the segments were first changed.
+     */
+    static final class Change {
+        final String from;
+        final String to;
+        int weight;
+
+        Change(String from, String to, int weight) {
+            this.from = from;
+            this.to = to;
+            this.weight = weight;
+        }
+    }
+
+    private final List<Change> changes = new ArrayList<>();
+
+    // changes by start vertex, then end vertex
+    private final Map<String, Map<String, Change>> index = new HashMap<>();
+
+    /**
+     * Sets the distance of a segment, adding the segment (and its
+     * vertices) if the graph does not have it.
+     *
+     * @param from the start vertex
+     * @param to the end vertex
+     * @param distance the new distance
+     * @return this delta
+     */
+    public GraphDelta setDistance(String from, String to, int distance) {
+        if (distance < 0) {
+            throw new IllegalArgumentException("The distance: " + distance + " cannot be negative.");
+        }
+        return change(from, to, distance);
+    }
+
+    /**
+     * Closes a segment. Closing a segment the graph does not
+     * have changes nothing.
+     *
+     * @param from the start vertex
+     * @param to the end vertex
+     * @return this delta
+     */
+    public GraphDelta close(String from, String to) {
+        return change(from, to, CLOSED);
+    }
+
+    /**
+     * Number of segments changed.
+     *
+     * @return the change count
+     */
+    public int size() {
+        return changes.size();
+    }
+
+    /**
+     * Whether nothing is changed.
+     *
+     * @return true for an empty delta
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    List<Change> changes() {
+        return changes;
+    }
+
+    private GraphDelta change(String from, String to, int weight) {
+        if (from == null || to == null) {
+            throw new NullPointerException("The vertex name cannot be null.");
+        }
+        Map<String, Change> row = index.get(from);
+        if (row == null) {
+            row = new HashMap<>();
+            index.put(from, row);
+        }
+        Change change = row.get(to);
+        if (change == null) {
+            change = new Change(from, to, weight);
+            row.put(to, change);
+            changes.add(change);
+        } else {
+            change.weight = weight;
+        }
+        return this;
+    }
+}
@@ -0,0 +1,498 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Hub-label distance oracle built from a ContractionHierarchy.
+ *
+ * Every vertex v stores a forward label, pairs (hub, d(v, hub)),
+ * and a backward label, pairs (hub, d(hub, v)), both sorted by hub
+ * id. For any two vertices s and t the labels share a hub on a
+ * shortest route, so
+ *
+ *     d(s, t) = min over common hubs h of fwd(s)[h] + bwd(t)[h]
+ *
+ * and a query is one merge of two sorted int arrays, with no heap
+ * and no search.
+ *
+ * The labels start as the upward search spaces of the hierarchy.
+ * Vertices are labelled from the highest rank down, and an entry
+ * is dropped when the labels already built prove a strictly
+ * shorter route to its hub, which keeps only exact distances.
+ *
+ * When built with path recovery every entry also keeps the
+ * previous vertex on its route (the next one for backward
+ * labels), so a route is rebuilt by walking the two labels and
+ * unpacking the shortcuts of the hierarchy.
+ *
+ * Labels can be written to and read back from a stream, so the
+ * preprocessing only has to be run once per map.
+ *
+ * Immutable once built, safe to query from many threads.
+ *
+ * References
+ * Abraham et al., A Hub-Based Labeling Algorithm for Shortest
+ * Paths on Road Networks (2011)
+ */
+public class HubLabelIndex {
+
+    /**
+     * Parent of the entry of a vertex in its own label.
+     */
+    public static final int NO_PARENT = DijkstraWorkspace.NO_PARENT;
+
+    // first int of a serialized index
+    private static final int MAGIC = 0x48554231; // "HUB1"
+
+    private final CompressedDirectedGraph graph;
+
+    // hierarchy for unpacking routes, null when distance only
+    private final ContractionHierarchy hierarchy;
+
+    // forward labels, entries of v in forwardOffsets[v] .. forwardOffsets[v + 1] - 1
+    final int[] forwardOffsets;
+    final int[] forwardHubs;
+    final int[] forwardDistances;
+
+    // previous vertex on the route v -> hub, null without path recovery
+    final int[] forwardParents;
+
+    // backward labels, same layout
+    final int[] backwardOffsets;
+    final int[] backwardHubs;
+    final int[] backwardDistances;
+
+    // next vertex on the route hub -> v, null without path recovery
+    final int[] backwardParents;
+
+    private HubLabelIndex(CompressedDirectedGraph graph, ContractionHierarchy hierarchy,
+                          int[][] forward, int[][] backward) {
+        this.graph = graph;
+        this.hierarchy = hierarchy;
+        this.forwardOffsets = forward[0];
+        this.forwardHubs = forward[1];
+        this.forwardDistances = forward[2];
+        this.forwardParents = forward[3];
+        this.backwardOffsets = backward[0];
+        this.backwardHubs = backward[1];
+        this.backwardDistances = backward[2];
+        this.backwardParents = backward[3];
+    }
+
+    /**
+     * Builds the labels of every vertex of a hierarchy.
+     *
+     * @param hierarchy the contracted graph
+     * @param withPaths keep what is needed to recover routes
+     * @return the index
+     */
+    public static HubLabelIndex build(ContractionHierarchy hierarchy, boolean withPaths) {
+        if (hierarchy == null) {
+            throw new NullPointerException("The hierarchy cannot be null.");
+        }
+        return new Labeller(hierarchy, withPaths).labelAll();
+    }
+
+    /**
+     * Accessor for the graph of this index.
+     *
+     * @return the graph
+     */
+    public CompressedDirectedGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Whether routes, not only distances, can be queried.
+     *
+     * @return true if built or loaded with path recovery
+     */
+    public boolean hasPaths() {
+        return hierarchy != null && forwardParents != null;
+    }
+
+    /**
+     * Total number of label entries, both directions.
+     *
+     * @return the entry count
+     */
+    public int numberOfEntries() {
+        return forwardHubs.length + backwardHubs.length;
+    }
+
+    /**
+     * Length of the shortest route between two vertices.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @return the distance, Integer.MAX_VALUE if there is no route
+     */
+    public int shortestDistance(int source, int target) {
+        int hubEntry = bestForwardEntry(source, target);
+        if (hubEntry == -1) {
+            return Integer.MAX_VALUE;
+        }
+        int hub = forwardHubs[hubEntry];
+        int backwardEntry = find(backwardHubs, backwardOffsets[target], backwardOffsets[target + 1] - 1, hub);
+        return forwardDistances[hubEntry] + backwardDistances[backwardEntry];
+    }
+
+    /**
+     * Shortest route between two vertices.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @param path buffer the route is written to, source first;
+     *             numberOfVertices() slots always suffice
+     * @return the number of vertices in the route, 0 if there is no route
+     * @throws IllegalStateException if the index has no path recovery
+     */
+    public int shortestPath(int source, int target, int[] path) {
+        if (!hasPaths()) {
+            throw new IllegalStateException("The index was built without path recovery.");
+        }
+        int hubEntry = bestForwardEntry(source, target);
+        if (hubEntry == -1) {
+            return 0;
+        }
+        int hub = forwardHubs[hubEntry];
+
+        // hierarchy vertices source .. hub, walked back from the hub
+        int[] chain = new int[(forwardOffsets[source + 1] - forwardOffsets[source])
+                + (backwardOffsets[target + 1] - backwardOffsets[target])];
+        int count = 0;
+        for (int v = hub; v != NO_PARENT; ) {
+            chain[count++] = v;
+            int entry = find(forwardHubs, forwardOffsets[source], forwardOffsets[source + 1] - 1, v);
+            v = forwardParents[entry];
+        }
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            int swap = chain[i];
+            chain[i] = chain[j];
+            chain[j] = swap;
+        }
+
+        // then hub .. target
+        int v = hub;
+        while (v != target) {
+            int entry = find(backwardHubs, backwardOffsets[target], backwardOffsets[target + 1] - 1, v);
+            v = backwardParents[entry];
+            chain[count++] = v;
+        }
+
+        // unpack every hierarchy edge into original vertices
+        return hierarchy.unpackRoute(chain, count, path);
+    }
+
+    /**
+     * Shortest route between two named vertices.
+     *
+     * @param from the start vertex
+     * @param to the destination vertex
+     * @return the vertex names of the route, empty if there is no route
+     * @throws IllegalStateException if the index has no path recovery
+     */
+    public List<String> shortestPath(String from, String to) {
+        int[] path = new int[graph.numberOfVertices()];
+        int length = shortestPath(graph.requireId(from), graph.requireId(to), path);
+
+        List<String> names = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            names.add(graph.name(path[i]));
+        }
+        return names;
+    }
+
+    /**
+     * Merges the forward label of the source with the
+     * backward label of the target.
+     *
+     * @return the forward entry of the best common hub, -1 if none
+     */
+    private int bestForwardEntry(int source, int target) {
+        int i = forwardOffsets[source];
+        int iEnd = forwardOffsets[source + 1];
+        int j = backwardOffsets[target];
+        int jEnd = backwardOffsets[target + 1];
+
+        long best = Long.MAX_VALUE;
+        int bestEntry = -1;
+        while (i < iEnd && j < jEnd) {
+            int forwardHub = forwardHubs[i];
+            int backwardHub = backwardHubs[j];
+            if (forwardHub < backwardHub) {
+                i++;
+            } else if (forwardHub > backwardHub) {
+                j++;
+            } else {
+                long distance = (long) forwardDistances[i] + backwardDistances[j];
+                if (distance < best) {
+                    best = distance;
+                    bestEntry = i;
+                }
+                i++;
+                j++;
+            }
+        }
+        return bestEntry;
+    }
+
+    private static int find(int[] hubs, int low, int high, int hub) {
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (hubs[middle] < hub) {
+                low = middle + 1;
+            } else if (hubs[middle] > hub) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        throw new IllegalStateException("Label entry for hub " + hub + " is missing.");
+    }
+
+    /**
+     * Writes the labels to a stream. The graph and
+     * hierarchy are not written.
+     *
+     * @param out the stream
+     * @throws IOException if the stream fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(graph.numberOfVertices());
+        out.writeInt(graph.numberOfEdges());
+        out.writeBoolean(forwardParents != null);
+        writeLabels(out, forwardOffsets, forwardHubs, forwardDistances, forwardParents);
+        writeLabels(out, backwardOffsets, backwardHubs, backwardDistances, backwardParents);
+    }
+
+    /**
+     * Reads labels written by writeTo, for distance queries only.
+     *
+     * @param in the stream
+     * @param graph the graph the labels were built for
+     * @return the index
+     * @throws IOException if the stream fails or does not match the graph
+     */
+    public static HubLabelIndex readFrom(DataInput in, CompressedDirectedGraph graph) throws IOException {
+        if (graph == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        return read(in, graph, null);
+    }
+
+    /**
+     * Reads labels written by writeTo. Routes can be recovered
+     * if the labels were built with path recovery.
+     *
+     * @param in the stream
+     * @param hierarchy the hierarchy the labels were built from
+     * @return the index
+     * @throws IOException if the stream fails or does not match the hierarchy
+     */
+    public static HubLabelIndex readFrom(DataInput in, ContractionHierarchy hierarchy) throws IOException {
+        if (hierarchy == null) {
+            throw new NullPointerException("The hierarchy cannot be null.");
+        }
+        return read(in, hierarchy.graph(), hierarchy);
+    }
+
+    private static HubLabelIndex read(DataInput in, CompressedDirectedGraph graph,
+                                      ContractionHierarchy hierarchy) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a hub label index.");
+        }
+        int vertexCount = in.readInt();
+        int edgeCount = in.readInt();
+        if (vertexCount != graph.numberOfVertices() || edgeCount != graph.numberOfEdges()) {
+            throw new IOException("The hub labels were built for another graph.");
+        }
+        boolean withPaths = in.readBoolean();
+        int[][] forward = readLabels(in, vertexCount, withPaths);
+        int[][] backward = readLabels(in, vertexCount, withPaths);
+        return new HubLabelIndex(graph, hierarchy, forward, backward);
+    }
+
+    private static void writeLabels(DataOutput out, int[] offsets, int[] hubs, int[] distances,
+                                    int[] parents) throws IOException {
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        for (int i = 0; i < hubs.length; i++) {
+            out.writeInt(hubs[i]);
+            out.writeInt(distances[i]);
+            if (parents != null) {
+                out.writeInt(parents[i]);
+            }
+        }
+    }
+
+    private static int[][] readLabels(DataInput in, int vertexCount, boolean withPaths) throws IOException {
+        int[] offsets = new int[vertexCount + 1];
+        for (int v = 0; v <= vertexCount; v++) {
+            offsets[v] = in.readInt();
+            if (v > 0 && offsets[v] < offsets[v - 1]) {
+                throw new IOException("Corrupt hub label offsets.");
+            }
+        }
+        int size = offsets[vertexCount];
+        int[] hubs = new int[size];
+        int[] distances = new int[size];
+        int[] parents = withPaths ? new int[size] : null;
+        for (int i = 0; i < size; i++) {
+            hubs[i] = in.readInt();
+            distances[i] = in.readInt();
+            if (withPaths) {
+                parents[i] = in.readInt();
+            }
+        }
+        return new int[][] {offsets, hubs, distances, parents};
+    }
+
+    /**
+     * Build state: the labels done so far, one array per vertex.
+     */
+    private static final class Labeller {
+        private final ContractionHierarchy hierarchy;
+        private final CompressedDirectedGraph graph;
+        private final int vertexCount;
+        private final boolean withPaths;
+
+        // label of every vertex: hubs, distances, parents
+        private final int[][] forwardHubs;
+        private final int[][] forwardDistances;
+        private final int[][] forwardParents;
+        private final int[][] backwardHubs;
+        private final int[][] backwardDistances;
+        private final int[][] backwardParents;
+
+        private final DijkstraWorkspace search;
+
+        Labeller(ContractionHierarchy hierarchy, boolean withPaths) {
+            this.hierarchy = hierarchy;
+            this.graph = hierarchy.graph();
+            this.vertexCount = graph.numberOfVertices();
+            this.withPaths = withPaths;
+            forwardHubs = new int[vertexCount][];
+            forwardDistances = new int[vertexCount][];
+            forwardParents = new int[vertexCount][];
+            backwardHubs = new int[vertexCount][];
+            backwardDistances = new int[vertexCount][];
+            backwardParents = new int[vertexCount][];
+            search = new DijkstraWorkspace(vertexCount);
+        }
+
+        HubLabelIndex labelAll() {
+            // highest rank first, so the labels of every hub
+            // of a vertex are final when the vertex is labelled
+            int[] byRank = new int[vertexCount];
+            for (int v = 0; v < vertexCount; v++) {
+                byRank[hierarchy.rank[v]] = v;
+            }
+            for (int r = vertexCount - 1; r >= 0; r--) {
+                int v = byRank[r];
+                label(v, true);
+                label(v, false);
+            }
+            return new HubLabelIndex(graph, withPaths ? hierarchy : null,
+                    flatten(forwardHubs, forwardDistances, forwardParents),
+                    flatten(backwardHubs, backwardDistances, backwardParents));
+        }
+
+        /**
+         * Upward search from a vertex, then keeps
+         * the entries with an exact distance.
+         */
+        private void label(int v, boolean forward) {
+            int[] offsets = forward ? hierarchy.upOffsets : hierarchy.downOffsets;
+            int[] neighbours = forward ? hierarchy.upTargets : hierarchy.downSources;
+            int[] weights = forward ? hierarchy.upWeights : hierarchy.downWeights;
+
+            search.begin();
+            search.relax(v, 0, NO_PARENT);
+            IntList space = new IntList();
+            while (!search.heap.empty()) {
+                int current = search.settleMin();
+                space.add(current);
+                int currentDistance = search.distance[current];
+                for (int edge = offsets[current]; edge < offsets[current + 1]; edge++) {
+                    search.relax(neighbours[edge], currentDistance + weights[edge], current);
+                }
+            }
+
+            // an entry is exact unless the other direction's
+            // label of its hub shows a shorter route
+            IntList kept = new IntList(space.size());
+            for (int i = 0; i < space.size(); i++) {
+                int hub = space.get(i);
+                if (hub == v || !hasShorterRoute(hub, search.distance[hub], forward)) {
+                    kept.add(hub);
+                }
+            }
+
+            int[] hubs = kept.toArray();
+            Arrays.sort(hubs);
+            int[] distances = new int[hubs.length];
+            int[] parents = withPaths ? new int[hubs.length] : null;
+            for (int i = 0; i < hubs.length; i++) {
+                distances[i] = search.distance[hubs[i]];
+                if (withPaths) {
+                    parents[i] = search.parent[hubs[i]];
+                }
+            }
+            if (forward) {
+                forwardHubs[v] = hubs;
+                forwardDistances[v] = distances;
+                forwardParents[v] = parents;
+            } else {
+                backwardHubs[v] = hubs;
+                backwardDistances[v] = distances;
+                backwardParents[v] = parents;
+            }
+        }
+
+        /**
+         * Whether the search space of the current vertex and the
+         * final label of a hub join in a route shorter than distance.
+         */
+        private boolean hasShorterRoute(int hub, int distance, boolean forward) {
+            int[] hubs = forward ? backwardHubs[hub] : forwardHubs[hub];
+            int[] distances = forward ? backwardDistances[hub] : forwardDistances[hub];
+            for (int i = 0; i < hubs.length; i++) {
+                int middle = hubs[i];
+                if (middle != hub && search.isSettled(middle)
+                        && (long) search.distance[middle] + distances[i] < distance) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int[][] flatten(int[][] hubs, int[][] distances, int[][] parents) {
+            int[] offsets = new int[vertexCount + 1];
+            for (int v = 0; v < vertexCount; v++) {
+                offsets[v + 1] = offsets[v] + hubs[v].length;
+            }
+            int size = offsets[vertexCount];
+            int[] flatHubs = new int[size];
+            int[] flatDistances = new int[size];
+            int[] flatParents = withPaths ? new int[size] : null;
+            for (int v = 0; v < vertexCount; v++) {
+                System.arraycopy(hubs[v], 0, flatHubs, offsets[v], hubs[v].length);
+                System.arraycopy(distances[v], 0, flatDistances, offsets[v], hubs[v].length);
+                if (withPaths) {
+                    System.arraycopy(parents[v], 0, flatParents, offsets[v], hubs[v].length);
+                }
+            }
+            return new int[][] {offsets, flatHubs, flatDistances, flatParents};
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.Arrays;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Indexed d-ary min heap over int keys 0 .. capacity - 1
+ * with int weights.
+ *
+ * Same operations as BinaryMinHeap, but the heap is two
+ * parallel int arrays and the position of every key is kept
+ * in a third int array, so no object is created or boxed
+ * after construction.
+ *
+ * extractMin - O(d log n / log d)
+ * add - O(log n / log d)
+ * containsData - O(1)
+ * decrease - O(log n / log d)
+ * getWeight - O(1)
+ */
+public class IndexedDaryMinHeap implements IndexedMinQueue {
+
+    /**
+     * Default number of children per node.
+     * Four keeps the children of a node in one cache line.
+     */
+    public static final int DEFAULT_ARITY = 4;
+
+    private final int arity;
+
+    // keys and weights, in heap order
+    private final int[] heapKeys;
+    private final int[] heapWeights;
+
+    // position of every key in the heap, -1 if absent
+    private final int[] position;
+
+    private int size;
+
+    /**
+     * Creates an empty heap with the default arity.
+     *
+     * @param capacity keys are in 0 .. capacity - 1
+     */
+    public IndexedDaryMinHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    /**
+     * Creates an empty heap.
+     *
+     * @param capacity keys are in 0 .. capacity - 1
+     * @param arity number of children per node, at least 2
+     */
+    public IndexedDaryMinHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("The arity: " + arity + " must be at least 2.");
+        }
+        this.arity = arity;
+        heapKeys = new int[capacity];
+        heapWeights = new int[capacity];
+        position = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Checks where the key exists in heap or not
+     */
+    public boolean containsData(int key) {
+        return position[key] != -1;
+    }
+
+    /**
+     * Add key and its weight to the heap
+     */
+    public void add(int weight, int key) {
+        int current = size++;
+        heapKeys[current] = key;
+        heapWeights[current] = weight;
+        position[key] = current;
+        siftUp(current);
+    }
+
+    /**
+     * Get the heap min without extracting the key
+     */
+    public int min() {
+        return heapKeys[0];
+    }
+
+    /**
+     * Get the weight of the heap min
+     */
+    public int minWeight() {
+        return heapWeights[0];
+    }
+
+    /**
+     * Checks with heap is empty or not
+     */
+    public boolean empty() {
+        return size == 0;
+    }
+
+    /**
+     * Number of keys in heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Decreases the weight of given key to newWeight
+     */
+    public void decrease(int key, int newWeight) {
+        int current = position[key];
+        heapWeights[current] = newWeight;
+        siftUp(current);
+    }
+
+    /**
+     * Changes the weight of given key to newWeight,
+     * which may be larger or smaller
+     */
+    public void update(int key, int newWeight) {
+        int current = position[key];
+        int oldWeight = heapWeights[current];
+        heapWeights[current] = newWeight;
+        if (newWeight < oldWeight) {
+            siftUp(current);
+        } else {
+            siftDown(current);
+        }
+    }
+
+    /**
+     * Get the weight of given key
+     */
+    public int getWeight(int key) {
+        return heapWeights[position[key]];
+    }
+
+    /**
+     * Extract min value key from the heap
+     */
+    public int extractMin() {
+        int min = heapKeys[0];
+        position[min] = -1;
+        size--;
+        if (size > 0) {
+            heapKeys[0] = heapKeys[size];
+            heapWeights[0] = heapWeights[size];
+            position[heapKeys[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Removes every key, O(size)
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heapKeys[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int current) {
+        int key = heapKeys[current];
+        int weight = heapWeights[current];
+        while (current > 0) {
+            int parent = (current - 1) / arity;
+            if (heapWeights[parent] <= weight) {
+                break;
+            }
+            // move parent down a level
+            heapKeys[current] = heapKeys[parent];
+            heapWeights[current] = heapWeights[parent];
+            position[heapKeys[current]] = current;
+            current = parent;
+        }
+        heapKeys[current] = key;
+        heapWeights[current] = weight;
+        position[key] = current;
+    }
+
+    private void siftDown(int current) {
+        int key = heapKeys[current];
+        int weight = heapWeights[current];
+        while (true) {
+            int first = current * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            // find the smallest child
+            int last = Math.min(first + arity, size);
+            int smallest = first;
+            for (int child = first + 1; child < last; child++) {
+                if (heapWeights[child] < heapWeights[smallest]) {
+                    smallest = child;
+                }
+            }
+            if (heapWeights[smallest] >= weight) {
+                break;
+            }
+            // move child up a level
+            heapKeys[current] = heapKeys[smallest];
+            heapWeights[current] = heapWeights[smallest];
+            position[heapKeys[current]] = current;
+            current = smallest;
+        }
+        heapKeys[current] = key;
+        heapWeights[current] = weight;
+        position[key] = current;
+    }
+}
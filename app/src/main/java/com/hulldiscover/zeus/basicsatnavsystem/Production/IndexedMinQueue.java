@@ -0,0 +1,86 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Min priority queue over int keys 0 .. capacity - 1 with int
+ * weights, where the weight of a queued key can be looked up and
+ * decreased. This is all a Dijkstra search needs from its queue.
+ *
+ * Implementations
+ *     IndexedDaryMinHeap - any weights, binary or wider nodes
+ *     IndexedPairingHeap - any weights, cheap add and decrease
+ *     DialBucketQueue - monotone weights from a small int range
+ *
+ * The search engines take a Factory, so another queue can be
+ * plugged in without touching the algorithms. QueueType lists
+ * the built in ones.
+ */
+public interface IndexedMinQueue {
+
+    /**
+     * Creates the queues of a search engine,
+     * one per querying thread.
+     */
+    interface Factory {
+
+        /**
+         * Creates an empty queue.
+         *
+         * @param capacity keys are in 0 .. capacity - 1
+         * @param maxWeight longest edge weight of the searched graph
+         * @return the queue
+         */
+        IndexedMinQueue create(int capacity, int maxWeight);
+    }
+
+    /**
+     * Checks where the key exists in queue or not
+     */
+    boolean containsData(int key);
+
+    /**
+     * Add key and its weight to the queue
+     */
+    void add(int weight, int key);
+
+    /**
+     * Get the min key without extracting it
+     */
+    int min();
+
+    /**
+     * Get the weight of the min key
+     */
+    int minWeight();
+
+    /**
+     * Checks with queue is empty or not
+     */
+    boolean empty();
+
+    /**
+     * Number of keys in queue
+     */
+    int size();
+
+    /**
+     * Decreases the weight of given key to newWeight
+     */
+    void decrease(int key, int newWeight);
+
+    /**
+     * Get the weight of given key
+     */
+    int getWeight(int key);
+
+    /**
+     * Extract min weight key from the queue
+     */
+    int extractMin();
+
+    /**
+     * Removes every key
+     */
+    void clear();
+}
@@ -0,0 +1,195 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.Arrays;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Indexed pairing heap over int keys 0 .. capacity - 1 with int
+ * weights.
+ *
+ * Every key is a tree node linked through int arrays (first child,
+ * next sibling, previous sibling or parent). Adding and decreasing
+ * a key only link one tree under another, and the work is paid for
+ * by extractMin, which pairs up the children of the root left to
+ * right and then joins the pairs right to left.
+ *
+ * extractMin - O(log n) amortised
+ * add - O(1)
+ * containsData - O(1)
+ * decrease - o(log n) amortised
+ * getWeight - O(1)
+ *
+ * References
+ * Fredman et al., The pairing heap: a new form of self-adjusting
+ * heap (1986)
+ */
+public class IndexedPairingHeap implements IndexedMinQueue {
+
+    private static final int NONE = -1;
+
+    private final int[] weights;
+
+    // tree links, indexed by key
+    private final int[] child;
+    private final int[] sibling;
+    private final int[] previous;
+
+    // generation in which a key was added, cleared when extracted
+    private final int[] queued;
+    private int generation = 1;
+
+    // children of the old root while extracting
+    private final int[] scratch;
+
+    private int root = NONE;
+    private int size;
+
+    /**
+     * Creates an empty heap.
+     *
+     * @param capacity keys are in 0 .. capacity - 1
+     */
+    public IndexedPairingHeap(int capacity) {
+        weights = new int[capacity];
+        child = new int[capacity];
+        sibling = new int[capacity];
+        previous = new int[capacity];
+        queued = new int[capacity];
+        scratch = new int[capacity];
+    }
+
+    @Override
+    public boolean containsData(int key) {
+        return queued[key] == generation;
+    }
+
+    @Override
+    public void add(int weight, int key) {
+        weights[key] = weight;
+        child[key] = NONE;
+        sibling[key] = NONE;
+        previous[key] = NONE;
+        queued[key] = generation;
+        root = root == NONE ? key : meld(root, key);
+        size++;
+    }
+
+    @Override
+    public int min() {
+        return root;
+    }
+
+    @Override
+    public int minWeight() {
+        return weights[root];
+    }
+
+    @Override
+    public boolean empty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void decrease(int key, int newWeight) {
+        weights[key] = newWeight;
+        if (key == root) {
+            return;
+        }
+        // cut the subtree of key loose and join it with the root
+        int before = previous[key];
+        int after = sibling[key];
+        if (child[before] == key) {
+            child[before] = after;
+        } else {
+            sibling[before] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+        sibling[key] = NONE;
+        previous[key] = NONE;
+        root = meld(root, key);
+    }
+
+    @Override
+    public int getWeight(int key) {
+        return weights[key];
+    }
+
+    @Override
+    public int extractMin() {
+        int min = root;
+        queued[min] = 0;
+        size--;
+
+        int count = 0;
+        for (int c = child[min]; c != NONE; ) {
+            int next = sibling[c];
+            sibling[c] = NONE;
+            previous[c] = NONE;
+            scratch[count++] = c;
+            c = next;
+        }
+        if (count == 0) {
+            root = NONE;
+            return min;
+        }
+
+        // pair up left to right
+        int pairs = 0;
+        for (int i = 0; i + 1 < count; i += 2) {
+            scratch[pairs++] = meld(scratch[i], scratch[i + 1]);
+        }
+        if (count % 2 == 1) {
+            scratch[pairs++] = scratch[count - 1];
+        }
+        // join the pairs right to left
+        int joined = scratch[pairs - 1];
+        for (int i = pairs - 2; i >= 0; i--) {
+            joined = meld(scratch[i], joined);
+        }
+        root = joined;
+        return min;
+    }
+
+    /**
+     * Removes every key, O(1)
+     */
+    @Override
+    public void clear() {
+        root = NONE;
+        size = 0;
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(queued, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Links two tree roots, the heavier under the lighter.
+     *
+     * @return the new root
+     */
+    private int meld(int a, int b) {
+        if (weights[b] < weights[a]) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        int first = child[a];
+        sibling[b] = first;
+        if (first != NONE) {
+            previous[first] = b;
+        }
+        previous[b] = a;
+        child[a] = b;
+        return a;
+    }
+}
@@ -0,0 +1,181 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.Arrays;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Precomputed distances to and from a small set of landmark
+ * vertices, used as lower bounds for A* search (ALT: A*,
+ * landmarks and the triangle inequality).
+ *
+ * For a landmark L and vertices v, t the triangle inequality gives
+ *     dist(v, t) >= dist(L, t) - dist(L, v)
+ *     dist(v, t) >= dist(v, L) - dist(t, L)
+ * and the best of these over all landmarks is a consistent lower
+ * bound, the only one available as the town graph carries no
+ * coordinates.
+ *
+ * Landmarks are picked by farthest selection: each new landmark is
+ * the reachable vertex farthest from the landmarks chosen so far.
+ *
+ * Memory is two ints per vertex per landmark.
+ *
+ * References
+ * Goldberg and Harrelson, Computing the shortest path: A* search
+ * meets graph theory (2005)
+ */
+public class LandmarkIndex {
+
+    private final CompressedDirectedGraph graph;
+
+    // landmark vertex ids
+    private final int[] landmarks;
+
+    // fromLandmark[l * V + v] = dist(landmark l, v)
+    private final int[] fromLandmark;
+
+    // toLandmark[l * V + v] = dist(v, landmark l)
+    private final int[] toLandmark;
+
+    private LandmarkIndex(CompressedDirectedGraph graph, int[] landmarks,
+                          int[] fromLandmark, int[] toLandmark) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    /**
+     * Chooses landmarks by farthest selection and computes
+     * their distances.
+     *
+     * @param graph the graph
+     * @param landmarkCount number of landmarks, more landmarks give
+     *                      tighter bounds but cost memory
+     * @return the landmark index
+     */
+    public static LandmarkIndex build(CompressedDirectedGraph graph, int landmarkCount) {
+        if (landmarkCount < 1) {
+            throw new IllegalArgumentException("The landmark count: " + landmarkCount + " must be at least 1.");
+        }
+        int vertexCount = graph.numberOfVertices();
+        landmarkCount = Math.min(landmarkCount, vertexCount);
+        DijkstraQueryEngine engine = new DijkstraQueryEngine(graph);
+
+        int[] landmarks = new int[landmarkCount];
+        int[] fromLandmark = new int[landmarkCount * vertexCount];
+        int[] toLandmark = new int[landmarkCount * vertexCount];
+
+        // smallest distance of every vertex from the chosen landmarks
+        int[] nearest = new int[vertexCount];
+        Arrays.fill(nearest, Integer.MAX_VALUE);
+
+        // first landmark is the vertex farthest from vertex 0
+        int candidate = farthest(engine.search(0), vertexCount, null);
+        for (int l = 0; l < landmarkCount; l++) {
+            landmarks[l] = candidate;
+
+            DijkstraWorkspace forward = engine.search(candidate);
+            for (int v = 0; v < vertexCount; v++) {
+                int distance = forward.distanceTo(v);
+                fromLandmark[l * vertexCount + v] = distance;
+                nearest[v] = Math.min(nearest[v], distance);
+            }
+            DijkstraWorkspace backward = engine.searchReverse(candidate);
+            for (int v = 0; v < vertexCount; v++) {
+                toLandmark[l * vertexCount + v] = backward.distanceTo(v);
+            }
+
+            candidate = farthest(null, vertexCount, nearest);
+        }
+        return new LandmarkIndex(graph, landmarks, fromLandmark, toLandmark);
+    }
+
+    /**
+     * Picks the vertex with the largest distance, either from a
+     * search result or from an array of distances. Unreached
+     * vertices count as farthest, so a part of the graph no
+     * landmark can reach gets a landmark of its own.
+     */
+    private static int farthest(DijkstraWorkspace search, int vertexCount, int[] distances) {
+        int best = 0;
+        int bestDistance = -1;
+        for (int v = 0; v < vertexCount; v++) {
+            int distance = search != null ? search.distanceTo(v) : distances[v];
+            if (distance == Integer.MAX_VALUE) {
+                // vertices no landmark reaches yet are the best choice
+                distance = Integer.MAX_VALUE - 1;
+            }
+            if (distance > bestDistance) {
+                best = v;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Lower bound of the distance between two vertices.
+     *
+     * @param vertex the vertex
+     * @param target the destination vertex
+     * @return a lower bound, 0 if the landmarks give none
+     */
+    public int lowerBound(int vertex, int target) {
+        int vertexCount = graph.numberOfVertices();
+        int bound = 0;
+        for (int l = 0, base = 0; l < landmarks.length; l++, base += vertexCount) {
+            // dist(v, t) >= dist(L, t) - dist(L, v)
+            int toTarget = fromLandmark[base + target];
+            int toVertex = fromLandmark[base + vertex];
+            if (toTarget != Integer.MAX_VALUE && toVertex != Integer.MAX_VALUE) {
+                bound = Math.max(bound, toTarget - toVertex);
+            }
+            // dist(v, t) >= dist(v, L) - dist(t, L)
+            int fromVertex = toLandmark[base + vertex];
+            int fromTarget = toLandmark[base + target];
+            if (fromVertex != Integer.MAX_VALUE && fromTarget != Integer.MAX_VALUE) {
+                bound = Math.max(bound, fromVertex - fromTarget);
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Accessor for the graph the landmarks belong to.
+     *
+     * @return the graph
+     */
+    public CompressedDirectedGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Number of landmarks.
+     *
+     * @return the landmark count
+     */
+    public int landmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * Vertex id of a landmark.
+     *
+     * @param index the landmark number
+     * @return the vertex id
+     */
+    public int landmark(int index) {
+        return landmarks[index];
+    }
+
+    /**
+     * Size of the distance tables.
+     *
+     * @return the number of bytes used by the landmark distances
+     */
+    public long memoryBytes() {
+        return 4L * (fromLandmark.length + toLandmark.length);
+    }
+}
@@ -0,0 +1,293 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Enumerates the simple paths between many pairs of vertices
+ * on several threads.
+ *
+ * The search tree of every pair is cut into subtrees by prefix:
+ * starting from the source, prefixes are extended one edge at a
+ * time in depth first order until there are a few per processor
+ * for every pair. Each worker then takes the next unclaimed prefix
+ * from a shared counter, so a worker that finishes a small subtree
+ * early takes over work that has not started yet, and runs the
+ * depth first search of a SimplePathIterator below it. Every worker
+ * has its own iterator, which holds its path stack and visited
+ * bitset, and its own path buffer; nothing is locked while searching.
+ *
+ * Paths keep the order of the sequential search, so the results
+ * do not depend on the number of threads.
+ *
+ * The number of paths grows exponentially with their length, so
+ * a stop limit should be given for anything but small graphs.
+ */
+public class ParallelPathEnumerator {
+
+    // prefixes wanted per processor, so uneven subtrees balance out
+    private static final int PREFIXES_PER_PROCESSOR = 16;
+
+    private final CompressedDirectedGraph graph;
+
+    /**
+     * Part of the search tree of one pair, a whole path
+     * when it already ends at the target.
+     */
+    private static final class Prefix {
+        final int pair;
+        final int[] vertices;
+        final boolean path;
+
+        Prefix(int pair, int[] vertices, boolean path) {
+            this.pair = pair;
+            this.vertices = vertices;
+            this.path = path;
+        }
+    }
+
+    /**
+     * Creates an enumerator for a graph.
+     *
+     * @param graph the graph to search
+     */
+    public ParallelPathEnumerator(CompressedDirectedGraph graph) {
+        if (graph == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        this.graph = graph;
+    }
+
+    /**
+     * Accessor for the graph this enumerator searches.
+     *
+     * @return the graph
+     */
+    public CompressedDirectedGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Every simple path between two named vertices.
+     *
+     * @param from the start vertex
+     * @param to the destination vertex
+     * @param maxStops longest path in edges, or SimplePathIterator.UNLIMITED
+     * @param executor the threads to run on, or null for the calling thread
+     * @return the paths as lists of vertex names
+     */
+    public List<List<String>> paths(String from, String to, int maxStops, ExecutorService executor) {
+        List<int[]> paths = paths(graph.requireId(from), graph.requireId(to), maxStops, executor);
+        List<List<String>> names = new ArrayList<>(paths.size());
+        for (int[] path : paths) {
+            List<String> pathNames = new ArrayList<>(path.length);
+            for (int v : path) {
+                pathNames.add(graph.name(v));
+            }
+            names.add(pathNames);
+        }
+        return names;
+    }
+
+    /**
+     * Every simple path between two vertices.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @param maxStops longest path in edges, or SimplePathIterator.UNLIMITED
+     * @param executor the threads to run on, or null for the calling thread
+     * @return the paths as arrays of vertex ids, source first
+     */
+    public List<int[]> paths(int source, int target, int maxStops, ExecutorService executor) {
+        return paths(new int[]{source}, new int[]{target}, maxStops, executor).get(0);
+    }
+
+    /**
+     * Every simple path between each pair sources[i], targets[i].
+     *
+     * @param sources the start vertex ids
+     * @param targets the destination vertex ids
+     * @param maxStops longest path in edges, or SimplePathIterator.UNLIMITED
+     * @param executor the threads to run on, or null for the calling thread
+     * @return the paths of every pair
+     */
+    public List<List<int[]>> paths(int[] sources, int[] targets, int maxStops, ExecutorService executor) {
+        List<Prefix> prefixes = split(sources, targets, maxStops);
+        IntList[] found = new IntList[prefixes.size()];
+        search(prefixes, targets, maxStops, found, new long[prefixes.size()], executor);
+
+        List<List<int[]>> paths = new ArrayList<>(sources.length);
+        for (int pair = 0; pair < sources.length; pair++) {
+            paths.add(new ArrayList<int[]>());
+        }
+        for (int i = 0; i < prefixes.size(); i++) {
+            Prefix prefix = prefixes.get(i);
+            List<int[]> pairPaths = paths.get(prefix.pair);
+            if (prefix.path) {
+                pairPaths.add(prefix.vertices);
+                continue;
+            }
+            // length then vertices of every path
+            IntList flat = found[i];
+            for (int k = 0; k < flat.size(); ) {
+                int[] path = new int[flat.get(k++)];
+                for (int j = 0; j < path.length; j++) {
+                    path[j] = flat.get(k++);
+                }
+                pairPaths.add(path);
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Number of simple paths between each pair sources[i], targets[i],
+     * without keeping the paths.
+     *
+     * @param sources the start vertex ids
+     * @param targets the destination vertex ids
+     * @param maxStops longest path in edges, or SimplePathIterator.UNLIMITED
+     * @param executor the threads to run on, or null for the calling thread
+     * @return the path count of every pair
+     */
+    public long[] countPaths(int[] sources, int[] targets, int maxStops, ExecutorService executor) {
+        List<Prefix> prefixes = split(sources, targets, maxStops);
+        long[] found = new long[prefixes.size()];
+        search(prefixes, targets, maxStops, null, found, executor);
+
+        long[] counts = new long[sources.length];
+        for (int i = 0; i < prefixes.size(); i++) {
+            Prefix prefix = prefixes.get(i);
+            counts[prefix.pair] += prefix.path ? 1 : found[i];
+        }
+        return counts;
+    }
+
+    /**
+     * Cuts the search trees of all pairs into prefixes and
+     * the paths met on the way, in depth first order.
+     */
+    private List<Prefix> split(int[] sources, int[] targets, int maxStops) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("The number of sources: " + sources.length
+                    + " and targets: " + targets.length + " must match.");
+        }
+        if (maxStops < 0) {
+            throw new IllegalArgumentException("The stop limit: " + maxStops + " cannot be negative.");
+        }
+        int vertexCount = graph.numberOfVertices();
+        for (int pair = 0; pair < sources.length; pair++) {
+            if (sources[pair] < 0 || sources[pair] >= vertexCount
+                    || targets[pair] < 0 || targets[pair] >= vertexCount) {
+                throw new IllegalArgumentException("The pair: " + sources[pair] + ", " + targets[pair]
+                        + " is not in the graph.");
+            }
+        }
+
+        int wanted = Runtime.getRuntime().availableProcessors() * PREFIXES_PER_PROCESSOR;
+        int wantedPerPair = Math.max(1, wanted / Math.max(1, sources.length));
+
+        List<Prefix> all = new ArrayList<>();
+        for (int pair = 0; pair < sources.length; pair++) {
+            int target = targets[pair];
+            List<Prefix> pieces = new ArrayList<>();
+            pieces.add(new Prefix(pair, new int[]{sources[pair]}, sources[pair] == target));
+
+            // one more edge on every open prefix per round
+            int open = pieces.get(0).path ? 0 : 1;
+            int length = 1;
+            while (open > 0 && open < wantedPerPair && length <= maxStops) {
+                List<Prefix> next = new ArrayList<>();
+                open = 0;
+                for (Prefix piece : pieces) {
+                    if (piece.path) {
+                        next.add(piece);
+                        continue;
+                    }
+                    int last = piece.vertices[length - 1];
+                    for (int edge = graph.firstEdge(last), end = graph.endEdge(last); edge < end; edge++) {
+                        int vertex = graph.target(edge);
+                        if (graph.weight(edge) == CompressedDirectedGraph.CLOSED
+                                || contains(piece.vertices, vertex)) {
+                            continue;
+                        }
+                        if (vertex != target && length == maxStops) {
+                            continue;
+                        }
+                        int[] vertices = new int[length + 1];
+                        System.arraycopy(piece.vertices, 0, vertices, 0, length);
+                        vertices[length] = vertex;
+                        next.add(new Prefix(pair, vertices, vertex == target));
+                        if (vertex != target) {
+                            open++;
+                        }
+                    }
+                }
+                pieces = next;
+                length++;
+            }
+            all.addAll(pieces);
+        }
+        return all;
+    }
+
+    private static boolean contains(int[] vertices, int vertex) {
+        for (int v : vertices) {
+            if (v == vertex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Searches below every open prefix, counting the paths and
+     * keeping them (length then vertices) if there is a list for them.
+     */
+    private void search(final List<Prefix> prefixes, final int[] targets, final int maxStops,
+                        final IntList[] found, final long[] counts, ExecutorService executor) {
+        final AtomicInteger nextPrefix = new AtomicInteger();
+        ParallelTasks.Task worker = new ParallelTasks.Task() {
+            @Override
+            public void run(int index) {
+                SimplePathIterator iterator = SimplePathIterator.unstarted(graph, maxStops, SimplePathIterator.UNLIMITED);
+                int[] buffer = new int[graph.numberOfVertices()];
+                int i;
+                while ((i = nextPrefix.getAndIncrement()) < prefixes.size()) {
+                    Prefix prefix = prefixes.get(i);
+                    if (prefix.path) {
+                        continue;
+                    }
+                    iterator.start(prefix.vertices, prefix.vertices.length, targets[prefix.pair]);
+                    IntList out = found == null ? null : new IntList();
+                    long count = 0;
+                    int length;
+                    while ((length = iterator.next(buffer)) > 0) {
+                        count++;
+                        if (out != null) {
+                            out.add(length);
+                            for (int j = 0; j < length; j++) {
+                                out.add(buffer[j]);
+                            }
+                        }
+                    }
+                    counts[i] = count;
+                    if (out != null) {
+                        found[i] = out;
+                    }
+                }
+            }
+        };
+
+        int workers = Math.min(Runtime.getRuntime().availableProcessors(), prefixes.size());
+        if (executor == null || workers <= 1) {
+            worker.run(0);
+        } else {
+            ParallelTasks.run(executor, workers, worker);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Runs numbered tasks on an ExecutorService and waits for all of
+ * them, passing the first failure on to the caller.
+ */
+final class ParallelTasks {
+
+    /**
+     * One numbered unit of work.
+     */
+    interface Task {
+        void run(int index);
+    }
+
+    private ParallelTasks() {
+    }
+
+    /**
+     * Runs task 0 .. taskCount - 1 and waits for them to finish.
+     *
+     * @param executor the threads to run on
+     * @param taskCount the number of tasks
+     * @param task the work of every task
+     */
+    static void run(ExecutorService executor, int taskCount, final Task task) {
+        if (executor == null) {
+            throw new NullPointerException("The executor cannot be null.");
+        }
+        List<Callable<Void>> callables = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            final int index = i;
+            callables.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    task.run(index);
+                    return null;
+                }
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(callables)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the tasks.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Size of the chunks count items are split into, several
+     * chunks per processor so uneven chunks balance out.
+     *
+     * @param count the number of items
+     * @return the chunk size, at least 1
+     */
+    static int chunkSize(int count) {
+        int chunks = Runtime.getRuntime().availableProcessors() * 4;
+        return Math.max(1, (count + chunks - 1) / chunks);
+    }
+}
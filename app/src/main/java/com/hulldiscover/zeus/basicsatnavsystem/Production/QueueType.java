@@ -0,0 +1,57 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Built in priority queues a Dijkstra search can run on,
+ * chosen per engine or per query.
+ */
+public enum QueueType implements IndexedMinQueue.Factory {
+
+    /**
+     * IndexedDaryMinHeap with two children per node.
+     */
+    BINARY_HEAP {
+        @Override
+        public IndexedMinQueue create(int capacity, int maxWeight) {
+            return new IndexedDaryMinHeap(capacity, 2);
+        }
+    },
+
+    /**
+     * IndexedDaryMinHeap with the default arity, for any edge weights.
+     */
+    DARY_HEAP {
+        @Override
+        public IndexedMinQueue create(int capacity, int maxWeight) {
+            return new IndexedDaryMinHeap(capacity);
+        }
+    },
+
+    /**
+     * IndexedPairingHeap, for any edge weights.
+     */
+    PAIRING_HEAP {
+        @Override
+        public IndexedMinQueue create(int capacity, int maxWeight) {
+            return new IndexedPairingHeap(capacity);
+        }
+    },
+
+    /**
+     * DialBucketQueue, one bucket per distance in a window of
+     * the longest edge weight. No comparisons and O(1) per
+     * operation, best when edge weights are small ints. When
+     * the longest edge needs more buckets than DialBucketQueue
+     * allows, an IndexedDaryMinHeap is used instead.
+     */
+    DIAL_BUCKETS {
+        @Override
+        public IndexedMinQueue create(int capacity, int maxWeight) {
+            if (!DialBucketQueue.fits(capacity, maxWeight)) {
+                return new IndexedDaryMinHeap(capacity);
+            }
+            return new DialBucketQueue(capacity, maxWeight);
+        }
+    }
+}
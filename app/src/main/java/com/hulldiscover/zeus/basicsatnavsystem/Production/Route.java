@@ -0,0 +1,138 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * One route through a CompressedDirectedGraph: the vertex ids
+ * from start to destination and the total distance.
+ *
+ * Routes are ordered by distance, then by their vertex ids, and
+ * are equal when they visit the same vertices in the same order.
+ *
+ * Instances are immutable.
+ */
+public final class Route implements Comparable<Route> {
+
+    private final CompressedDirectedGraph graph;
+
+    private final int[] vertices;
+
+    private final int distance;
+
+    Route(CompressedDirectedGraph graph, int[] vertices, int distance) {
+        this.graph = graph;
+        this.vertices = vertices;
+        this.distance = distance;
+    }
+
+    /**
+     * Total distance of the route.
+     *
+     * @return the sum of the edge distances
+     */
+    public int distance() {
+        return distance;
+    }
+
+    /**
+     * Number of vertices on the route,
+     * the start and destination included.
+     *
+     * @return the vertex count
+     */
+    public int size() {
+        return vertices.length;
+    }
+
+    /**
+     * Vertex at a position on the route.
+     *
+     * @param index the position, 0 for the start
+     * @return the vertex id
+     */
+    public int vertex(int index) {
+        return vertices[index];
+    }
+
+    /**
+     * Copy of the vertex ids of the route.
+     *
+     * @return the vertex ids, start first
+     */
+    public int[] vertices() {
+        return Arrays.copyOf(vertices, vertices.length);
+    }
+
+    /**
+     * Vertex names of the route.
+     *
+     * @return the vertex names, start first
+     */
+    public List<String> names() {
+        List<String> names = new ArrayList<>(vertices.length);
+        for (int v : vertices) {
+            names.add(graph.name(v));
+        }
+        return names;
+    }
+
+    /**
+     * Whether the first vertices of this route are the
+     * first vertices of another route.
+     *
+     * @param other the other route
+     * @param length number of vertices to compare
+     * @return true if both start with the same length vertices
+     */
+    boolean startsLike(Route other, int length) {
+        if (vertices.length < length || other.vertices.length < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (vertices[i] != other.vertices[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int compareTo(Route other) {
+        int byDistance = Integer.compare(distance, other.distance);
+        if (byDistance != 0) {
+            return byDistance;
+        }
+        int common = Math.min(vertices.length, other.vertices.length);
+        for (int i = 0; i < common; i++) {
+            if (vertices[i] != other.vertices[i]) {
+                return Integer.compare(vertices[i], other.vertices[i]);
+            }
+        }
+        return Integer.compare(vertices.length, other.vertices.length);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Route)) {
+            return false;
+        }
+        return Arrays.equals(vertices, ((Route) obj).vertices);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(vertices);
+    }
+
+    @Override
+    public String toString() {
+        return names() + " (" + distance + ")";
+    }
+}
@@ -0,0 +1,186 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Limits on the routes counted or listed between two vertices:
+ * a range of stops (edges) and a distance the routes must stay
+ * below, for questions like "routes from C to C with at most 3
+ * stops" or "routes from C to C shorter than 30".
+ *
+ * Routes may pass through a vertex, including the destination,
+ * more than once unless simplePaths() is asked for; the limits
+ * then keep the number of routes finite.
+ *
+ * Instances are immutable, every with method returns a new one.
+ */
+public final class RouteBounds {
+
+    /**
+     * No limit on stops or distance.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final RouteBounds NONE = new RouteBounds(1, UNLIMITED, UNLIMITED, false);
+
+    private final int minStops;
+    private final int maxStops;
+    private final int distanceBelow;
+    private final boolean simple;
+
+    private RouteBounds(int minStops, int maxStops, int distanceBelow, boolean simple) {
+        this.minStops = minStops;
+        this.maxStops = maxStops;
+        this.distanceBelow = distanceBelow;
+        this.simple = simple;
+    }
+
+    /**
+     * Routes with any number of stops and any distance.
+     *
+     * @return the bounds
+     */
+    public static RouteBounds unbounded() {
+        return NONE;
+    }
+
+    /**
+     * Routes with at most a number of stops.
+     *
+     * @param stops the most stops
+     * @return the bounds
+     */
+    public static RouteBounds maxStops(int stops) {
+        return NONE.withMaxStops(stops);
+    }
+
+    /**
+     * Routes with exactly a number of stops.
+     *
+     * @param stops the number of stops
+     * @return the bounds
+     */
+    public static RouteBounds exactStops(int stops) {
+        return NONE.withExactStops(stops);
+    }
+
+    /**
+     * Routes shorter than a distance.
+     *
+     * @param distance the distance every route must stay below
+     * @return the bounds
+     */
+    public static RouteBounds distanceBelow(int distance) {
+        return NONE.withDistanceBelow(distance);
+    }
+
+    /**
+     * These bounds, with at most a number of stops.
+     *
+     * @param stops the most stops
+     * @return the new bounds
+     */
+    public RouteBounds withMaxStops(int stops) {
+        requireNotNegative(stops);
+        return new RouteBounds(minStops, stops, distanceBelow, simple);
+    }
+
+    /**
+     * These bounds, with exactly a number of stops.
+     *
+     * @param stops the number of stops
+     * @return the new bounds
+     */
+    public RouteBounds withExactStops(int stops) {
+        requireNotNegative(stops);
+        return new RouteBounds(Math.max(1, stops), stops, distanceBelow, simple);
+    }
+
+    /**
+     * These bounds, with routes shorter than a distance.
+     *
+     * @param distance the distance every route must stay below
+     * @return the new bounds
+     */
+    public RouteBounds withDistanceBelow(int distance) {
+        requireNotNegative(distance);
+        return new RouteBounds(minStops, maxStops, distance, simple);
+    }
+
+    /**
+     * These bounds, without routes that pass a vertex twice.
+     * The start may still be the destination.
+     *
+     * @return the new bounds
+     */
+    public RouteBounds simplePaths() {
+        return new RouteBounds(minStops, maxStops, distanceBelow, true);
+    }
+
+    /**
+     * Fewest stops of a route, at least 1.
+     *
+     * @return the stop minimum
+     */
+    public int minStops() {
+        return minStops;
+    }
+
+    /**
+     * Most stops of a route.
+     *
+     * @return the stop maximum, or UNLIMITED
+     */
+    public int maxStops() {
+        return maxStops;
+    }
+
+    /**
+     * Distance every route stays below.
+     *
+     * @return the distance limit, or UNLIMITED
+     */
+    public int distanceBelow() {
+        return distanceBelow;
+    }
+
+    /**
+     * Whether routes must not pass a vertex twice.
+     *
+     * @return true for simple paths only
+     */
+    public boolean isSimple() {
+        return simple;
+    }
+
+    /**
+     * Whether only finitely many routes can match in a graph, which
+     * is so when a route cannot revisit vertices, has a stop limit,
+     * or has a distance limit with no zero length edges to loop on.
+     *
+     * @param graph the graph to search
+     * @return true if the search ends
+     */
+    boolean isFinite(CompressedDirectedGraph graph) {
+        if (simple || maxStops != UNLIMITED) {
+            return true;
+        }
+        if (distanceBelow == UNLIMITED) {
+            return false;
+        }
+        return graph.minWeight() > 0;
+    }
+
+    private static void requireNotNegative(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("The limit: " + limit + " cannot be negative.");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "stops " + minStops + ".." + (maxStops == UNLIMITED ? "" : maxStops)
+                + (distanceBelow == UNLIMITED ? "" : ", distance < " + distanceBelow)
+                + (simple ? ", simple" : "");
+    }
+}
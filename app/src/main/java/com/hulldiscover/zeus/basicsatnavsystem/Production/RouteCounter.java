@@ -0,0 +1,292 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.Arrays;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Counts the routes between two vertices within RouteBounds
+ * without building any of them.
+ *
+ * Routes with a stop limit are counted one stop at a time: the
+ * number of walks from the source that end at every vertex after
+ * k stops gives those after k + 1 stops in one pass over the edges,
+ * so a count costs stops x edges. For a few vertices and very many
+ * stops, the adjacency matrix is raised to the power of the stops
+ * by repeated squaring instead; exactStopsMatrix gives the counts
+ * of all pairs that way.
+ *
+ * Routes below a distance are counted by distance: the number of
+ * walks from the source that end at every vertex with distance d
+ * is the sum over the edges into the vertex of the walks with
+ * distance d minus the edge. Only the last longest-edge rows are
+ * needed, so a count costs distance x edges time and longest edge
+ * x vertices memory. With a stop limit as well, every row is split
+ * by stops.
+ *
+ * BoundedRouteSearch finds the same routes one by one, which
+ * grows exponentially with the route length; these counts grow
+ * polynomially. Counts are exact or an ArithmeticException is
+ * thrown.
+ *
+ * Simple paths cannot be counted this way; BoundedRouteSearch
+ * counts those.
+ */
+public class RouteCounter {
+
+    private final CompressedDirectedGraph graph;
+
+    /**
+     * Creates a counter for a graph.
+     *
+     * @param graph the graph to count routes in
+     */
+    public RouteCounter(CompressedDirectedGraph graph) {
+        if (graph == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        this.graph = graph;
+    }
+
+    /**
+     * Accessor for the graph this counter works on.
+     *
+     * @return the graph
+     */
+    public CompressedDirectedGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Number of routes between two named vertices.
+     *
+     * @param from the start vertex
+     * @param to the destination vertex
+     * @param bounds the limits on the routes
+     * @return the number of routes
+     */
+    public long countRoutes(String from, String to, RouteBounds bounds) {
+        return countRoutes(graph.requireId(from), graph.requireId(to), bounds);
+    }
+
+    /**
+     * Number of routes between two vertices.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @param bounds the limits on the routes, not simple paths
+     * @return the number of routes
+     * @throws ArithmeticException if the count does not fit in a long
+     */
+    public long countRoutes(int source, int target, RouteBounds bounds) {
+        if (bounds == null) {
+            throw new NullPointerException("The route bounds cannot be null.");
+        }
+        int vertexCount = graph.numberOfVertices();
+        if (source < 0 || source >= vertexCount || target < 0 || target >= vertexCount) {
+            throw new IllegalArgumentException("The pair: " + source + ", " + target
+                    + " is not in the graph.");
+        }
+        if (bounds.isSimple()) {
+            throw new IllegalArgumentException("Simple paths cannot be counted without"
+                    + " enumeration; use BoundedRouteSearch.");
+        }
+        if (!bounds.isFinite(graph)) {
+            throw new IllegalArgumentException("The bounds: " + bounds
+                    + " allow endless routes; limit the stops.");
+        }
+        if (bounds.distanceBelow() != RouteBounds.UNLIMITED) {
+            int shortest = graph.minWeight();
+            if (shortest <= 0) {
+                throw new IllegalArgumentException("Counting by distance needs positive"
+                        + " edge distances, not: " + shortest);
+            }
+            return countByDistance(source, target, bounds);
+        }
+        if (bounds.minStops() == bounds.maxStops() && matrixIsCheaper(bounds.maxStops())) {
+            return exactStopsMatrix(bounds.maxStops())[source][target];
+        }
+        return countByStops(source, target, bounds.minStops(), bounds.maxStops());
+    }
+
+    /**
+     * Number of routes with exactly a number of stops between every
+     * pair of vertices: the adjacency matrix to the power of stops.
+     *
+     * @param stops the number of stops
+     * @return counts[source][target]
+     * @throws ArithmeticException if a count does not fit in a long
+     */
+    public long[][] exactStopsMatrix(int stops) {
+        if (stops < 0) {
+            throw new IllegalArgumentException("The stops: " + stops + " cannot be negative.");
+        }
+        int n = graph.numberOfVertices();
+        long[][] result = new long[n][n];
+        for (int v = 0; v < n; v++) {
+            result[v][v] = 1;
+        }
+        long[][] power = new long[n][n];
+        for (int v = 0; v < n; v++) {
+            for (int edge = graph.firstEdge(v), end = graph.endEdge(v); edge < end; edge++) {
+                if (graph.weight(edge) != CompressedDirectedGraph.CLOSED) {
+                    power[v][graph.target(edge)] = 1;
+                }
+            }
+        }
+        // square and multiply over the bits of stops
+        for (int bits = stops; bits > 0; bits >>>= 1) {
+            if ((bits & 1) != 0) {
+                result = multiply(result, power);
+            }
+            if (bits > 1) {
+                power = multiply(power, power);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether squaring the matrix costs less than stepping
+     * over the edges once per stop.
+     */
+    private boolean matrixIsCheaper(int stops) {
+        long n = graph.numberOfVertices();
+        long squarings = 64 - Long.numberOfLeadingZeros(stops);
+        return 2 * squarings * n * n * n < (long) stops * Math.max(1, graph.numberOfEdges());
+    }
+
+    private static long[][] multiply(long[][] a, long[][] b) {
+        int n = a.length;
+        long[][] product = new long[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < n; k++) {
+                long aik = a[i][k];
+                if (aik == 0) {
+                    continue;
+                }
+                for (int j = 0; j < n; j++) {
+                    if (b[k][j] != 0) {
+                        product[i][j] = add(product[i][j], multiply(aik, b[k][j]));
+                    }
+                }
+            }
+        }
+        return product;
+    }
+
+    /**
+     * Walks from the source stop by stop, adding the walks that
+     * end at the target after minStops .. maxStops stops.
+     */
+    private long countByStops(int source, int target, int minStops, int maxStops) {
+        int n = graph.numberOfVertices();
+        long[] current = new long[n];
+        long[] next = new long[n];
+        current[source] = 1;
+        long count = 0;
+        for (int stops = 1; stops <= maxStops; stops++) {
+            Arrays.fill(next, 0);
+            boolean any = false;
+            for (int v = 0; v < n; v++) {
+                long walks = current[v];
+                if (walks == 0) {
+                    continue;
+                }
+                for (int edge = graph.firstEdge(v), end = graph.endEdge(v); edge < end; edge++) {
+                    if (graph.weight(edge) != CompressedDirectedGraph.CLOSED) {
+                        int to = graph.target(edge);
+                        next[to] = add(next[to], walks);
+                        any = true;
+                    }
+                }
+            }
+            if (!any) {
+                break; // every walk is stuck
+            }
+            if (stops >= minStops) {
+                count = add(count, next[target]);
+            }
+            long[] swap = current;
+            current = next;
+            next = swap;
+        }
+        return count;
+    }
+
+    /**
+     * Walks from the source by distance, split by stops when
+     * there is a stop limit, adding the walks that end at the
+     * target with a distance below the limit.
+     */
+    private long countByDistance(int source, int target, RouteBounds bounds) {
+        int n = graph.numberOfVertices();
+        int limit = bounds.distanceBelow();
+        int minStops = bounds.minStops();
+        int maxStops = bounds.maxStops();
+        // stop layers kept per distance, 1 when stops do not matter;
+        // edges are at least 1 long, so a route shorter than the
+        // limit has at most limit - 1 stops
+        int layers = maxStops == RouteBounds.UNLIMITED ? 1 : Math.max(0, Math.min(maxStops, limit - 1)) + 1;
+        // only edges shorter than the limit are ever taken
+        int rows = Math.min(graph.maxWeight(), limit) + 1;
+        if ((long) layers * n > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The bounds: " + bounds
+                    + " need too many stop layers to count by distance.");
+        }
+
+        // walks[d % rows][stops * n + v] end at v with distance d,
+        // edges are at least 1 long so the source row is only d = 0
+        long[][] walks = new long[rows][layers * n];
+        walks[0][source] = 1;
+        long count = 0;
+        for (int d = 1; d < limit; d++) {
+            long[] row = walks[d % rows];
+            Arrays.fill(row, 0);
+            for (int v = 0; v < n; v++) {
+                for (int inEdge = graph.firstInEdge(v), end = graph.endInEdge(v); inEdge < end; inEdge++) {
+                    int weight = graph.weight(graph.forwardEdge(inEdge));
+                    if (weight == CompressedDirectedGraph.CLOSED || weight > d) {
+                        continue;
+                    }
+                    long[] from = walks[(d - weight) % rows];
+                    int u = graph.source(inEdge);
+                    if (layers == 1) {
+                        row[v] = add(row[v], from[u]);
+                        continue;
+                    }
+                    for (int stops = 1; stops < layers; stops++) {
+                        long before = from[(stops - 1) * n + u];
+                        if (before != 0) {
+                            row[stops * n + v] = add(row[stops * n + v], before);
+                        }
+                    }
+                }
+            }
+            if (layers == 1) {
+                count = add(count, row[target]);
+            } else {
+                for (int stops = minStops; stops < layers; stops++) {
+                    count = add(count, row[stops * n + target]);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static long add(long a, long b) {
+        long sum = a + b;
+        if (((a ^ sum) & (b ^ sum)) < 0) {
+            throw new ArithmeticException("The route count overflows a long.");
+        }
+        return sum;
+    }
+
+    private static long multiply(long a, long b) {
+        long product = a * b;
+        if (a != 0 && (product / a != b || (a == -1 && b == Long.MIN_VALUE))) {
+            throw new ArithmeticException("The route count overflows a long.");
+        }
+        return product;
+    }
+}
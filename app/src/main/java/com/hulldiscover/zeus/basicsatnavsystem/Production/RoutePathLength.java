@@ -1,7 +1,7 @@
 package com.hulldiscover.zeus.basicsatnavsystem.Production;
 
 import java.util.List;
-import java.util.ListIterator;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Created by Zeus on 14/06/16.
@@ -17,79 +17,143 @@ import java.util.ListIterator;
  */
 public class RoutePathLength {
 
-    // Path Search
-    BreadthFirstFindAllPaths findAllPaths;
+    /**
+     * Result of getRouteLength when the route is not in the graph.
+     */
+    public static final String NO_SUCH_ROUTE = "NO SUCH ROUTE";
+
+    /**
+     * Result of routeLength when the route is not in the graph.
+     */
+    public static final long NOT_A_ROUTE = -1;
 
     /**
      * Function gets the distance (length) of
      * a path.
      *
+     * Every hop of the path is looked up in the edge index of
+     * the compressed graph and its distance added in the same
+     * pass, so the cost is linear in the length of the path
+     * however big the graph is.
+     *
      * @param
      *          directedDirectedGraph the graph
      * @param
      *          path of route
      * @return
-     *          length of route
+     *          length of route, or "NO SUCH ROUTE" if a hop
+     *          of the path is not an edge of the graph
      */
     public String getRouteLength(DirectedGraph directedDirectedGraph, List<String> path) {
-
-        // Sum of distance in path
-        int distanceBetweenTwoVertexPoints = 0;
-
-        /* Run check first before continuing
-         *
-         * 1) Check that path exist in graph
-         * 2) If path exist, continue with route calculation.
-         *    Else, return "NO SUCH ROUTE".
-         */
-
-        // Use FindPath class to check
-        // Init search class
-        findAllPaths = new BreadthFirstFindAllPaths(directedDirectedGraph);
-
-        // 1) & 2)
-        if(findAllPaths.pathExist(path)) { // find distance of path
-            // Iterate through path
-            ListIterator<String> iterator = path.listIterator();
-
-            // Until there are no more vertex's
-            // in path
-            while (iterator.hasNext()) {
-                // Get first and second vertex
-                String source = iterator.next();
-                String destination = iterator.next();
-
-                /* Calculate the distance of path
-                 *
-                 *  1) Get the distance between two vertex points (source & destination)
-                 *  2) Add distance to path-distance variable
-                 *  3) Check if there exist more vertex points,
-                 *     and continue if there exist.
-                 *     Else, return path-distance.
-                 */
-
-                // 1) and 2)
-                distanceBetweenTwoVertexPoints = directedDirectedGraph.getDistance(source, destination);
-
-                // 3)
-                while (iterator.hasPrevious() && iterator.hasNext()) {
-                    String previousVertex = iterator.previous();
-                    String commaFoundInPath = iterator.next(); // This is needed due to the "," comma punctuation found in path list
-                    String nextVertex = iterator.next();
-
-                    // Add to existing distance sum
-                    distanceBetweenTwoVertexPoints += directedDirectedGraph.getDistance(previousVertex, nextVertex);
-                }
+        CompressedDirectedGraph graph = directedDirectedGraph.compressed();
+
+        // Map names to vertex ids,
+        // unknown vertices are no route
+        int[] route = new int[path.size()];
+        for (int i = 0; i < route.length; i++) {
+            route[i] = graph.id(path.get(i));
+            if (route[i] == -1) {
+                return NO_SUCH_ROUTE;
             }
+        }
 
-            return tryParse(distanceBetweenTwoVertexPoints);
+        long length = routeLength(graph, route, 0, route.length);
+        if (length == NOT_A_ROUTE) {
+            return NO_SUCH_ROUTE;
         }
+        // a long route may add up past an int
+        return Long.toString(length);
+    }
 
-        else { // no paths exist
-            return "NO SUCH ROUTE"; // Print "NO SUCH ROUTE"
+    /**
+     * Function gets the distance (length) of the route
+     * route[from .. to - 1] in a single pass.
+     *
+     * @param graph the graph
+     * @param route vertex ids of the route
+     * @param from index of the first vertex
+     * @param to index after the last vertex
+     * @return the sum of the edge distances, or NOT_A_ROUTE if
+     *         the route is empty or has a hop that is not an edge
+     */
+    public static long routeLength(CompressedDirectedGraph graph, int[] route, int from, int to) {
+        if (to <= from) {
+            return NOT_A_ROUTE;
         }
+        int vertexCount = graph.numberOfVertices();
+        long length = 0;
+        for (int i = from; i < to; i++) {
+            if (route[i] < 0 || route[i] >= vertexCount) {
+                return NOT_A_ROUTE;
+            }
+            if (i == from) {
+                continue;
+            }
+            int edge = graph.findEdge(route[i - 1], route[i]);
+            if (edge == CompressedDirectedGraph.NO_EDGE) {
+                return NOT_A_ROUTE;
+            }
+            length += graph.weight(edge);
+        }
+        return length;
+    }
 
+    /**
+     * Function gets the lengths of a batch of trips stored back
+     * to back: trip i is vertices[offsets[i] .. offsets[i + 1] - 1].
+     *
+     * The trips are split into chunks of whole 64 trip words of the
+     * invalid bitset, so every chunk writes its own slots and words
+     * and the chunks can run in parallel without locking. No object
+     * is created per trip.
+     *
+     * @param graph the graph
+     * @param vertices vertex ids of all trips
+     * @param offsets start of every trip in vertices, plus the end
+     *                of the last one; trip count + 1 entries
+     * @param executor the threads to run on, or null for the calling thread
+     * @return the lengths and the invalid trips
+     */
+    public static TripLengths routeLengths(final CompressedDirectedGraph graph, final int[] vertices,
+                                           final int[] offsets, ExecutorService executor) {
+        if (graph == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        if (offsets.length == 0 || offsets[0] < 0 || offsets[offsets.length - 1] > vertices.length) {
+            throw new IllegalArgumentException("The offsets do not fit the "
+                    + vertices.length + " vertices.");
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            if (offsets[i] < offsets[i - 1]) {
+                throw new IllegalArgumentException("The offsets must not decrease, at trip: " + (i - 1));
+            }
+        }
 
+        final int tripCount = offsets.length - 1;
+        final long[] lengths = new long[tripCount];
+        final long[] invalid = new long[(tripCount + 63) >>> 6];
+        // chunks of whole bitset words
+        final int chunk = executor == null ? Math.max(tripCount, 1)
+                : (ParallelTasks.chunkSize(tripCount) + 63) & ~63;
+        ParallelTasks.Task task = new ParallelTasks.Task() {
+            @Override
+            public void run(int index) {
+                int end = Math.min(tripCount, (index + 1) * chunk);
+                for (int trip = index * chunk; trip < end; trip++) {
+                    long length = routeLength(graph, vertices, offsets[trip], offsets[trip + 1]);
+                    lengths[trip] = length;
+                    if (length == NOT_A_ROUTE) {
+                        invalid[trip >>> 6] |= 1L << trip;
+                    }
+                }
+            }
+        };
+        if (executor == null) {
+            task.run(0);
+        } else {
+            ParallelTasks.run(executor, (tripCount + chunk - 1) / chunk, task);
+        }
+        return new TripLengths(lengths, invalid);
     }
 
     /**
@@ -0,0 +1,386 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Bounded cache of point-to-point routes over a VersionedGraph,
+ * so the popular (from, to) pairs are searched once per graph
+ * version instead of once per request.
+ *
+ * Entries are keyed on source, target, profile and graph version.
+ * A profile is the RouteFinder that computes a route, compared by
+ * identity, so different routing rules never share an entry. Once
+ * a newer version is published, lookups use its number and the
+ * entries of older versions can no longer be hit; every shard
+ * drops them the first time it sees the new version.
+ *
+ * The cache is split into shards by key hash, each with its own
+ * lock, so threads querying different pairs rarely wait on each
+ * other. Searches run outside the locks; two threads missing the
+ * same key at once may both search it.
+ *
+ * Every shard evicts by segmented LRU: a new entry goes into a
+ * probation segment and moves to a protected segment, four fifths
+ * of the shard, when it is hit again. Protected entries pushed out
+ * fall back to probation, and the least recently used probation
+ * entry is evicted. A burst of one-off queries therefore only
+ * cycles through probation and does not flush the popular pairs.
+ */
+public class ShortestPathCache {
+
+    /**
+     * Computes a route on a miss.
+     */
+    public interface RouteFinder {
+
+        /**
+         * Finds the route between two vertices.
+         *
+         * @param engine engine over the version the route is cached for
+         * @param source the start vertex id
+         * @param target the destination vertex id
+         * @return the route, or null if there is none
+         */
+        Route find(DijkstraQueryEngine engine, int source, int target);
+    }
+
+    /**
+     * The shortest route by distance.
+     */
+    public static final RouteFinder SHORTEST = new RouteFinder() {
+        @Override
+        public Route find(DijkstraQueryEngine engine, int source, int target) {
+            CompressedDirectedGraph graph = engine.graph();
+            DijkstraWorkspace workspace = engine.search(source, target);
+            if (!workspace.isSettled(target)) {
+                return null;
+            }
+            int[] path = new int[graph.numberOfVertices()];
+            int length = workspace.pathTo(target, path);
+            return new Route(graph, Arrays.copyOf(path, length), workspace.distance[target]);
+        }
+    };
+
+    // most shards, enough to spread the threads of a server
+    private static final int MAX_SHARDS = 64;
+
+    // cached result of pairs with no route
+    private static final Route NO_ROUTE = new Route(null, new int[0], Integer.MAX_VALUE);
+
+    private final VersionedGraph graph;
+
+    private final Shard[] shards;
+
+    private final int capacity;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param graph the graph routes are searched in
+     * @param capacity the most routes kept
+     */
+    public ShortestPathCache(VersionedGraph graph, int capacity) {
+        if (graph == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity: " + capacity + " must be at least 1.");
+        }
+        this.graph = graph;
+        this.capacity = capacity;
+
+        // a power of two of shards with at least 16 entries each
+        int threads = Runtime.getRuntime().availableProcessors();
+        int shardCount = 1;
+        while (shardCount < MAX_SHARDS && shardCount < threads * 4 && capacity / (shardCount * 2) >= 16) {
+            shardCount *= 2;
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(capacity / shardCount + (i < capacity % shardCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * Accessor for the most routes kept.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Shortest route between two named vertices
+     * in the current version.
+     *
+     * @param from the start vertex
+     * @param to the destination vertex
+     * @return the route, or null if there is none
+     */
+    public Route shortestRoute(String from, String to) {
+        CompressedDirectedGraph current = graph.current();
+        return route(current.requireId(from), current.requireId(to), SHORTEST);
+    }
+
+    /**
+     * Shortest route between two vertices in the current version.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @return the route, or null if there is none
+     */
+    public Route shortestRoute(int source, int target) {
+        return route(source, target, SHORTEST);
+    }
+
+    /**
+     * Route between two vertices in the current version, taken
+     * from the cache or found by a profile and cached.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @param profile the finder of the route
+     * @return the route, or null if there is none
+     */
+    public Route route(int source, int target, RouteFinder profile) {
+        if (profile == null) {
+            throw new NullPointerException("The route profile cannot be null.");
+        }
+        // pin one version for the lookup and the search
+        DijkstraQueryEngine engine = graph.queryEngine();
+        int vertexCount = engine.graph().numberOfVertices();
+        if (source < 0 || source >= vertexCount || target < 0 || target >= vertexCount) {
+            throw new IllegalArgumentException("The pair: " + source + ", " + target
+                    + " is not in the graph.");
+        }
+        Key key = new Key(source, target, profile, engine.graph().version());
+        Shard shard = shards[key.hash & (shards.length - 1)];
+        Route route = shard.get(key);
+        if (route == null) {
+            route = profile.find(engine, source, target);
+            shard.put(key, route == null ? NO_ROUTE : route);
+            return route;
+        }
+        return route == NO_ROUTE ? null : route;
+    }
+
+    /**
+     * Number of lookups answered from the cache.
+     *
+     * @return the hit count
+     */
+    public long hits() {
+        long hits = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                hits += shard.hits;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Number of lookups that had to search.
+     *
+     * @return the miss count
+     */
+    public long misses() {
+        long misses = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                misses += shard.misses;
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * Number of routes evicted to stay within the capacity.
+     *
+     * @return the eviction count
+     */
+    public long evictions() {
+        long evictions = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                evictions += shard.evictions;
+            }
+        }
+        return evictions;
+    }
+
+    /**
+     * Number of routes dropped because a newer graph
+     * version was published.
+     *
+     * @return the invalidation count
+     */
+    public long invalidations() {
+        long invalidations = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                invalidations += shard.invalidations;
+            }
+        }
+        return invalidations;
+    }
+
+    /**
+     * Number of routes in the cache, stale ones
+     * not yet dropped included.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.probation.size() + shard.protectedSegment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes every route, keeping the counters.
+     */
+    public void clear() {
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.probation.clear();
+                shard.protectedSegment.clear();
+            }
+        }
+    }
+
+    /**
+     * Cache key, the profile compared by identity.
+     */
+    private static final class Key {
+        final int source;
+        final int target;
+        final RouteFinder profile;
+        final long version;
+        final int hash;
+
+        Key(int source, int target, RouteFinder profile, long version) {
+            this.source = source;
+            this.target = target;
+            this.profile = profile;
+            this.version = version;
+            int h = 31 * (31 * (31 * source + target) + System.identityHashCode(profile))
+                    + (int) (version ^ (version >>> 32));
+            // spread the high bits into the shard index
+            this.hash = h ^ (h >>> 16);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return source == other.source && target == other.target
+                    && profile == other.profile && version == other.version;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * One segmented LRU, guarded by its own monitor.
+     */
+    private static final class Shard {
+
+        // both segments in access order, eldest first
+        final LinkedHashMap<Key, Route> probation = new LinkedHashMap<>(16, 0.75f, true);
+        final LinkedHashMap<Key, Route> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+        final int capacity;
+        final int protectedCapacity;
+
+        // newest version seen, older entries are stale
+        long version;
+
+        long hits;
+        long misses;
+        long evictions;
+        long invalidations;
+
+        Shard(int capacity) {
+            this.capacity = capacity;
+            this.protectedCapacity = capacity * 4 / 5;
+        }
+
+        synchronized Route get(Key key) {
+            see(key.version);
+            Route route = protectedSegment.get(key);
+            if (route != null) {
+                hits++;
+                return route;
+            }
+            route = probation.remove(key);
+            if (route == null) {
+                misses++;
+                return null;
+            }
+            // hit again, promote
+            hits++;
+            protectedSegment.put(key, route);
+            if (protectedSegment.size() > protectedCapacity) {
+                Iterator<Map.Entry<Key, Route>> eldest = protectedSegment.entrySet().iterator();
+                Map.Entry<Key, Route> demoted = eldest.next();
+                eldest.remove();
+                probation.put(demoted.getKey(), demoted.getValue());
+                trim();
+            }
+            return route;
+        }
+
+        synchronized void put(Key key, Route route) {
+            if (key.version < version) {
+                return; // searched on a version replaced meanwhile
+            }
+            see(key.version);
+            if (protectedSegment.containsKey(key) || probation.containsKey(key)) {
+                return; // another thread searched it too
+            }
+            probation.put(key, route);
+            trim();
+        }
+
+        /**
+         * Drops every entry when a newer version shows up.
+         */
+        private void see(long keyVersion) {
+            if (keyVersion > version) {
+                invalidations += probation.size() + protectedSegment.size();
+                probation.clear();
+                protectedSegment.clear();
+                version = keyVersion;
+            }
+        }
+
+        /**
+         * Evicts the least recently used probation
+         * entries until the shard fits.
+         */
+        private void trim() {
+            Iterator<Key> eldest = probation.keySet().iterator();
+            while (probation.size() + protectedSegment.size() > capacity && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions++;
+            }
+        }
+    }
+}
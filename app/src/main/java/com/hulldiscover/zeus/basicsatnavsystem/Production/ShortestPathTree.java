@@ -0,0 +1,197 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Result of a one-to-all shortest path search: the distance
+ * from the source and the parent in the shortest path tree of
+ * every vertex of a CompressedDirectedGraph, as two int arrays
+ * indexed by vertex id.
+ *
+ * Any number of routes can be read from one tree, each in
+ * O(path length), without searching again.
+ *
+ * Instances are immutable and can be shared between threads.
+ */
+public final class ShortestPathTree {
+
+    /**
+     * Parent of the source and of unreachable vertices.
+     */
+    public static final int NO_PARENT = DijkstraWorkspace.NO_PARENT;
+
+    /**
+     * Distance of unreachable vertices.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final CompressedDirectedGraph graph;
+
+    private final int source;
+
+    // distance from source, UNREACHABLE if there is no route
+    private final int[] distance;
+
+    // previous vertex on the shortest route, NO_PARENT if none
+    private final int[] parent;
+
+    private ShortestPathTree(CompressedDirectedGraph graph, int source, int[] distance, int[] parent) {
+        this.graph = graph;
+        this.source = source;
+        this.distance = distance;
+        this.parent = parent;
+    }
+
+    /**
+     * Wraps finished distance and parent arrays, which
+     * must not be changed afterwards.
+     *
+     * @param graph the searched graph
+     * @param source the start vertex id
+     * @param distance distance of every vertex, UNREACHABLE if none
+     * @param parent parent of every vertex, NO_PARENT if none
+     * @return the tree
+     */
+    static ShortestPathTree of(CompressedDirectedGraph graph, int source, int[] distance, int[] parent) {
+        return new ShortestPathTree(graph, source, distance, parent);
+    }
+
+    /**
+     * Copies the result of a full search out of a workspace.
+     *
+     * @param graph the searched graph
+     * @param source the start vertex id
+     * @param workspace the finished search
+     * @return the tree
+     */
+    static ShortestPathTree fromWorkspace(CompressedDirectedGraph graph, int source, DijkstraWorkspace workspace) {
+        int vertexCount = graph.numberOfVertices();
+        int[] distance = new int[vertexCount];
+        int[] parent = new int[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            if (workspace.isReached(v)) {
+                distance[v] = workspace.distance[v];
+                parent[v] = workspace.parent[v];
+            } else {
+                distance[v] = UNREACHABLE;
+                parent[v] = NO_PARENT;
+            }
+        }
+        return new ShortestPathTree(graph, source, distance, parent);
+    }
+
+    /**
+     * Accessor for the graph of this tree.
+     *
+     * @return the graph
+     */
+    public CompressedDirectedGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Accessor for the root of this tree.
+     *
+     * @return the source vertex id
+     */
+    public int source() {
+        return source;
+    }
+
+    /**
+     * Length of the shortest route from the source to a vertex.
+     *
+     * @param vertex the vertex id
+     * @return the distance, UNREACHABLE if there is no route
+     */
+    public int distance(int vertex) {
+        return distance[vertex];
+    }
+
+    /**
+     * Previous vertex on the shortest route to a vertex.
+     *
+     * @param vertex the vertex id
+     * @return the parent id, NO_PARENT for the source and
+     *         unreachable vertices
+     */
+    public int parent(int vertex) {
+        return parent[vertex];
+    }
+
+    /**
+     * Whether there is a route from the source to a vertex.
+     *
+     * @param vertex the vertex id
+     * @return true if reachable
+     */
+    public boolean isReachable(int vertex) {
+        return distance[vertex] != UNREACHABLE;
+    }
+
+    /**
+     * Copy of the distances of every vertex.
+     *
+     * @return the distances, indexed by vertex id
+     */
+    public int[] distances() {
+        return Arrays.copyOf(distance, distance.length);
+    }
+
+    /**
+     * Shortest route from the source to a vertex.
+     *
+     * @param target the destination vertex id
+     * @param path buffer the route is written to, source first;
+     *             numberOfVertices() slots always suffice
+     * @return the number of vertices in the route, 0 if there is no route
+     */
+    public int pathTo(int target, int[] path) {
+        if (!isReachable(target)) {
+            return 0;
+        }
+        int length = 0;
+        for (int v = target; v != NO_PARENT; v = parent[v]) {
+            length++;
+        }
+        if (length > path.length) {
+            throw new IllegalArgumentException("The path buffer of length " + path.length
+                    + " cannot hold a path of " + length + " vertices.");
+        }
+        int index = length;
+        for (int v = target; v != NO_PARENT; v = parent[v]) {
+            path[--index] = v;
+        }
+        return length;
+    }
+
+    /**
+     * Shortest route from the source to a vertex.
+     *
+     * @param target the destination vertex id
+     * @return the vertex ids of the route, empty if there is no route
+     */
+    public int[] pathTo(int target) {
+        int[] path = new int[graph.numberOfVertices()];
+        return Arrays.copyOf(path, pathTo(target, path));
+    }
+
+    /**
+     * Shortest route from the source to a named vertex.
+     *
+     * @param to the destination vertex
+     * @return the vertex names of the route, empty if there is no route
+     */
+    public List<String> pathTo(String to) {
+        int[] path = pathTo(graph.requireId(to));
+        List<String> names = new ArrayList<>(path.length);
+        for (int v : path) {
+            names.add(graph.name(v));
+        }
+        return names;
+    }
+}
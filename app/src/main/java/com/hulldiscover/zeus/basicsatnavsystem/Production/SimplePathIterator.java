@@ -0,0 +1,258 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Lazy iterator over the simple paths (no repeated vertex)
+ * between two vertices of a CompressedDirectedGraph.
+ *
+ * The depth first search of BreadthFirstFindAllPaths.recursive
+ * is run on an explicit stack of vertex ids, with the next edge
+ * slot to try kept per level and the vertices on the current
+ * path in a bitset. Each call to next resumes the search where
+ * the last one stopped, so only the current path is held in
+ * memory however many paths there are, and the caller can stop
+ * at any time.
+ *
+ * Paths come in depth first order, neighbours by vertex id. As
+ * in the recursive search a path ends at the first visit of the
+ * destination, and the only path from a vertex to itself is that
+ * vertex alone.
+ *
+ * Searches can be limited to a number of stops (edges) per path
+ * and to a number of paths.
+ *
+ * Not thread safe; use one iterator per thread.
+ */
+public class SimplePathIterator implements Iterator<int[]> {
+
+    /**
+     * No limit on stops or paths.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final CompressedDirectedGraph graph;
+    private int target;
+    private final int maxStops;
+    private final long maxPaths;
+
+    // current path, stack[0] is the source
+    private final int[] stack;
+
+    // next edge slot to try from every level
+    private final int[] cursor;
+
+    // vertices on the current path
+    private final long[] onPath;
+
+    private int depth;
+
+    // vertices of the prefix the search started below
+    private int prefixLength;
+
+    // the path found but not yet returned, and its length
+    private final int[] found;
+    private int foundLength;
+
+    private long pathCount;
+
+    /**
+     * Creates an iterator over every simple path.
+     *
+     * @param graph the graph
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     */
+    public SimplePathIterator(CompressedDirectedGraph graph, int source, int target) {
+        this(graph, source, target, UNLIMITED, UNLIMITED);
+    }
+
+    /**
+     * Creates an iterator over limited simple paths.
+     *
+     * @param graph the graph
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @param maxStops longest path in edges, or UNLIMITED
+     * @param maxPaths most paths returned, or UNLIMITED
+     */
+    public SimplePathIterator(CompressedDirectedGraph graph, int source, int target, int maxStops, long maxPaths) {
+        this(graph, maxStops, maxPaths);
+        stack[0] = source;
+        start(stack, 1, target);
+    }
+
+    /**
+     * Creates an iterator with no start yet, see start.
+     *
+     * @param graph the graph
+     * @param maxStops longest path in edges, or UNLIMITED
+     * @param maxPaths most paths returned, or UNLIMITED
+     * @return an iterator without paths until it is started
+     */
+    static SimplePathIterator unstarted(CompressedDirectedGraph graph, int maxStops, long maxPaths) {
+        return new SimplePathIterator(graph, maxStops, maxPaths);
+    }
+
+    private SimplePathIterator(CompressedDirectedGraph graph, int maxStops, long maxPaths) {
+        if (graph == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        if (maxStops < 0 || maxPaths < 0) {
+            throw new IllegalArgumentException("The limits: " + maxStops + ", " + maxPaths
+                    + " cannot be negative.");
+        }
+        this.graph = graph;
+        this.maxStops = maxStops;
+        this.maxPaths = maxPaths;
+        int vertexCount = graph.numberOfVertices();
+        stack = new int[vertexCount];
+        cursor = new int[vertexCount];
+        onPath = new long[(vertexCount + 63) >>> 6];
+        found = new int[vertexCount];
+    }
+
+    /**
+     * Drops the current search and starts again below a simple
+     * path that does not reach the target before its last vertex.
+     * Only the paths that extend the prefix are returned; the path
+     * count and limit carry on from the earlier searches.
+     *
+     * @param prefix the path to extend, source first
+     * @param length the number of vertices in the prefix
+     * @param target the destination vertex id
+     */
+    void start(int[] prefix, int length, int target) {
+        this.target = target;
+        while (depth > 0) {
+            pop();
+        }
+        foundLength = 0;
+        if (pathCount >= maxPaths) {
+            return;
+        }
+        if (prefix[length - 1] == target) {
+            // the prefix is a path, and cannot be extended
+            System.arraycopy(prefix, 0, found, 0, length);
+            foundLength = length;
+            pathCount++;
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            push(prefix[i]);
+        }
+        prefixLength = length;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (foundLength == 0) {
+            search();
+        }
+        return foundLength > 0;
+    }
+
+    /**
+     * Next path as a new array.
+     *
+     * @return the vertex ids of the path, source first
+     */
+    @Override
+    public int[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int[] path = Arrays.copyOf(found, foundLength);
+        foundLength = 0;
+        return path;
+    }
+
+    /**
+     * Next path, copied into a buffer without allocating.
+     *
+     * @param path buffer for the path, numberOfVertices() slots
+     *             always suffice
+     * @return the number of vertices in the path, 0 if there
+     *         are no more paths
+     */
+    public int next(int[] path) {
+        if (!hasNext()) {
+            return 0;
+        }
+        int length = foundLength;
+        System.arraycopy(found, 0, path, 0, length);
+        foundLength = 0;
+        return length;
+    }
+
+    /**
+     * Number of paths returned or ready to be returned.
+     *
+     * @return the path count
+     */
+    public long pathCount() {
+        return pathCount;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Paths cannot be removed.");
+    }
+
+    /**
+     * Runs the depth first search until the next path
+     * is found or the search space is exhausted.
+     */
+    private void search() {
+        if (pathCount >= maxPaths) {
+            return;
+        }
+        // done once the last prefix vertex runs out of edges
+        while (depth > 0 && depth >= prefixLength) {
+            int level = depth - 1;
+            int vertex = stack[level];
+            if (cursor[level] == graph.endEdge(vertex)) {
+                pop();
+                continue;
+            }
+            int edge = cursor[level]++;
+            int next = graph.target(edge);
+            if (graph.weight(edge) == CompressedDirectedGraph.CLOSED || isOnPath(next)) {
+                continue;
+            }
+            if (next == target) {
+                // depth edges so far plus this one
+                if (depth <= maxStops) {
+                    System.arraycopy(stack, 0, found, 0, depth);
+                    found[depth] = next;
+                    foundLength = depth + 1;
+                    pathCount++;
+                    return;
+                }
+            } else if (depth < maxStops) {
+                push(next);
+            }
+        }
+    }
+
+    private void push(int vertex) {
+        stack[depth] = vertex;
+        cursor[depth] = graph.firstEdge(vertex);
+        onPath[vertex >>> 6] |= 1L << vertex;
+        depth++;
+    }
+
+    private void pop() {
+        depth--;
+        int vertex = stack[depth];
+        onPath[vertex >>> 6] &= ~(1L << vertex);
+    }
+
+    private boolean isOnPath(int vertex) {
+        return (onPath[vertex >>> 6] & (1L << vertex)) != 0;
+    }
+}
@@ -0,0 +1,91 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.BitSet;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Lengths of a batch of trips, as computed by
+ * RoutePathLength.routeLengths.
+ *
+ * Trip i has length lengths()[i], or RoutePathLength.NOT_A_ROUTE
+ * when it is invalid: empty, or with a hop that is not an edge of
+ * the graph. The invalid trips are also set in a bitset, one bit
+ * per trip.
+ */
+public final class TripLengths {
+
+    private final long[] lengths;
+
+    // bit i of word i / 64 is set when trip i is invalid
+    private final long[] invalid;
+
+    TripLengths(long[] lengths, long[] invalid) {
+        this.lengths = lengths;
+        this.invalid = invalid;
+    }
+
+    /**
+     * Number of trips in the batch.
+     *
+     * @return the trip count
+     */
+    public int size() {
+        return lengths.length;
+    }
+
+    /**
+     * Length of one trip.
+     *
+     * @param trip the trip index
+     * @return the length, or NOT_A_ROUTE if the trip is invalid
+     */
+    public long length(int trip) {
+        return lengths[trip];
+    }
+
+    /**
+     * Whether one trip follows edges of the graph.
+     *
+     * @param trip the trip index
+     * @return true if the trip is valid
+     */
+    public boolean isValid(int trip) {
+        if (trip < 0 || trip >= lengths.length) {
+            throw new IndexOutOfBoundsException("Trip: " + trip + ", size: " + lengths.length);
+        }
+        return (invalid[trip >>> 6] & (1L << trip)) == 0;
+    }
+
+    /**
+     * Lengths of all trips. The array is shared, not copied,
+     * so a batch of millions of trips is not held twice.
+     *
+     * @return the lengths, NOT_A_ROUTE for invalid trips
+     */
+    public long[] lengths() {
+        return lengths;
+    }
+
+    /**
+     * The invalid trips.
+     *
+     * @return a new bitset with a bit set for every invalid trip
+     */
+    public BitSet invalid() {
+        return BitSet.valueOf(invalid);
+    }
+
+    /**
+     * Number of invalid trips.
+     *
+     * @return the invalid trip count
+     */
+    public int invalidCount() {
+        int count = 0;
+        for (long word : invalid) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,137 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * A graph that changes over time as a series of immutable
+ * CompressedDirectedGraph versions, read-copy-update style.
+ *
+ * Readers take the current version and run their whole query on
+ * it; a version never changes, so they never lock and never see
+ * half an update. A writer builds the next version from a
+ * GraphDelta off to the side and publishes it with one atomic
+ * reference write. Queries already running finish on the version
+ * they started on, which is garbage collected once the last of
+ * them is done.
+ *
+ * A new version copies only the pages of the graph arrays that the
+ * delta writes to and shares all others with the previous version,
+ * so an update costs about a page per changed segment. A closed
+ * segment keeps its slot with the weight CLOSED and can be opened
+ * again by a later distance; a new segment is added to its row in
+ * place. Vertex ids never change.
+ *
+ * The engines of all versions take their workspaces from one
+ * pool, so a reader thread reuses its arrays across updates and
+ * only gets larger ones when an update adds vertices.
+ *
+ * Writers are serialized; readers are never held up by them.
+ */
+public class VersionedGraph {
+
+    /**
+     * One published version and its query engine.
+     */
+    private static final class Version {
+        final CompressedDirectedGraph graph;
+        final DijkstraQueryEngine engine;
+
+        Version(CompressedDirectedGraph graph, WorkspacePool workspaces) {
+            this.graph = graph;
+            this.engine = new DijkstraQueryEngine(graph, QueueType.DARY_HEAP, workspaces);
+        }
+    }
+
+    private final AtomicReference<Version> current;
+
+    // workspaces of the engines of all versions, so a reader
+    // thread does not allocate new ones after every update
+    private final WorkspacePool workspaces;
+
+    /**
+     * Starts from a first version of the graph.
+     *
+     * @param initial the first version
+     */
+    public VersionedGraph(CompressedDirectedGraph initial) {
+        if (initial == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        workspaces = new WorkspacePool(initial.numberOfVertices());
+        current = new AtomicReference<>(new Version(initial, workspaces));
+    }
+
+    /**
+     * The current version. A query should take it once and
+     * use it throughout.
+     *
+     * @return the latest published graph
+     */
+    public CompressedDirectedGraph current() {
+        return current.get().graph;
+    }
+
+    /**
+     * Version number of the current version.
+     *
+     * @return the version number
+     */
+    public long version() {
+        return current.get().graph.version();
+    }
+
+    /**
+     * Shortest path engine over the current version. The engine
+     * stays on its version; its graph() is the pinned version.
+     *
+     * @return the engine of the latest published graph
+     */
+    public DijkstraQueryEngine queryEngine() {
+        return current.get().engine;
+    }
+
+    /**
+     * Builds the next version from the current one and a set of
+     * changes and publishes it.
+     *
+     * @param delta the changes
+     * @return the new current version, the old one if the delta
+     *         changes nothing
+     */
+    public synchronized CompressedDirectedGraph apply(GraphDelta delta) {
+        if (delta == null) {
+            throw new NullPointerException("The delta cannot be null.");
+        }
+        CompressedDirectedGraph base = current.get().graph;
+        CompressedDirectedGraph.Editor editor = base.edit();
+        for (GraphDelta.Change change : delta.changes()) {
+            if (change.weight == GraphDelta.CLOSED) {
+                // the slot stays in the row, closed
+                int from = editor.id(change.from);
+                int to = editor.id(change.to);
+                int edge = from == -1 || to == -1 ? CompressedDirectedGraph.NO_EDGE : editor.findSlot(from, to);
+                if (edge != CompressedDirectedGraph.NO_EDGE) {
+                    editor.setWeight(edge, CompressedDirectedGraph.CLOSED);
+                }
+                continue;
+            }
+            // new vertices get the next ids in order of appearance
+            int from = editor.vertex(change.from);
+            int to = editor.vertex(change.to);
+            int edge = editor.findSlot(from, to);
+            if (edge == CompressedDirectedGraph.NO_EDGE) {
+                editor.addEdge(from, to, change.weight);
+            } else {
+                editor.setWeight(edge, change.weight);
+            }
+        }
+        if (!editor.changed()) {
+            return base;
+        }
+        CompressedDirectedGraph next = editor.build(base.version() + 1);
+        current.set(new Version(next, workspaces));
+        return next;
+    }
+}
@@ -0,0 +1,57 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * One DijkstraWorkspace per thread, shared by every engine given
+ * the pool. A DijkstraQueryEngine normally has a pool of its own;
+ * VersionedGraph gives the engines of all its versions the same
+ * pool, so a thread keeps its workspace from one version to the
+ * next instead of allocating new arrays after every update.
+ *
+ * A workspace is replaced by a larger one only when a graph has
+ * more vertices than it can hold, with an eighth spare so that a
+ * few added vertices do not replace it again.
+ */
+final class WorkspacePool {
+
+    private final ThreadLocal<DijkstraWorkspace> workspaces;
+
+    /**
+     * Creates a pool whose workspaces start at a vertex count.
+     *
+     * @param vertexCount vertices of the graphs searched
+     */
+    WorkspacePool(final int vertexCount) {
+        this.workspaces = new ThreadLocal<DijkstraWorkspace>() {
+            @Override
+            protected DijkstraWorkspace initialValue() {
+                return new DijkstraWorkspace(vertexCount);
+            }
+        };
+    }
+
+    /**
+     * The workspace of the calling thread.
+     *
+     * @param vertexCount vertices of the graph about to be searched
+     * @return a workspace with room for every vertex
+     */
+    DijkstraWorkspace get(int vertexCount) {
+        DijkstraWorkspace workspace = workspaces.get();
+        if (workspace.capacity() < vertexCount) {
+            workspace = new DijkstraWorkspace(vertexCount + (vertexCount >>> 3));
+            workspaces.set(workspace);
+        }
+        return workspace;
+    }
+
+    /**
+     * The workspace of the calling thread, as last used.
+     *
+     * @return the workspace
+     */
+    DijkstraWorkspace current() {
+        return workspaces.get();
+    }
+}
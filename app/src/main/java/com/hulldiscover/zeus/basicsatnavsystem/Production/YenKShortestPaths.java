@@ -0,0 +1,216 @@
+package com.hulldiscover.zeus.basicsatnavsystem.Production;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * The k shortest loopless routes between two vertices,
+ * by Yen's algorithm.
+ *
+ * The first route is the Dijkstra shortest path. Every further
+ * route leaves an earlier one at some spur vertex: for each vertex
+ * of the last route found, the edges that earlier routes with the
+ * same start take out of it, and the vertices before it, are
+ * blocked and a Dijkstra search from the spur vertex to the
+ * destination gives a candidate. The shortest candidate is the next
+ * route.
+ *
+ * Only k routes are ever built, so the cost is about k times the
+ * route length Dijkstra searches, however many routes the graph
+ * has. BreadthFirstFindAllPaths enumerates every one of them.
+ *
+ * Every thread reuses its own search state; one instance can be
+ * shared by any number of threads.
+ *
+ * References
+ * Yen, Finding the k shortest loopless paths in a network (1971)
+ */
+public class YenKShortestPaths {
+
+    private final CompressedDirectedGraph graph;
+
+    private final ThreadLocal<State> states;
+
+    /**
+     * Search state of one thread.
+     */
+    private static final class State {
+        final DijkstraWorkspace workspace;
+
+        // generation in which a vertex / edge slot is blocked
+        final int[] blockedVertex;
+        final int[] blockedEdge;
+        int generation;
+
+        // spur path buffer
+        final int[] path;
+
+        State(CompressedDirectedGraph graph) {
+            workspace = new DijkstraWorkspace(graph.numberOfVertices());
+            blockedVertex = new int[graph.numberOfVertices()];
+            blockedEdge = new int[graph.edgeSlotCount()];
+            path = new int[graph.numberOfVertices()];
+        }
+
+        /**
+         * Unblocks everything.
+         */
+        void unblock() {
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(blockedVertex, 0);
+                Arrays.fill(blockedEdge, 0);
+                generation = 1;
+            }
+        }
+    }
+
+    /**
+     * Creates a route finder for a graph.
+     *
+     * @param graph the graph to search
+     */
+    public YenKShortestPaths(final CompressedDirectedGraph graph) {
+        if (graph == null) {
+            throw new NullPointerException("The input graph cannot be null.");
+        }
+        this.graph = graph;
+        this.states = new ThreadLocal<State>() {
+            @Override
+            protected State initialValue() {
+                return new State(graph);
+            }
+        };
+    }
+
+    /**
+     * Accessor for the graph this finder searches.
+     *
+     * @return the graph
+     */
+    public CompressedDirectedGraph graph() {
+        return graph;
+    }
+
+    /**
+     * The k shortest loopless routes between two named vertices.
+     *
+     * @param from the start vertex
+     * @param to the destination vertex
+     * @param k the number of routes wanted
+     * @return up to k routes, shortest first
+     */
+    public List<Route> shortestRoutes(String from, String to, int k) {
+        return shortestRoutes(graph.requireId(from), graph.requireId(to), k);
+    }
+
+    /**
+     * The k shortest loopless routes between two vertices.
+     *
+     * @param source the start vertex id
+     * @param target the destination vertex id
+     * @param k the number of routes wanted
+     * @return up to k routes, shortest first; fewer if the
+     *         graph has fewer loopless routes
+     */
+    public List<Route> shortestRoutes(int source, int target, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("The number of routes: " + k + " cannot be negative.");
+        }
+        List<Route> routes = new ArrayList<>(k);
+        if (k == 0) {
+            return routes;
+        }
+        State state = states.get();
+        state.unblock();
+        Route first = spur(state, source, target, new int[0], 0);
+        if (first == null) {
+            return routes;
+        }
+        routes.add(first);
+
+        PriorityQueue<Route> candidates = new PriorityQueue<>();
+        Set<Route> seen = new HashSet<>();
+        seen.add(first);
+
+        while (routes.size() < k) {
+            Route last = routes.get(routes.size() - 1);
+            int rootDistance = 0;
+            for (int i = 0; i + 1 < last.size(); i++) {
+                int spurVertex = last.vertex(i);
+                state.unblock();
+
+                // block the next edge of every route with the same root
+                for (Route route : routes) {
+                    if (route.startsLike(last, i + 1)) {
+                        int edge = graph.findEdge(spurVertex, route.vertex(i + 1));
+                        state.blockedEdge[edge] = state.generation;
+                    }
+                }
+                // block the root, which the spur path may not revisit
+                int[] root = new int[i];
+                for (int j = 0; j < i; j++) {
+                    root[j] = last.vertex(j);
+                    state.blockedVertex[root[j]] = state.generation;
+                }
+
+                Route candidate = spur(state, spurVertex, target, root, rootDistance);
+                if (candidate != null && seen.add(candidate)) {
+                    candidates.add(candidate);
+                }
+                rootDistance += graph.distance(spurVertex, last.vertex(i + 1));
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+            routes.add(candidates.poll());
+        }
+        return routes;
+    }
+
+    /**
+     * Dijkstra from the spur vertex to the target around the
+     * blocked vertices and edges, joined to the root.
+     *
+     * @return the whole route, or null if the target cannot be reached
+     */
+    private Route spur(State state, int spurVertex, int target, int[] root, int rootDistance) {
+        DijkstraWorkspace workspace = state.workspace;
+        int[] blockedVertex = state.blockedVertex;
+        int[] blockedEdge = state.blockedEdge;
+        int generation = state.generation;
+
+        workspace.begin();
+        workspace.relax(spurVertex, 0, DijkstraWorkspace.NO_PARENT);
+        while (!workspace.heap.empty()) {
+            int current = workspace.settleMin();
+            if (current == target) {
+                break;
+            }
+            int currentDistance = workspace.distance[current];
+            for (int edge = graph.firstEdge(current), end = graph.endEdge(current); edge < end; edge++) {
+                int weight = graph.weight(edge);
+                int next = graph.target(edge);
+                if (weight != CompressedDirectedGraph.CLOSED
+                        && blockedEdge[edge] != generation && blockedVertex[next] != generation) {
+                    workspace.relax(next, currentDistance + weight, current);
+                }
+            }
+        }
+        if (!workspace.isSettled(target)) {
+            return null;
+        }
+
+        int length = workspace.pathTo(target, state.path);
+        int[] vertices = new int[root.length + length];
+        System.arraycopy(root, 0, vertices, 0, root.length);
+        System.arraycopy(state.path, 0, vertices, root.length, length);
+        return new Route(graph, vertices, rootDistance + workspace.distance[target]);
+    }
+}
@@ -0,0 +1,78 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.AStarLandmarkQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.LandmarkIndex;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class AStarLandmarkQueryEngineTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    // Shortest route A to C
+    // Expected [A, B, C]
+    @Test
+    public void shortestPathAToC() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(GRAPH);
+        AStarLandmarkQueryEngine engine = new AStarLandmarkQueryEngine(LandmarkIndex.build(graph, 2));
+
+        Assert.assertEquals(2, engine.landmarkCount());
+        Assert.assertEquals(9, engine.shortestDistance(graph.id("A"), graph.id("C")));
+        Assert.assertEquals(Arrays.asList("A", "B", "C"), engine.shortestPath("A", "C"));
+        Assert.assertTrue(engine.shortestPath("B", "A").isEmpty());
+    }
+
+    // Lower bounds never exceed the real
+    // distance, and A* answers match Dijkstra
+    @Test
+    public void agreesWithDijkstra() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(8, 8, 5));
+        LandmarkIndex landmarks = LandmarkIndex.build(graph, 4);
+        DijkstraQueryEngine dijkstra = new DijkstraQueryEngine(graph);
+        AStarLandmarkQueryEngine engine = new AStarLandmarkQueryEngine(landmarks);
+
+        for (int source = 0; source < graph.numberOfVertices(); source++) {
+            for (int target = 0; target < graph.numberOfVertices(); target++) {
+                int expected = dijkstra.shortestDistance(source, target);
+                Assert.assertTrue(landmarks.lowerBound(source, target) <= expected);
+                Assert.assertEquals(expected, engine.shortestDistance(source, target));
+            }
+        }
+    }
+
+    // Goal direction settles fewer vertices
+    // than plain Dijkstra from corner to corner
+    @Test
+    public void settlesFewerVertices() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(20, 20, 9));
+        DijkstraQueryEngine dijkstra = new DijkstraQueryEngine(graph);
+        AStarLandmarkQueryEngine engine = new AStarLandmarkQueryEngine(LandmarkIndex.build(graph, 4));
+        int source = graph.id(BenchmarkGraphs.name(0, 0));
+        int target = graph.id(BenchmarkGraphs.name(19, 10));
+
+        dijkstra.shortestDistance(source, target);
+        engine.shortestDistance(source, target);
+
+        Assert.assertTrue(engine.lastSettledCount() < dijkstra.lastSettledCount());
+    }
+}
@@ -0,0 +1,53 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+
+import java.util.Random;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Generated road networks for the benchmarks.
+ * Not part of the unit test suite.
+ */
+public class BenchmarkGraphs {
+
+    /**
+     * Street grid of rows x columns junctions.
+     * Every street is two-way, stored as two one-way edges,
+     * with a random distance between 1 and 100.
+     *
+     * @param rows number of junction rows
+     * @param columns number of junction columns
+     * @param seed random seed
+     * @return the edges of the grid
+     */
+    public static DirectedGraph.Edge[] grid(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        DirectedGraph.Edge[] edges = new DirectedGraph.Edge[4 * rows * columns - 2 * rows - 2 * columns];
+        int count = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                String here = name(r, c);
+                if (c + 1 < columns) {
+                    String right = name(r, c + 1);
+                    edges[count++] = new DirectedGraph.Edge(here, right, 1 + random.nextInt(100));
+                    edges[count++] = new DirectedGraph.Edge(right, here, 1 + random.nextInt(100));
+                }
+                if (r + 1 < rows) {
+                    String below = name(r + 1, c);
+                    edges[count++] = new DirectedGraph.Edge(here, below, 1 + random.nextInt(100));
+                    edges[count++] = new DirectedGraph.Edge(below, here, 1 + random.nextInt(100));
+                }
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Name of the junction at a row and column.
+     */
+    public static String name(int row, int column) {
+        return row + ":" + column;
+    }
+}
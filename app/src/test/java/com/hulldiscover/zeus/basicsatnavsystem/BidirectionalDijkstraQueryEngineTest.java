@@ -0,0 +1,70 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.BidirectionalDijkstraQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class BidirectionalDijkstraQueryEngineTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    // Shortest route A to C
+    // Expected [A, B, C]
+    @Test
+    public void shortestPathAToC() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(GRAPH);
+        BidirectionalDijkstraQueryEngine engine = new BidirectionalDijkstraQueryEngine(graph);
+
+        Assert.assertEquals(9, engine.shortestDistance(graph.id("A"), graph.id("C")));
+        Assert.assertEquals(Arrays.asList("A", "B", "C"), engine.shortestPath("A", "C"));
+        Assert.assertEquals(Arrays.asList("C"), engine.shortestPath("C", "C"));
+        Assert.assertTrue(engine.shortestPath("B", "A").isEmpty());
+    }
+
+    // Same distances as the one directional
+    // search on every pair of a street grid,
+    // and every route adds up to its distance
+    @Test
+    public void agreesWithDijkstra() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(6, 7, 3));
+        DijkstraQueryEngine dijkstra = new DijkstraQueryEngine(graph);
+        BidirectionalDijkstraQueryEngine engine = new BidirectionalDijkstraQueryEngine(graph);
+        int[] path = new int[graph.numberOfVertices()];
+
+        for (int source = 0; source < graph.numberOfVertices(); source++) {
+            for (int target = 0; target < graph.numberOfVertices(); target++) {
+                int expected = dijkstra.shortestDistance(source, target);
+                Assert.assertEquals(expected, engine.shortestDistance(source, target));
+
+                int length = engine.shortestPath(source, target, path);
+                int total = 0;
+                for (int i = 1; i < length; i++) {
+                    total += graph.distance(path[i - 1], path[i]);
+                }
+                Assert.assertEquals(source, path[0]);
+                Assert.assertEquals(target, path[length - 1]);
+                Assert.assertEquals(expected, total);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.BoundedRouteSearch;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.Route;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.RouteBounds;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.SimplePathIterator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class BoundedRouteSearchTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    CompressedDirectedGraph graph;
+
+    // Route search
+    BoundedRouteSearch search;
+
+    /**
+     * Set up test environment
+     * based on given specification.
+     * */
+    @Before
+    public void setUp() {
+        graph = CompressedDirectedGraph.fromEdges(GRAPH);
+        search = new BoundedRouteSearch(graph);
+    }
+
+    // Routes C to C with at most 3 stops
+    // Expected C-D-C and C-E-B-C
+    @Test
+    public void maxStopsCToC() {
+        List<Route> routes = search.routes("C", "C", RouteBounds.maxStops(3));
+
+        Assert.assertEquals(2, routes.size());
+        Assert.assertEquals(2, search.countRoutes("C", "C", RouteBounds.maxStops(3)));
+        Set<List<String>> names = new HashSet<List<String>>();
+        for (Route route : routes) {
+            names.add(route.names());
+        }
+        Assert.assertTrue(names.contains(Arrays.asList("C", "D", "C")));
+        Assert.assertTrue(names.contains(Arrays.asList("C", "E", "B", "C")));
+    }
+
+    // Routes A to C with exactly 4 stops
+    // Expected A-B-C-D-C, A-D-C-D-C and A-D-E-B-C
+    @Test
+    public void exactStopsAToC() {
+        List<Route> routes = search.routes("A", "C", RouteBounds.exactStops(4));
+
+        Assert.assertEquals(3, routes.size());
+        Set<List<String>> names = new HashSet<List<String>>();
+        for (Route route : routes) {
+            names.add(route.names());
+        }
+        Assert.assertTrue(names.contains(Arrays.asList("A", "B", "C", "D", "C")));
+        Assert.assertTrue(names.contains(Arrays.asList("A", "D", "C", "D", "C")));
+        Assert.assertTrue(names.contains(Arrays.asList("A", "D", "E", "B", "C")));
+    }
+
+    // Routes C to C shorter than 30
+    // Expected CDC, CEBC, CEBCDC, CDCEBC, CDEBC,
+    // CEBCEBC, CEBCEBCEBC, CDEBCEBC and CEBCDEBC
+    // (the last two are 29 long since C-D is 7 here)
+    @Test
+    public void distanceBelowCToC() {
+        List<Route> routes = search.routes("C", "C", RouteBounds.distanceBelow(30));
+
+        Assert.assertEquals(9, routes.size());
+        Assert.assertEquals(9, search.countRoutes("C", "C", RouteBounds.distanceBelow(30)));
+        for (Route route : routes) {
+            Assert.assertTrue(route.distance() < 30);
+        }
+        Assert.assertEquals(2, search.countRoutes("C", "C", RouteBounds.distanceBelow(30).withMaxStops(3)));
+    }
+
+    // Simple routes match the path iterator
+    @Test
+    public void simplePathsAgreeWithIterator() {
+        CompressedDirectedGraph grid = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(3, 4, 17));
+        BoundedRouteSearch gridSearch = new BoundedRouteSearch(grid);
+        for (int source = 0; source < grid.numberOfVertices(); source++) {
+            for (int target = 0; target < grid.numberOfVertices(); target++) {
+                if (source == target) {
+                    continue;
+                }
+                long expected = 0;
+                SimplePathIterator paths = new SimplePathIterator(grid, source, target, 5, SimplePathIterator.UNLIMITED);
+                while (paths.hasNext()) {
+                    paths.next();
+                    expected++;
+                }
+                Assert.assertEquals(expected, gridSearch.countRoutes(source, target,
+                        RouteBounds.maxStops(5).simplePaths()));
+            }
+        }
+    }
+
+    // Pruned search counts the same routes as
+    // walking every route and filtering afterwards
+    @Test
+    public void agreesWithFilteredWalks() {
+        for (int source = 0; source < graph.numberOfVertices(); source++) {
+            for (int target = 0; target < graph.numberOfVertices(); target++) {
+                for (int stops = 0; stops <= 6; stops++) {
+                    Assert.assertEquals(walks(source, target, 0, stops, Integer.MAX_VALUE, false),
+                            search.countRoutes(source, target, RouteBounds.maxStops(stops)));
+                    Assert.assertEquals(walks(source, target, 0, stops, Integer.MAX_VALUE, true),
+                            search.countRoutes(source, target, RouteBounds.exactStops(stops)));
+                }
+                for (int distance = 0; distance <= 40; distance += 5) {
+                    Assert.assertEquals(walks(source, target, 0, 40, distance, false),
+                            search.countRoutes(source, target, RouteBounds.distanceBelow(distance)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts every walk of at most stopsLeft edges from vertex to
+     * target, then keeps those with the wanted stops and distance.
+     */
+    private long walks(int vertex, int target, int distance, int stopsLeft, int distanceBelow, boolean exact) {
+        long count = 0;
+        for (int edge = graph.firstEdge(vertex); edge < graph.endEdge(vertex); edge++) {
+            int next = graph.target(edge);
+            int nextDistance = distance + graph.weight(edge);
+            if (stopsLeft == 0) {
+                break;
+            }
+            if (next == target && nextDistance < distanceBelow && (!exact || stopsLeft == 1)) {
+                count++;
+            }
+            count += walks(next, target, nextDistance, stopsLeft - 1, distanceBelow, exact);
+        }
+        return count;
+    }
+
+    // Revisits without a stop limit never end
+    @Test(expected = IllegalArgumentException.class)
+    public void endlessBounds() {
+        search.countRoutes("C", "C", RouteBounds.unbounded());
+    }
+}
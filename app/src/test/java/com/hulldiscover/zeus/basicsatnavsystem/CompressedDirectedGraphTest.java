@@ -0,0 +1,124 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class CompressedDirectedGraphTest {
+
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    // Compressed graph
+    CompressedDirectedGraph graph;
+
+    /**
+     * Set up test environment
+     * based on given specification.
+     * */
+    @Before
+    public void setUp() {
+        graph = new DirectedGraph(GRAPH).compressed();
+    }
+
+    /*
+     * Number of vertices and edges
+     * Expected 5 and 9
+     */
+    @Test
+    public void numberOfVerticesAndEdges() throws Exception {
+        assertEquals(5, graph.numberOfVertices());
+        assertEquals(9, graph.numberOfEdges());
+    }
+
+    /*
+     * Vertex names map to ids and back
+     */
+    @Test
+    public void idsRoundTrip() throws Exception {
+        for (String name : new String[] {"A", "B", "C", "D", "E"}) {
+            assertEquals(name, graph.name(graph.id(name)));
+        }
+        assertEquals(-1, graph.id("F"));
+    }
+
+    /*
+     * Row of vertex A holds B5, D5 and E7,
+     * sorted by target id.
+     */
+    @Test
+    public void rowOfVertexA() throws Exception {
+        int a = graph.id("A");
+        assertEquals(3, graph.outDegree(a));
+
+        int total = 0;
+        for (int edge = graph.firstEdge(a); edge < graph.endEdge(a); edge++) {
+            if (edge > graph.firstEdge(a)) {
+                assertTrue(graph.target(edge - 1) < graph.target(edge));
+            }
+            total += graph.weight(edge);
+        }
+        assertEquals(17, total);
+    }
+
+    /*
+     * Indexed edge lookups
+     * C -> E is 2, E -> D does not exist.
+     */
+    @Test
+    public void edgeLookup() throws Exception {
+        assertEquals(2, graph.distance(graph.id("C"), graph.id("E")));
+        assertEquals(CompressedDirectedGraph.NO_EDGE, graph.distance(graph.id("E"), graph.id("D")));
+    }
+
+    /*
+     * Incoming edges of vertex C
+     * come from B (4) and D (8).
+     */
+    @Test
+    public void incomingEdgesOfVertexC() throws Exception {
+        int c = graph.id("C");
+        assertEquals(2, graph.inDegree(c));
+
+        int total = 0;
+        for (int inEdge = graph.firstInEdge(c); inEdge < graph.endInEdge(c); inEdge++) {
+            int edge = graph.forwardEdge(inEdge);
+            assertEquals(c, graph.target(edge));
+            assertEquals(graph.distance(graph.source(inEdge), c), graph.weight(edge));
+            total += graph.weight(edge);
+        }
+        assertEquals(12, total);
+    }
+
+    /*
+     * A road segment listed twice
+     * keeps its shortest distance.
+     */
+    @Test
+    public void parallelEdgesCollapse() throws Exception {
+        CompressedDirectedGraph parallel = CompressedDirectedGraph.fromEdges(new DirectedGraph.Edge[] {
+                new DirectedGraph.Edge("A", "B", 9),
+                new DirectedGraph.Edge("A", "B", 4),
+        });
+        int a = parallel.id("A");
+        assertEquals(1, parallel.numberOfEdges());
+        assertEquals(4, parallel.weight(parallel.firstEdge(a)));
+    }
+}
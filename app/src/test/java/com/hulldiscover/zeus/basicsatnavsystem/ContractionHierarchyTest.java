@@ -0,0 +1,127 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.ContractionHierarchy;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.ContractionHierarchyQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class ContractionHierarchyTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    // Shortest route A to C
+    // Expected [A, B, C]
+    @Test
+    public void shortestPathAToC() {
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(CompressedDirectedGraph.fromEdges(GRAPH));
+        ContractionHierarchyQueryEngine engine = new ContractionHierarchyQueryEngine(hierarchy);
+
+        Assert.assertEquals(Arrays.asList("A", "B", "C"), engine.shortestPath("A", "C"));
+        Assert.assertEquals(Arrays.asList("B"), engine.shortestPath("B", "B"));
+        Assert.assertTrue(engine.shortestPath("B", "A").isEmpty());
+    }
+
+    // Same answers as Dijkstra on a street grid
+    @Test
+    public void gridAgreesWithDijkstra() {
+        assertAgreesWithDijkstra(CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(9, 9, 11)));
+    }
+
+    // Same answers as Dijkstra on random one-way
+    // streets, where many routes do not exist
+    @Test
+    public void oneWayStreetsAgreeWithDijkstra() {
+        Random random = new Random(13);
+        DirectedGraph.Edge[] edges = new DirectedGraph.Edge[150];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = new DirectedGraph.Edge("V" + random.nextInt(60), "V" + random.nextInt(60), random.nextInt(20));
+        }
+        assertAgreesWithDijkstra(CompressedDirectedGraph.fromEdges(edges));
+    }
+
+    // Zero distance segments both ways between v1 and v2:
+    // the route v0 to v1 must not go round the loop v1 v2 v1
+    @Test
+    public void zeroDistanceLoop() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(new DirectedGraph.Edge[] {
+                new DirectedGraph.Edge("v1", "v2", 3),
+                new DirectedGraph.Edge("v1", "v2", 0),
+                new DirectedGraph.Edge("v0", "v1", 0),
+                new DirectedGraph.Edge("v2", "v1", 0),
+        });
+        ContractionHierarchyQueryEngine engine = new ContractionHierarchyQueryEngine(ContractionHierarchy.build(graph));
+
+        Assert.assertEquals(Arrays.asList("v0", "v1"), engine.shortestPath("v0", "v1"));
+        Assert.assertEquals(0, engine.shortestDistance(graph.id("v0"), graph.id("v1")));
+        assertAgreesWithDijkstra(graph);
+    }
+
+    // Streets where half of the segments have zero
+    // distance, which gives many zero length loops
+    @Test
+    public void zeroDistanceStreetsAgreeWithDijkstra() {
+        Random random = new Random(29);
+        DirectedGraph.Edge[] edges = new DirectedGraph.Edge[200];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = new DirectedGraph.Edge("V" + random.nextInt(50), "V" + random.nextInt(50), random.nextInt(2));
+        }
+        assertAgreesWithDijkstra(CompressedDirectedGraph.fromEdges(edges));
+    }
+
+    private void assertAgreesWithDijkstra(CompressedDirectedGraph graph) {
+        DijkstraQueryEngine dijkstra = new DijkstraQueryEngine(graph);
+        ContractionHierarchyQueryEngine engine = new ContractionHierarchyQueryEngine(ContractionHierarchy.build(graph));
+        int[] path = new int[graph.numberOfVertices()];
+
+        for (int source = 0; source < graph.numberOfVertices(); source++) {
+            for (int target = 0; target < graph.numberOfVertices(); target++) {
+                int expected = dijkstra.shortestDistance(source, target);
+                Assert.assertEquals(expected, engine.shortestDistance(source, target));
+
+                int length = engine.shortestPath(source, target, path);
+                if (expected == Integer.MAX_VALUE) {
+                    Assert.assertEquals(0, length);
+                    continue;
+                }
+                // unpacked route uses original edges only
+                int total = 0;
+                for (int i = 1; i < length; i++) {
+                    int distance = graph.distance(path[i - 1], path[i]);
+                    Assert.assertNotEquals(CompressedDirectedGraph.NO_EDGE, distance);
+                    total += distance;
+                }
+                Assert.assertEquals(source, path[0]);
+                Assert.assertEquals(target, path[length - 1]);
+                Assert.assertEquals(expected, total);
+
+                // and visits no vertex twice
+                int[] visited = Arrays.copyOf(path, length);
+                Arrays.sort(visited);
+                for (int i = 1; i < length; i++) {
+                    Assert.assertNotEquals(visited[i - 1], visited[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DeltaSteppingShortestPath;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraFindShortestPath;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.ShortestPathTree;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Compares a whole-graph DijkstraFindShortestPath search with
+ * DeltaSteppingShortestPath on 1 .. N threads over a generated
+ * street grid.
+ *
+ * Not part of the unit test suite, run the main method,
+ * optionally with the delta as first argument.
+ */
+public class DeltaSteppingBenchmark {
+
+    private static final int ROWS = 400;
+    private static final int COLUMNS = 400;
+    private static final int WARM_UP = 3;
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        int delta = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        DirectedGraph directedGraph = new DirectedGraph(BenchmarkGraphs.grid(ROWS, COLUMNS, 42));
+        CompressedDirectedGraph graph = directedGraph.compressed();
+        String source = BenchmarkGraphs.name(ROWS / 2, COLUMNS / 2);
+        System.out.println("Graph: " + graph.numberOfVertices() + " vertices, " + graph.numberOfEdges()
+                + " edges, delta " + delta);
+
+        DijkstraFindShortestPath dijkstra = new DijkstraFindShortestPath();
+        int[] expected = dijkstra.shortestPathTree(directedGraph, source).distances();
+        for (int i = 0; i < WARM_UP; i++) {
+            dijkstra.shortestPathTree(directedGraph, source);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            dijkstra.shortestPathTree(directedGraph, source);
+        }
+        System.out.println("DijkstraFindShortestPath: " + (System.nanoTime() - start) / RUNS / 1000000 + " ms");
+
+        DeltaSteppingShortestPath deltaStepping = new DeltaSteppingShortestPath(graph, delta);
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                ShortestPathTree tree = deltaStepping.shortestPathTree(graph.id(source), executor);
+                if (!Arrays.equals(expected, tree.distances())) {
+                    throw new IllegalStateException("Delta-stepping disagrees with Dijkstra");
+                }
+                for (int i = 0; i < WARM_UP; i++) {
+                    deltaStepping.shortestPathTree(graph.id(source), executor);
+                }
+                start = System.nanoTime();
+                for (int i = 0; i < RUNS; i++) {
+                    deltaStepping.shortestPathTree(graph.id(source), executor);
+                }
+                System.out.println("DeltaSteppingShortestPath, " + threads + " threads: "
+                        + (System.nanoTime() - start) / RUNS / 1000000 + " ms");
+            } finally {
+                executor.shutdown();
+            }
+            if (threads < cores && threads * 2 > cores) {
+                threads = cores / 2; // finish on all cores
+            }
+        }
+    }
+}
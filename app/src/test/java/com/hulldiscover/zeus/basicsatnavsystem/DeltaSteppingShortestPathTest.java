@@ -0,0 +1,133 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DeltaSteppingShortestPath;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.ShortestPathTree;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class DeltaSteppingShortestPathTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    // Routes from A with light and heavy edges
+    // Expected [A, B, C] of length 9
+    @Test
+    public void routesFromA() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(GRAPH);
+        ShortestPathTree tree = new DeltaSteppingShortestPath(graph, 4).shortestPathTree(graph.id("A"), null);
+
+        Assert.assertEquals(9, tree.distance(graph.id("C")));
+        Assert.assertEquals(Arrays.asList("A", "B", "C"), tree.pathTo("C"));
+        Assert.assertEquals(Arrays.asList("A", "E"), tree.pathTo("E"));
+    }
+
+    // Nothing reaches A from B
+    @Test
+    public void unreachableVertex() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(GRAPH);
+        ShortestPathTree tree = new DeltaSteppingShortestPath(graph, 4).shortestPathTree(graph.id("B"), null);
+
+        Assert.assertFalse(tree.isReachable(graph.id("A")));
+        Assert.assertTrue(tree.pathTo("A").isEmpty());
+    }
+
+    // Delta must be positive
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroDelta() {
+        new DeltaSteppingShortestPath(CompressedDirectedGraph.fromEdges(GRAPH), 0);
+    }
+
+    // Same distances as Dijkstra for small, medium and
+    // huge buckets, on one thread and on four
+    @Test
+    public void gridAgreesWithDijkstra() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(40, 40, 17));
+        ShortestPathTree expected = new DijkstraQueryEngine(graph).shortestPathTree(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int delta : new int[] {1, 50, 1000000}) {
+                DeltaSteppingShortestPath engine = new DeltaSteppingShortestPath(graph, delta);
+                assertSameTree(expected, engine.shortestPathTree(0, null));
+                assertSameTree(expected, engine.shortestPathTree(0, executor));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Distances far beyond the number of vertices
+    // need no bucket per distance
+    @Test
+    public void longEdges() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(new DirectedGraph.Edge[] {
+                new DirectedGraph.Edge("A", "B", 1000000000),
+                new DirectedGraph.Edge("B", "C", 1000000000),
+        });
+        ShortestPathTree tree = new DeltaSteppingShortestPath(graph, 1).shortestPathTree(graph.id("A"), null);
+
+        Assert.assertEquals(2000000000, tree.distance(graph.id("C")));
+        Assert.assertEquals(Arrays.asList("A", "B", "C"), tree.pathTo("C"));
+    }
+
+    // Edges much longer than delta times the vertex
+    // count, so buckets wait past the ring
+    @Test
+    public void longEdgesAgreeWithDijkstra() {
+        Random random = new Random(5);
+        DirectedGraph.Edge[] edges = new DirectedGraph.Edge[3000];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = new DirectedGraph.Edge("v" + random.nextInt(300), "v" + random.nextInt(300),
+                    random.nextInt(1000000));
+        }
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(edges);
+        ShortestPathTree expected = new DijkstraQueryEngine(graph).shortestPathTree(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int delta : new int[] {1, 300, 20000}) {
+                DeltaSteppingShortestPath engine = new DeltaSteppingShortestPath(graph, delta);
+                assertSameTree(expected, engine.shortestPathTree(0, null));
+                assertSameTree(expected, engine.shortestPathTree(0, executor));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void assertSameTree(ShortestPathTree expected, ShortestPathTree actual) {
+        CompressedDirectedGraph graph = expected.graph();
+        Assert.assertArrayEquals(expected.distances(), actual.distances());
+
+        // every parent edge lies on a shortest route
+        for (int v = 0; v < graph.numberOfVertices(); v++) {
+            int parent = actual.parent(v);
+            if (parent != ShortestPathTree.NO_PARENT) {
+                Assert.assertEquals(actual.distance(v), actual.distance(parent) + graph.distance(parent, v));
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DialBucketQueue;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.IndexedDaryMinHeap;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.QueueType;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class DialBucketQueueTest {
+
+    /*
+     * Keys come out in order of weight
+     * while the window moves forward.
+     */
+    @Test
+    public void extractsInWeightOrder() throws Exception {
+        Random random = new Random(7);
+        DialBucketQueue queue = new DialBucketQueue(1000, 20);
+        int[] weights = new int[1000];
+        int key = 0;
+        int last = 0;
+        // keep 100 keys queued, every new weight within 20 of the last extracted
+        for (; key < 100; key++) {
+            weights[key] = random.nextInt(21);
+            queue.add(weights[key], key);
+        }
+        int extracted = 0;
+        while (!queue.empty()) {
+            int weight = queue.minWeight();
+            assertTrue(weight >= last);
+            assertEquals(weight, weights[queue.extractMin()]);
+            last = weight;
+            extracted++;
+            if (key < weights.length) {
+                weights[key] = last + random.nextInt(21);
+                queue.add(weights[key], key);
+                key++;
+            }
+        }
+        assertEquals(weights.length, extracted);
+    }
+
+    /*
+     * Decreasing a key moves it to the top.
+     */
+    @Test
+    public void decreaseKey() throws Exception {
+        DialBucketQueue queue = new DialBucketQueue(4, 30);
+        queue.add(10, 0);
+        queue.add(20, 1);
+        queue.add(30, 2);
+
+        queue.decrease(2, 15);
+        queue.decrease(1, 10);
+
+        assertEquals(15, queue.getWeight(2));
+        assertEquals(2, queue.size() - 1);
+        int first = queue.extractMin();
+        int second = queue.extractMin();
+        assertEquals(Arrays.asList(0, 1), Arrays.asList(Math.min(first, second), Math.max(first, second)));
+        assertEquals(2, queue.extractMin());
+        assertFalse(queue.containsData(2));
+    }
+
+    /*
+     * Weights further apart than the
+     * bucket window are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void weightOutsideWindow() throws Exception {
+        DialBucketQueue queue = new DialBucketQueue(2, 10);
+        queue.add(0, 0);
+        queue.add(11, 1);
+    }
+
+    /*
+     * A window too long for the keys is rejected
+     * instead of allocating a bucket per distance.
+     */
+    @Test
+    public void oversizedWindow() throws Exception {
+        assertTrue(DialBucketQueue.fits(10, DialBucketQueue.MIN_BUCKETS - 1));
+        assertFalse(DialBucketQueue.fits(10, DialBucketQueue.MIN_BUCKETS));
+        assertTrue(DialBucketQueue.fits(100000, 799999));
+        assertFalse(DialBucketQueue.fits(100000, Integer.MAX_VALUE));
+        try {
+            new DialBucketQueue(3, Integer.MAX_VALUE);
+            fail("no buckets for an int range of weights");
+        } catch (IllegalArgumentException expected) {
+            // rejected
+        }
+    }
+
+    /*
+     * Searches on Dial buckets fall back to a heap
+     * when the edges are far longer than the graph.
+     */
+    @Test
+    public void longEdgesFallBackToHeap() throws Exception {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(new DirectedGraph.Edge[] {
+                new DirectedGraph.Edge("A", "B", 500000000),
+                new DirectedGraph.Edge("B", "C", 1),
+                new DirectedGraph.Edge("A", "C", Integer.MAX_VALUE - 1),
+        });
+        DijkstraQueryEngine engine = new DijkstraQueryEngine(graph);
+
+        assertEquals(500000001, engine.shortestDistance(graph.id("A"), graph.id("C"), QueueType.DIAL_BUCKETS));
+        assertTrue(QueueType.DIAL_BUCKETS.create(3, Integer.MAX_VALUE) instanceof IndexedDaryMinHeap);
+    }
+
+    /*
+     * Clearing the queue forgets every key.
+     */
+    @Test
+    public void clear() throws Exception {
+        DialBucketQueue queue = new DialBucketQueue(3, 5);
+        queue.add(1, 0);
+        queue.add(2, 1);
+
+        queue.clear();
+
+        assertTrue(queue.empty());
+        assertFalse(queue.containsData(0));
+        assertFalse(queue.containsData(1));
+        queue.add(40, 2);
+        assertEquals(2, queue.extractMin());
+    }
+}
@@ -0,0 +1,121 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.QueueType;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class DijkstraQueryEngineTest {
+
+    // Test Data
+    // Vertex (node) points
+    public static final String A = "A";
+    public static final String B = "B";
+    public static final String C = "C";
+    public static final String D = "D";
+    public static final String E = "E";
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge(A, B, 5),
+            new DirectedGraph.Edge(B, C, 4),
+            new DirectedGraph.Edge(C, D, 7),
+            new DirectedGraph.Edge(D, C, 8),
+            new DirectedGraph.Edge(D, E, 6),
+            new DirectedGraph.Edge(A, D, 5),
+            new DirectedGraph.Edge(C, E, 2),
+            new DirectedGraph.Edge(E, B, 3),
+            new DirectedGraph.Edge(A, E, 7),
+    };
+
+    // Compressed graph
+    CompressedDirectedGraph graph;
+
+    // Shortest Path Search
+    DijkstraQueryEngine engine;
+
+    /**
+     * Set up test environment
+     * based on given specification.
+     * */
+    @Before
+    public void setUp() {
+        DirectedGraph directedGraph = new DirectedGraph(GRAPH);
+        graph = directedGraph.compressed();
+        engine = directedGraph.queryEngine();
+    }
+
+    // Shortest route A to C
+    // Expected [A, B, C] with length 9
+    @Test
+    public void shortestPathAToC() {
+        Assert.assertEquals(9, engine.shortestDistance(graph.id(A), graph.id(C)));
+        Assert.assertEquals(Arrays.asList(A, B, C), engine.shortestPath(A, C));
+    }
+
+    // Queries reuse the same workspace,
+    // results must not leak between them
+    @Test
+    public void repeatedQueries() {
+        int[] path = new int[graph.numberOfVertices()];
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(0, engine.shortestDistance(graph.id(B), graph.id(B)));
+            Assert.assertEquals(5, engine.shortestDistance(graph.id(C), graph.id(B)));
+            Assert.assertEquals(3, engine.shortestPath(graph.id(C), graph.id(B), path));
+            Assert.assertEquals(graph.id(E), path[1]);
+        }
+    }
+
+    // There is no route back to A
+    @Test
+    public void unreachableVertex() {
+        int[] path = new int[graph.numberOfVertices()];
+        Assert.assertEquals(Integer.MAX_VALUE, engine.shortestDistance(graph.id(B), graph.id(A)));
+        Assert.assertEquals(0, engine.shortestPath(graph.id(B), graph.id(A), path));
+        Assert.assertTrue(engine.shortestPath(B, A).isEmpty());
+    }
+
+    // Unknown vertex names are rejected
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownVertex() {
+        engine.shortestPath(A, "F");
+    }
+
+    // Every queue type gives the same answers as the
+    // default heap, also when queries switch between them
+    @Test
+    public void everyQueueAgreesWithHeap() {
+        CompressedDirectedGraph grid = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(10, 10, 3));
+        DijkstraQueryEngine gridEngine = new DijkstraQueryEngine(grid);
+        int[] path = new int[grid.numberOfVertices()];
+        for (QueueType queue : QueueType.values()) {
+            for (int source = 0; source < grid.numberOfVertices(); source += 7) {
+                for (int target = 0; target < grid.numberOfVertices(); target++) {
+                    int expected = gridEngine.shortestDistance(source, target);
+                    Assert.assertEquals(expected, gridEngine.shortestDistance(source, target, queue));
+                    Assert.assertEquals(expected, gridEngine.shortestPathTree(source, queue).distance(target));
+                }
+            }
+
+            Assert.assertEquals(9, engine.shortestDistance(graph.id(A), graph.id(C), queue));
+            Assert.assertEquals(3, engine.shortestPath(graph.id(A), graph.id(C), path, queue));
+            Assert.assertEquals(Integer.MAX_VALUE, engine.shortestDistance(graph.id(B), graph.id(A), queue));
+        }
+    }
+
+    // An engine can be given its own default queue
+    @Test
+    public void engineDefaultQueue() {
+        DijkstraQueryEngine pairing = new DijkstraQueryEngine(graph, QueueType.PAIRING_HEAP);
+        Assert.assertEquals(Arrays.asList(A, B, C), pairing.shortestPath(A, C));
+    }
+}
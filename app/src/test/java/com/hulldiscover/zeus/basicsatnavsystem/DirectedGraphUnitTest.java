@@ -1,10 +1,12 @@
 package com.hulldiscover.zeus.basicsatnavsystem;
 
 import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.QueueType;
 
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -83,7 +85,51 @@ public class DirectedGraphUnitTest {
         assertEquals(5, directedDirectedGraph.getDistance("A", "D"));
     }
 
+    /*
+     * There is no route from E to D,
+     * the distance should be 0.
+     */
+    @Test
+    public void getDistanceWithoutEdge() throws Exception {
+        assertEquals(0, directedDirectedGraph.getDistance("E", "D"));
+        assertFalse(directedDirectedGraph.isAdjacentTo("E", "D"));
+    }
 
+    /*
+     * Dijkstra from A, where B and D
+     * are both 5 away.
+     * Expected A 0, B 5, C 9, D 5, E 7
+     */
+    @Test
+    public void dijkstraWithEqualDistances() throws Exception {
+        for (QueueType queue : QueueType.values()) {
+            directedDirectedGraph.dijkstra("A", queue);
+            assertEquals(0, directedDirectedGraph.getV("A").distance);
+            assertEquals(5, directedDirectedGraph.getV("B").distance);
+            assertEquals(9, directedDirectedGraph.getV("C").distance);
+            assertEquals(5, directedDirectedGraph.getV("D").distance);
+            assertEquals(7, directedDirectedGraph.getV("E").distance);
+        }
+    }
 
-
+    /*
+     * Cycle checks keep no state between calls:
+     * the same answer every time, and a diamond
+     * without a cycle is not cyclic.
+     */
+    @Test
+    public void isCyclicDirectedIsRepeatable() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(directedDirectedGraph.isCyclicDirected(directedDirectedGraph.getV("A")));
+        }
+        DirectedGraph diamond = new DirectedGraph(new DirectedGraph.Edge[] {
+                new DirectedGraph.Edge("A", "B", 1),
+                new DirectedGraph.Edge("A", "C", 1),
+                new DirectedGraph.Edge("B", "D", 1),
+                new DirectedGraph.Edge("C", "D", 1),
+        });
+        for (int i = 0; i < 3; i++) {
+            assertFalse(diamond.isCyclicDirected(diamond.getV("A")));
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.ContractionHierarchy;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DistanceMatrixEngine;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class DistanceMatrixEngineTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    private static final int NO_ROUTE = Integer.MAX_VALUE;
+
+    // Table from A and B to C, D and E
+    // Expected [9, 5, 7] and [4, 11, 6]
+    @Test
+    public void tableByName() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(GRAPH);
+        int[] expected = {9, 5, 7, 4, 11, 6};
+
+        Assert.assertArrayEquals(expected, new DistanceMatrixEngine(graph)
+                .distances(Arrays.asList("A", "B"), Arrays.asList("C", "D", "E")));
+        Assert.assertArrayEquals(expected, new DistanceMatrixEngine(ContractionHierarchy.build(graph))
+                .distances(Arrays.asList("A", "B"), Arrays.asList("C", "D", "E")));
+    }
+
+    // Nothing reaches A
+    // Expected [0, 5] and [no route, 0]
+    @Test
+    public void unreachableTarget() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(GRAPH);
+        int[] expected = {0, 5, NO_ROUTE, 0};
+
+        Assert.assertArrayEquals(expected, new DistanceMatrixEngine(graph)
+                .distances(Arrays.asList("A", "B"), Arrays.asList("A", "B")));
+        Assert.assertArrayEquals(expected, new DistanceMatrixEngine(ContractionHierarchy.build(graph))
+                .distances(Arrays.asList("A", "B"), Arrays.asList("A", "B")));
+    }
+
+    // A table past the largest array is refused
+    // rather than overflowing its size
+    @Test(expected = IllegalArgumentException.class)
+    public void tableTooLarge() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(GRAPH);
+        new DistanceMatrixEngine(graph).distances(new int[50000], new int[50000]);
+    }
+
+    // Full table of a street grid, on one thread and on four,
+    // same answers as Dijkstra
+    @Test
+    public void gridAgreesWithDijkstra() throws Exception {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(8, 8, 5));
+        int[] all = new int[graph.numberOfVertices()];
+        for (int v = 0; v < all.length; v++) {
+            all[v] = v;
+        }
+        int[] expected = new int[all.length * all.length];
+        DijkstraQueryEngine dijkstra = new DijkstraQueryEngine(graph);
+        for (int source = 0; source < all.length; source++) {
+            for (int target = 0; target < all.length; target++) {
+                expected[source * all.length + target] = dijkstra.shortestDistance(source, target);
+            }
+        }
+
+        DistanceMatrixEngine plain = new DistanceMatrixEngine(graph);
+        DistanceMatrixEngine buckets = new DistanceMatrixEngine(ContractionHierarchy.build(graph));
+        Assert.assertArrayEquals(expected, plain.distances(all, all));
+        Assert.assertArrayEquals(expected, buckets.distances(all, all));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Assert.assertArrayEquals(expected, plain.distances(all, all, executor));
+            Assert.assertArrayEquals(expected, buckets.distances(all, all, executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DynamicShortestPathTree;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.GraphDelta;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.ShortestPathTree;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.VersionedGraph;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class DynamicShortestPathTreeTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    VersionedGraph versions;
+    DynamicShortestPathTree tree;
+
+    /**
+     * Set up test environment
+     * based on given specification.
+     * */
+    @Before
+    public void setUp() {
+        versions = new VersionedGraph(CompressedDirectedGraph.fromEdges(GRAPH));
+        tree = new DynamicShortestPathTree(versions.current(), "A");
+    }
+
+    private void apply(GraphDelta delta) {
+        tree.update(versions.apply(delta), delta);
+    }
+
+    private int distance(String to) {
+        return tree.distance(tree.graph().id(to));
+    }
+
+    // Closing A-B cuts B off, which comes
+    // back by E-B, and C moves to A-D-C
+    @Test
+    public void closeTreeEdge() {
+        Assert.assertEquals(9, distance("C"));
+        apply(new GraphDelta().close("A", "B"));
+
+        Assert.assertEquals(10, distance("B"));
+        Assert.assertEquals(Arrays.asList("A", "E", "B"), tree.snapshot().pathTo("B"));
+        Assert.assertEquals(Arrays.asList("A", "D", "C"), tree.snapshot().pathTo("C"));
+        Assert.assertEquals(13, distance("C"));
+    }
+
+    // A longer tree edge moves C onto A-D-C
+    @Test
+    public void longerTreeEdge() {
+        apply(new GraphDelta().setDistance("B", "C", 20));
+
+        Assert.assertEquals(13, distance("C"));
+        Assert.assertEquals(tree.graph().id("D"), tree.parent(tree.graph().id("C")));
+    }
+
+    // A shorter edge outside the tree, and a new
+    // vertex, only touch what they improve
+    @Test
+    public void shorterAndNewEdges() {
+        apply(new GraphDelta().setDistance("D", "C", 1).setDistance("C", "F", 1));
+
+        Assert.assertEquals(6, distance("C"));
+        Assert.assertEquals(7, distance("F"));
+        Assert.assertEquals(5, distance("B"));
+        Assert.assertEquals(Arrays.asList("A", "D", "C", "F"), tree.snapshot().pathTo("F"));
+    }
+
+    // Closing the only way in makes
+    // a vertex unreachable
+    @Test
+    public void unreachable() {
+        apply(new GraphDelta().setDistance("B", "F", 1));
+        apply(new GraphDelta().close("B", "F"));
+
+        Assert.assertEquals(DynamicShortestPathTree.UNREACHABLE, distance("F"));
+        Assert.assertEquals(DynamicShortestPathTree.NO_PARENT, tree.parent(tree.graph().id("F")));
+    }
+
+    // A delta not applied to the
+    // tree version is refused
+    @Test(expected = IllegalArgumentException.class)
+    public void skippedVersion() {
+        versions.apply(new GraphDelta().setDistance("A", "B", 1));
+        GraphDelta delta = new GraphDelta().setDistance("A", "B", 2);
+        tree.update(versions.apply(delta), delta);
+    }
+
+    // Random traffic ticks on a grid, the repaired
+    // tree always has the distances of a full search
+    @Test
+    public void matchesFullSearch() {
+        CompressedDirectedGraph first = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(20, 20, 5));
+        VersionedGraph grid = new VersionedGraph(first);
+        DynamicShortestPathTree repaired = new DynamicShortestPathTree(first, 0);
+        Random random = new Random(11);
+
+        for (int tick = 0; tick < 200; tick++) {
+            CompressedDirectedGraph graph = grid.current();
+            GraphDelta delta = new GraphDelta();
+            for (int i = 0; i < 1 + random.nextInt(4); i++) {
+                int from = random.nextInt(graph.numberOfVertices());
+                if (random.nextInt(10) == 0) {
+                    // new side road
+                    delta.setDistance(graph.name(from), "new " + tick + ":" + i, 1 + random.nextInt(100));
+                    continue;
+                }
+                if (graph.outDegree(from) == 0) {
+                    continue;
+                }
+                int edge = graph.firstEdge(from) + random.nextInt(graph.outDegree(from));
+                String to = graph.name(graph.target(edge));
+                if (random.nextInt(8) == 0) {
+                    delta.close(graph.name(from), to);
+                } else {
+                    delta.setDistance(graph.name(from), to, random.nextInt(150));
+                }
+            }
+            repaired.update(grid.apply(delta), delta);
+
+            ShortestPathTree expected = new DijkstraQueryEngine(grid.current()).shortestPathTree(0);
+            CompressedDirectedGraph current = grid.current();
+            for (int v = 0; v < current.numberOfVertices(); v++) {
+                Assert.assertEquals(expected.distance(v), repaired.distance(v));
+                int parent = repaired.parent(v);
+                if (parent != DynamicShortestPathTree.NO_PARENT) {
+                    Assert.assertEquals(repaired.distance(v),
+                            repaired.distance(parent) + current.distance(parent, v));
+                }
+            }
+        }
+    }
+
+    // A change far from the source re-settles
+    // only the vertices below it
+    @Test
+    public void repairIsLocal() {
+        CompressedDirectedGraph first = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(30, 30, 3));
+        VersionedGraph grid = new VersionedGraph(first);
+        DynamicShortestPathTree repaired = new DynamicShortestPathTree(first, 0);
+        int corner = first.numberOfVertices() - 1;
+        int parent = repaired.parent(corner);
+
+        GraphDelta delta = new GraphDelta().setDistance(first.name(parent), first.name(corner), 1000);
+        int settled = repaired.update(grid.apply(delta), delta);
+
+        Assert.assertTrue(settled < 10);
+        Assert.assertEquals(new DijkstraQueryEngine(grid.current()).shortestDistance(0, corner),
+                repaired.distance(corner));
+    }
+}
@@ -0,0 +1,132 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.BinaryMinHeap;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.IndexedDaryMinHeap;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.QueueType;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.ShortestPathTree;
+
+/**
+ * Created by Zeus on 17/10/26.
+ *
+ * Compares BinaryMinHeap with IndexedDaryMinHeap on the
+ * same Dijkstra run over a generated street grid, then the
+ * queue types of DijkstraQueryEngine on full searches.
+ *
+ * Not part of the unit test suite, run the main method.
+ */
+public class HeapBenchmark {
+
+    private static final int ROWS = 300;
+    private static final int COLUMNS = 300;
+    private static final int WARM_UP = 3;
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(ROWS, COLUMNS, 42));
+        System.out.println("Graph: " + graph.numberOfVertices() + " vertices, " + graph.numberOfEdges() + " edges");
+
+        long expected = binaryMinHeap(graph);
+        for (int arity = 2; arity <= 8; arity *= 2) {
+            if (indexedDaryMinHeap(graph, arity) != expected) {
+                throw new IllegalStateException("Heaps disagree for arity " + arity);
+            }
+        }
+
+        report("BinaryMinHeap", graph, 0);
+        for (int arity = 2; arity <= 8; arity *= 2) {
+            report("IndexedDaryMinHeap d=" + arity, graph, arity);
+        }
+
+        DijkstraQueryEngine engine = new DijkstraQueryEngine(graph);
+        for (QueueType queue : QueueType.values()) {
+            if (sum(engine.shortestPathTree(0, queue)) != expected) {
+                throw new IllegalStateException("Queue " + queue + " disagrees");
+            }
+        }
+        for (QueueType queue : QueueType.values()) {
+            for (int i = 0; i < WARM_UP; i++) {
+                engine.shortestPathTree(0, queue);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                engine.shortestPathTree(0, queue);
+            }
+            long millis = (System.nanoTime() - start) / RUNS / 1000000;
+            System.out.println("DijkstraQueryEngine " + queue + ": " + millis + " ms per full search");
+        }
+    }
+
+    private static long sum(ShortestPathTree tree) {
+        long sum = 0;
+        for (int distance : tree.distances()) {
+            sum += distance;
+        }
+        return sum;
+    }
+
+    private static void report(String name, CompressedDirectedGraph graph, int arity) {
+        for (int i = 0; i < WARM_UP; i++) {
+            run(graph, arity);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            run(graph, arity);
+        }
+        long millis = (System.nanoTime() - start) / RUNS / 1000000;
+        System.out.println(name + ": " + millis + " ms per full search");
+    }
+
+    private static long run(CompressedDirectedGraph graph, int arity) {
+        return arity == 0 ? binaryMinHeap(graph) : indexedDaryMinHeap(graph, arity);
+    }
+
+    /**
+     * Dijkstra from vertex 0 with the boxed heap,
+     * returns the sum of all distances.
+     */
+    private static long binaryMinHeap(CompressedDirectedGraph graph) {
+        BinaryMinHeap<Integer> heap = new BinaryMinHeap<>();
+        for (int v = 0; v < graph.numberOfVertices(); v++) {
+            heap.add(v == 0 ? 0 : Integer.MAX_VALUE, v);
+        }
+        long sum = 0;
+        while (!heap.empty()) {
+            int distance = heap.getWeight(heap.min());
+            int v = heap.extractMin();
+            sum += distance;
+            for (int edge = graph.firstEdge(v); edge < graph.endEdge(v); edge++) {
+                int w = graph.target(edge);
+                if (heap.containsData(w) && heap.getWeight(w) > distance + graph.weight(edge)) {
+                    heap.decrease(w, distance + graph.weight(edge));
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Dijkstra from vertex 0 with the primitive heap,
+     * returns the sum of all distances.
+     */
+    private static long indexedDaryMinHeap(CompressedDirectedGraph graph, int arity) {
+        IndexedDaryMinHeap heap = new IndexedDaryMinHeap(graph.numberOfVertices(), arity);
+        for (int v = 0; v < graph.numberOfVertices(); v++) {
+            heap.add(v == 0 ? 0 : Integer.MAX_VALUE, v);
+        }
+        long sum = 0;
+        while (!heap.empty()) {
+            int distance = heap.minWeight();
+            int v = heap.extractMin();
+            sum += distance;
+            for (int edge = graph.firstEdge(v); edge < graph.endEdge(v); edge++) {
+                int w = graph.target(edge);
+                if (heap.containsData(w) && heap.getWeight(w) > distance + graph.weight(edge)) {
+                    heap.decrease(w, distance + graph.weight(edge));
+                }
+            }
+        }
+        return sum;
+    }
+}
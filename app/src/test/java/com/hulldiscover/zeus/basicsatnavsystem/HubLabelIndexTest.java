@@ -0,0 +1,177 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.ContractionHierarchy;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.HubLabelIndex;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class HubLabelIndexTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    // Shortest route A to C
+    // Expected [A, B, C] of length 9
+    @Test
+    public void shortestPathAToC() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(GRAPH);
+        HubLabelIndex index = HubLabelIndex.build(ContractionHierarchy.build(graph), true);
+
+        Assert.assertEquals(9, index.shortestDistance(graph.id("A"), graph.id("C")));
+        Assert.assertEquals(Arrays.asList("A", "B", "C"), index.shortestPath("A", "C"));
+        Assert.assertEquals(Arrays.asList("B"), index.shortestPath("B", "B"));
+        Assert.assertTrue(index.shortestPath("B", "A").isEmpty());
+    }
+
+    // Without path recovery only distances are answered
+    @Test(expected = IllegalStateException.class)
+    public void distanceOnlyIndexHasNoPaths() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(GRAPH);
+        HubLabelIndex index = HubLabelIndex.build(ContractionHierarchy.build(graph), false);
+
+        Assert.assertEquals(9, index.shortestDistance(graph.id("A"), graph.id("C")));
+        index.shortestPath("A", "C");
+    }
+
+    // Same answers as Dijkstra on a street grid
+    @Test
+    public void gridAgreesWithDijkstra() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(9, 9, 11));
+        assertAgreesWithDijkstra(HubLabelIndex.build(ContractionHierarchy.build(graph), true));
+    }
+
+    // Same answers as Dijkstra on random one-way
+    // streets, where many routes do not exist
+    @Test
+    public void oneWayStreetsAgreeWithDijkstra() {
+        Random random = new Random(13);
+        DirectedGraph.Edge[] edges = new DirectedGraph.Edge[150];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = new DirectedGraph.Edge("V" + random.nextInt(60), "V" + random.nextInt(60), random.nextInt(20));
+        }
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(edges);
+        assertAgreesWithDijkstra(HubLabelIndex.build(ContractionHierarchy.build(graph), true));
+    }
+
+    // Zero distance segments both ways between v1 and v2:
+    // the route v2 to v0 must not go round the loop v2 v1 v2
+    @Test
+    public void zeroDistanceLoop() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(new DirectedGraph.Edge[] {
+                new DirectedGraph.Edge("v2", "v1", 0),
+                new DirectedGraph.Edge("v2", "v0", 1),
+                new DirectedGraph.Edge("v1", "v2", 0),
+        });
+        HubLabelIndex index = HubLabelIndex.build(ContractionHierarchy.build(graph), true);
+
+        Assert.assertEquals(Arrays.asList("v2", "v0"), index.shortestPath("v2", "v0"));
+        assertAgreesWithDijkstra(index);
+    }
+
+    // Streets where half of the segments have zero
+    // distance, which gives many zero length loops
+    @Test
+    public void zeroDistanceStreetsAgreeWithDijkstra() {
+        Random random = new Random(29);
+        DirectedGraph.Edge[] edges = new DirectedGraph.Edge[200];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = new DirectedGraph.Edge("V" + random.nextInt(50), "V" + random.nextInt(50), random.nextInt(2));
+        }
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(edges);
+        assertAgreesWithDijkstra(HubLabelIndex.build(ContractionHierarchy.build(graph), true));
+    }
+
+    // Labels written to a stream and read
+    // back give the same answers
+    @Test
+    public void serializationRoundTrip() throws IOException {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(6, 6, 3));
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        HubLabelIndex index = HubLabelIndex.build(hierarchy, true);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+
+        HubLabelIndex loaded = HubLabelIndex.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), hierarchy);
+        Assert.assertEquals(index.numberOfEntries(), loaded.numberOfEntries());
+        assertAgreesWithDijkstra(loaded);
+
+        HubLabelIndex distancesOnly = HubLabelIndex.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), graph);
+        Assert.assertFalse(distancesOnly.hasPaths());
+        Assert.assertEquals(index.shortestDistance(0, 35), distancesOnly.shortestDistance(0, 35));
+    }
+
+    // Labels of one graph cannot be loaded for another
+    @Test(expected = IOException.class)
+    public void readRejectsOtherGraph() throws IOException {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(GRAPH);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        HubLabelIndex.build(ContractionHierarchy.build(graph), false).writeTo(new DataOutputStream(bytes));
+
+        HubLabelIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(3, 3, 1)));
+    }
+
+    private void assertAgreesWithDijkstra(HubLabelIndex index) {
+        CompressedDirectedGraph graph = index.graph();
+        DijkstraQueryEngine dijkstra = new DijkstraQueryEngine(graph);
+        int[] path = new int[graph.numberOfVertices()];
+
+        for (int source = 0; source < graph.numberOfVertices(); source++) {
+            for (int target = 0; target < graph.numberOfVertices(); target++) {
+                int expected = dijkstra.shortestDistance(source, target);
+                Assert.assertEquals(expected, index.shortestDistance(source, target));
+
+                int length = index.shortestPath(source, target, path);
+                if (expected == Integer.MAX_VALUE) {
+                    Assert.assertEquals(0, length);
+                    continue;
+                }
+                // unpacked route uses original edges only
+                int total = 0;
+                for (int i = 1; i < length; i++) {
+                    int distance = graph.distance(path[i - 1], path[i]);
+                    Assert.assertNotEquals(CompressedDirectedGraph.NO_EDGE, distance);
+                    total += distance;
+                }
+                Assert.assertEquals(source, path[0]);
+                Assert.assertEquals(target, path[length - 1]);
+                Assert.assertEquals(expected, total);
+
+                // and visits no vertex twice
+                int[] visited = Arrays.copyOf(path, length);
+                Arrays.sort(visited);
+                for (int i = 1; i < length; i++) {
+                    Assert.assertNotEquals(visited[i - 1], visited[i]);
+                }
+            }
+        }
+    }
+}
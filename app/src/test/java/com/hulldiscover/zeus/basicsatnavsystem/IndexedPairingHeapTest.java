@@ -0,0 +1,78 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.IndexedPairingHeap;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class IndexedPairingHeapTest {
+
+    /*
+     * Keys come out in order of weight,
+     * also after random decreases.
+     */
+    @Test
+    public void extractsInWeightOrder() throws Exception {
+        Random random = new Random(7);
+        IndexedPairingHeap heap = new IndexedPairingHeap(500);
+        int[] weights = new int[500];
+        for (int key = 0; key < weights.length; key++) {
+            weights[key] = random.nextInt(1000);
+            heap.add(weights[key], key);
+        }
+        for (int i = 0; i < 200; i++) {
+            int key = random.nextInt(weights.length);
+            weights[key] = random.nextInt(weights[key] + 1);
+            heap.decrease(key, weights[key]);
+        }
+        Arrays.sort(weights);
+        for (int weight : weights) {
+            assertEquals(weight, heap.minWeight());
+            heap.extractMin();
+        }
+        assertTrue(heap.empty());
+    }
+
+    /*
+     * Decreasing a key moves it to the top.
+     */
+    @Test
+    public void decreaseKey() throws Exception {
+        IndexedPairingHeap heap = new IndexedPairingHeap(4);
+        heap.add(10, 0);
+        heap.add(20, 1);
+        heap.add(30, 2);
+
+        heap.decrease(2, 5);
+
+        assertEquals(5, heap.getWeight(2));
+        assertEquals(2, heap.extractMin());
+        assertFalse(heap.containsData(2));
+        assertEquals(0, heap.extractMin());
+    }
+
+    /*
+     * Clearing the heap forgets every key.
+     */
+    @Test
+    public void clear() throws Exception {
+        IndexedPairingHeap heap = new IndexedPairingHeap(3);
+        heap.add(1, 0);
+        heap.add(2, 1);
+
+        heap.clear();
+
+        assertTrue(heap.empty());
+        assertFalse(heap.containsData(0));
+        assertFalse(heap.containsData(1));
+    }
+}
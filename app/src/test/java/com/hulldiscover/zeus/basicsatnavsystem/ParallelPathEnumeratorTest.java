@@ -0,0 +1,107 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.ParallelPathEnumerator;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.SimplePathIterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class ParallelPathEnumeratorTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    private static List<int[]> sequential(CompressedDirectedGraph graph, int source, int target, int maxStops) {
+        List<int[]> paths = new ArrayList<int[]>();
+        SimplePathIterator iterator = new SimplePathIterator(graph, source, target,
+                maxStops, SimplePathIterator.UNLIMITED);
+        while (iterator.hasNext()) {
+            paths.add(iterator.next());
+        }
+        return paths;
+    }
+
+    private static void assertSamePaths(List<int[]> expected, List<int[]> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    // All paths A to C
+    // Expected ABC, ADC, AEBC, ADEBC
+    @Test
+    public void allPathsAToC() {
+        ParallelPathEnumerator enumerator = new ParallelPathEnumerator(CompressedDirectedGraph.fromEdges(GRAPH));
+        List<List<String>> paths = enumerator.paths("A", "C", SimplePathIterator.UNLIMITED, null);
+
+        Assert.assertEquals(4, paths.size());
+        Assert.assertTrue(paths.contains(Arrays.asList("A", "B", "C")));
+        Assert.assertTrue(paths.contains(Arrays.asList("A", "D", "C")));
+        Assert.assertTrue(paths.contains(Arrays.asList("A", "E", "B", "C")));
+        Assert.assertTrue(paths.contains(Arrays.asList("A", "D", "E", "B", "C")));
+    }
+
+    // Same paths in the same order as the sequential
+    // search, for every pair and stop limit, on one
+    // thread and on four
+    @Test
+    public void gridAgreesWithSequentialSearch() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(4, 4, 17));
+        ParallelPathEnumerator enumerator = new ParallelPathEnumerator(graph);
+        int n = graph.numberOfVertices();
+        int[] sources = new int[n * n];
+        int[] targets = new int[n * n];
+        for (int i = 0; i < n * n; i++) {
+            sources[i] = i / n;
+            targets[i] = i % n;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int maxStops : new int[] {0, 1, 3, 7, SimplePathIterator.UNLIMITED}) {
+                List<List<int[]>> single = enumerator.paths(sources, targets, maxStops, null);
+                List<List<int[]>> parallel = enumerator.paths(sources, targets, maxStops, executor);
+                long[] counts = enumerator.countPaths(sources, targets, maxStops, executor);
+                for (int i = 0; i < sources.length; i++) {
+                    List<int[]> expected = sequential(graph, sources[i], targets[i], maxStops);
+                    assertSamePaths(expected, single.get(i));
+                    assertSamePaths(expected, parallel.get(i));
+                    Assert.assertEquals(expected.size(), counts[i]);
+                }
+                assertSamePaths(sequential(graph, 0, n - 1, maxStops),
+                        enumerator.paths(0, n - 1, maxStops, executor));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Sources and targets must pair up
+    @Test(expected = IllegalArgumentException.class)
+    public void unpairedSources() {
+        new ParallelPathEnumerator(CompressedDirectedGraph.fromEdges(GRAPH))
+                .countPaths(new int[] {0, 1}, new int[] {2}, 3, null);
+    }
+}
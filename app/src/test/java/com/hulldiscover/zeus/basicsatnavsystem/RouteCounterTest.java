@@ -0,0 +1,147 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.BoundedRouteSearch;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.RouteBounds;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.RouteCounter;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class RouteCounterTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    CompressedDirectedGraph graph;
+
+    // Route counter
+    RouteCounter counter;
+
+    /**
+     * Set up test environment
+     * based on given specification.
+     * */
+    @Before
+    public void setUp() {
+        graph = CompressedDirectedGraph.fromEdges(GRAPH);
+        counter = new RouteCounter(graph);
+    }
+
+    // Routes C to C with at most 3 stops
+    // Expected 2
+    @Test
+    public void maxStopsCToC() {
+        Assert.assertEquals(2, counter.countRoutes("C", "C", RouteBounds.maxStops(3)));
+    }
+
+    // Routes A to C with exactly 4 stops
+    // Expected 3
+    @Test
+    public void exactStopsAToC() {
+        Assert.assertEquals(3, counter.countRoutes("A", "C", RouteBounds.exactStops(4)));
+        Assert.assertEquals(3, counter.exactStopsMatrix(4)[graph.id("A")][graph.id("C")]);
+    }
+
+    // Routes C to C shorter than 30
+    // Expected 9 (see BoundedRouteSearchTest)
+    @Test
+    public void distanceBelowCToC() {
+        Assert.assertEquals(9, counter.countRoutes("C", "C", RouteBounds.distanceBelow(30)));
+    }
+
+    // A stop limit far above what the distance
+    // limit allows keeps only the layers it needs,
+    // so routes C to C shorter than 30 are still 9
+    @Test
+    public void largeStopLimitWithDistance() {
+        BoundedRouteSearch search = new BoundedRouteSearch(graph);
+        for (int maxStops : new int[] {5, 29, 50000000, Integer.MAX_VALUE - 1}) {
+            RouteBounds bounds = RouteBounds.maxStops(maxStops).withDistanceBelow(30);
+            Assert.assertEquals(search.countRoutes("C", "C", bounds), counter.countRoutes("C", "C", bounds));
+        }
+        Assert.assertEquals(9, counter.countRoutes("C", "C", RouteBounds.maxStops(50000000).withDistanceBelow(30)));
+    }
+
+    // Same counts as the route search for every
+    // pair and every kind of bound
+    @Test
+    public void agreesWithRouteSearch() {
+        BoundedRouteSearch search = new BoundedRouteSearch(graph);
+        RouteBounds[] bounds = {
+                RouteBounds.maxStops(0),
+                RouteBounds.maxStops(5),
+                RouteBounds.exactStops(1),
+                RouteBounds.exactStops(6),
+                RouteBounds.distanceBelow(1),
+                RouteBounds.distanceBelow(45),
+                RouteBounds.distanceBelow(45).withMaxStops(4),
+                RouteBounds.distanceBelow(45).withExactStops(5),
+        };
+        for (RouteBounds bound : bounds) {
+            for (int source = 0; source < graph.numberOfVertices(); source++) {
+                for (int target = 0; target < graph.numberOfVertices(); target++) {
+                    Assert.assertEquals(bound.toString(), search.countRoutes(source, target, bound),
+                            counter.countRoutes(source, target, bound));
+                }
+            }
+        }
+    }
+
+    // Matrix powers match stepping stop by stop,
+    // including many stops where the matrix is used
+    @Test
+    public void matrixAgreesWithSteps() {
+        for (int stops = 1; stops <= 40; stops++) {
+            long[][] matrix = counter.exactStopsMatrix(stops);
+            for (int source = 0; source < graph.numberOfVertices(); source++) {
+                for (int target = 0; target < graph.numberOfVertices(); target++) {
+                    long stepped = counter.countRoutes(source, target, RouteBounds.maxStops(stops))
+                            - counter.countRoutes(source, target, RouteBounds.maxStops(stops - 1));
+                    Assert.assertEquals(stepped, matrix[source][target]);
+                    Assert.assertEquals(stepped, counter.countRoutes(source, target,
+                            RouteBounds.exactStops(stops)));
+                }
+            }
+        }
+        Assert.assertEquals(1, counter.exactStopsMatrix(0)[0][0]);
+    }
+
+    // Counts too big for a long are reported
+    @Test(expected = ArithmeticException.class)
+    public void overflow() {
+        String[] names = {"A", "B", "C", "D"};
+        DirectedGraph.Edge[] complete = new DirectedGraph.Edge[12];
+        int count = 0;
+        for (String from : names) {
+            for (String to : names) {
+                if (!from.equals(to)) {
+                    complete[count++] = new DirectedGraph.Edge(from, to, 1);
+                }
+            }
+        }
+        new RouteCounter(CompressedDirectedGraph.fromEdges(complete)).countRoutes("A", "B",
+                RouteBounds.maxStops(60));
+    }
+
+    // Simple paths need enumeration
+    @Test(expected = IllegalArgumentException.class)
+    public void simplePaths() {
+        counter.countRoutes("A", "C", RouteBounds.maxStops(4).simplePaths());
+    }
+}
@@ -1,6 +1,7 @@
 package com.hulldiscover.zeus.basicsatnavsystem;
 
 import com.hulldiscover.zeus.basicsatnavsystem.Production.RoutePathLength;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
 import com.hulldiscover.zeus.basicsatnavsystem.Production.BreadthFirstFindAllPaths;
 import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
 
@@ -214,10 +215,81 @@ public class RouteLengthTest {
         Assert.assertEquals(expected, routeLength);
     }
 
+    // Distance for route C-D-C, passing C twice
+    // Expected output 15
+    @Test
+    public void testRouteDistanceCalculatorRepeatedVertex() {
+        // Prepare
+        RoutePathLength routePathLengthCalculation = new RoutePathLength();
+        List<String> routePath = new ArrayList<String>();
+        // Route C-D-C
+        routePath.add(C);
+        routePath.add(D);
+        routePath.add(C);
 
+        String expected = "15";
 
+        // Calculate route path distance
+        String routeLength = routePathLengthCalculation.getRouteLength(directedDirectedGraph, routePath);
 
+        // Assert
+        Assert.assertEquals(expected, routeLength);
+    }
 
+    // Distance for route A-F, F is not a vertex
+    // Expected output NO SUCH ROUTE
+    @Test
+    public void testRouteDistanceCalculatorUnknownVertex() {
+        // Prepare
+        RoutePathLength routePathLengthCalculation = new RoutePathLength();
+        List<String> routePath = new ArrayList<String>();
+        // Route A-F
+        routePath.add(A);
+        routePath.add("F");
 
+        // Calculate route path distance
+        String routeLength = routePathLengthCalculation.getRouteLength(directedDirectedGraph, routePath);
 
+        // Assert
+        Assert.assertEquals(RoutePathLength.NO_SUCH_ROUTE, routeLength);
+    }
+
+    // Distance of part of a route of vertex ids
+    @Test
+    public void testRouteLengthOfIds() {
+        // Prepare
+        CompressedDirectedGraph graph = directedDirectedGraph.compressed();
+        int[] route = {graph.id(A), graph.id(E), graph.id(B), graph.id(C), graph.id(D)};
+
+        // Assert
+        Assert.assertEquals(21L, RoutePathLength.routeLength(graph, route, 0, 5));
+        Assert.assertEquals(11L, RoutePathLength.routeLength(graph, route, 2, 5));
+        Assert.assertEquals(0L, RoutePathLength.routeLength(graph, route, 4, 5));
+        Assert.assertEquals(RoutePathLength.NOT_A_ROUTE, RoutePathLength.routeLength(graph, route, 3, 3));
+        Assert.assertEquals(RoutePathLength.NOT_A_ROUTE,
+                RoutePathLength.routeLength(graph, new int[] {graph.id(A), graph.id(C)}, 0, 2));
+    }
+
+    // Distance for a route longer than an int
+    // Expected output 2147483648
+    @Test
+    public void testRouteDistanceCalculatorLongRoute() {
+        // Prepare
+        RoutePathLength routePathLengthCalculation = new RoutePathLength();
+        DirectedGraph longGraph = new DirectedGraph(new DirectedGraph.Edge[] {
+                new DirectedGraph.Edge(A, B, Integer.MAX_VALUE),
+                new DirectedGraph.Edge(B, A, 1),
+        });
+        List<String> routePath = new ArrayList<String>();
+        // Route A-B-A
+        routePath.add(A);
+        routePath.add(B);
+        routePath.add(A);
+
+        // Calculate route path distance
+        String routeLength = routePathLengthCalculation.getRouteLength(longGraph, routePath);
+
+        // Assert
+        Assert.assertEquals("2147483648", routeLength);
+    }
 }
@@ -0,0 +1,166 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.GraphDelta;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.Route;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.ShortestPathCache;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.VersionedGraph;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class ShortestPathCacheTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    VersionedGraph versions;
+    ShortestPathCache cache;
+
+    /**
+     * Set up test environment
+     * based on given specification.
+     * */
+    @Before
+    public void setUp() {
+        versions = new VersionedGraph(CompressedDirectedGraph.fromEdges(GRAPH));
+        cache = new ShortestPathCache(versions, 10);
+    }
+
+    // The second query for a pair is a hit
+    @Test
+    public void hitsAndMisses() {
+        Route first = cache.shortestRoute("A", "C");
+        Route second = cache.shortestRoute("A", "C");
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(Arrays.asList("A", "B", "C"), first.names());
+        Assert.assertEquals(9, first.distance());
+        Assert.assertEquals(1, cache.hits());
+        Assert.assertEquals(1, cache.misses());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    // Nothing leads back to A,
+    // which is cached as well
+    @Test
+    public void noRoute() {
+        Assert.assertNull(cache.shortestRoute("C", "A"));
+        Assert.assertNull(cache.shortestRoute("C", "A"));
+        Assert.assertEquals(1, cache.hits());
+    }
+
+    // A new version misses and
+    // drops the old routes
+    @Test
+    public void newVersionInvalidates() {
+        cache.shortestRoute("A", "C");
+        versions.apply(new GraphDelta().setDistance("A", "B", 20));
+        Route route = cache.shortestRoute("A", "C");
+
+        Assert.assertEquals(Arrays.asList("A", "D", "C"), route.names());
+        Assert.assertEquals(13, route.distance());
+        Assert.assertEquals(0, cache.hits());
+        Assert.assertEquals(2, cache.misses());
+        Assert.assertEquals(1, cache.invalidations());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    // Profiles do not share entries
+    @Test
+    public void profilesAreSeparate() {
+        ShortestPathCache.RouteFinder other = new ShortestPathCache.RouteFinder() {
+            @Override
+            public Route find(DijkstraQueryEngine engine, int source, int target) {
+                return ShortestPathCache.SHORTEST.find(engine, source, target);
+            }
+        };
+        CompressedDirectedGraph graph = versions.current();
+        cache.shortestRoute(graph.id("A"), graph.id("C"));
+        cache.route(graph.id("A"), graph.id("C"), other);
+
+        Assert.assertEquals(0, cache.hits());
+        Assert.assertEquals(2, cache.misses());
+    }
+
+    // A scan of one-off pairs evicts them,
+    // not the pair that was hit before
+    @Test
+    public void scanKeepsPopularPairs() {
+        VersionedGraph grid = new VersionedGraph(CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(10, 10, 1)));
+        ShortestPathCache small = new ShortestPathCache(grid, 10);
+        small.shortestRoute(0, 99);
+        small.shortestRoute(0, 99);
+
+        for (int target = 1; target < 60; target++) {
+            small.shortestRoute(target, 0);
+        }
+        long hits = small.hits();
+        small.shortestRoute(0, 99);
+
+        Assert.assertEquals(hits + 1, small.hits());
+        Assert.assertEquals(10, small.size());
+        Assert.assertEquals(50, small.evictions());
+    }
+
+    // Threads share the cache and always get
+    // the distance of a fresh search
+    @Test
+    public void concurrentLookups() throws Exception {
+        final CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(15, 15, 9));
+        final ShortestPathCache shared = new ShortestPathCache(new VersionedGraph(graph), 64);
+        final DijkstraQueryEngine engine = new DijkstraQueryEngine(graph);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final long seed = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Random random = new Random(seed);
+                        for (int i = 0; i < 500; i++) {
+                            // few popular pairs
+                            int source = random.nextInt(10);
+                            int target = graph.numberOfVertices() - 1 - random.nextInt(10);
+                            Assert.assertEquals(engine.shortestDistance(source, target),
+                                    shared.shortestRoute(source, target).distance());
+                        }
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        Assert.assertEquals(2000, shared.hits() + shared.misses());
+        Assert.assertTrue(shared.size() <= 64);
+    }
+}
@@ -3,12 +3,14 @@ package com.hulldiscover.zeus.basicsatnavsystem;
 import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraFindShortestPath;
 import com.hulldiscover.zeus.basicsatnavsystem.Production.BreadthFirstFindAllPaths;
 import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.Route;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -154,6 +156,82 @@ public class ShortestPathTest {
         Assert.assertEquals(expected, shortestPath);
     }
 
+    // Point-to-point search
+    // from A to C.
+    // Expected [A, B, C] with length 9
+    @Test
+    public void testShortestPathPointToPoint() {
+
+        // Prepare
+        ArrayList<String> expected = new ArrayList<>();
+        expected.add("A");
+        expected.add("B");
+        expected.add("C");
+
+        // Find shortest route, stopping at C
+        int actualDistance = searchForShortestPath.shortestDistance(directedDirectedGraph, "A", "C");
+
+        // String representation of the route
+        ArrayList<String> shortestPath = new ArrayList<String>();
+        for(DirectedGraph.Vertex vertex : searchForShortestPath.getPath()) {
+            shortestPath.add(vertex.name);
+        }
 
+        // Assert
+        Assert.assertEquals(9, actualDistance);
+        Assert.assertEquals(expected, shortestPath);
+    }
+
+    // Point-to-point search stops early,
+    // A to B settles fewer vertices than
+    // the whole graph.
+    @Test
+    public void testShortestPathPointToPointStopsEarly() {
+        searchForShortestPath.shortestDistance(directedDirectedGraph, "A", "B");
+
+        Assert.assertTrue(directedDirectedGraph.queryEngine().lastSettledCount()
+                < directedDirectedGraph.numberOfVertices());
+    }
+
+    // One search shared by several threads,
+    // every thread gets back its own route
+    @Test
+    public void testShortestPathSharedBetweenThreads() throws Exception {
+        final String[] targets = {B, C, D, E};
+        final List<List<String>> found = new ArrayList<List<String>>();
+        final List<Route> routes = new ArrayList<Route>();
+        Thread[] threads = new Thread[targets.length];
+        for (int t = 0; t < targets.length; t++) {
+            found.add(null);
+            routes.add(null);
+            final int index = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    List<String> names = new ArrayList<String>();
+                    for (int i = 0; i < 200; i++) {
+                        searchForShortestPath.shortestDistance(directedDirectedGraph, A, targets[index]);
+                        names.clear();
+                        for (DirectedGraph.Vertex vertex : searchForShortestPath.getPath()) {
+                            names.add(vertex.name);
+                        }
+                    }
+                    found.set(index, names);
+                    routes.set(index, searchForShortestPath.shortestRoute(directedDirectedGraph, A, targets[index]));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
 
+        Assert.assertEquals(Arrays.asList(A, B), found.get(0));
+        Assert.assertEquals(Arrays.asList(A, B, C), found.get(1));
+        Assert.assertEquals(Arrays.asList(A, D), found.get(2));
+        Assert.assertEquals(Arrays.asList(A, E), found.get(3));
+        Assert.assertEquals(9, routes.get(1).distance());
+        Assert.assertEquals(Arrays.asList(A, B, C), routes.get(1).names());
+        Assert.assertNull(searchForShortestPath.shortestRoute(directedDirectedGraph, B, A));
+    }
 }
@@ -0,0 +1,105 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraFindShortestPath;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.ShortestPathTree;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class ShortestPathTreeTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    // Tree rooted at A
+    ShortestPathTree tree;
+
+    /**
+     * Set up test environment
+     * based on given specification.
+     * */
+    @Before
+    public void setUp() {
+        tree = new DijkstraFindShortestPath().shortestPathTree(new DirectedGraph(GRAPH), "A");
+    }
+
+    // Routes from A to every vertex
+    // Expected [A], [A, B], [A, B, C], [A, D], [A, E]
+    @Test
+    public void routesFromA() {
+        Assert.assertEquals(Arrays.asList("A"), tree.pathTo("A"));
+        Assert.assertEquals(Arrays.asList("A", "B"), tree.pathTo("B"));
+        Assert.assertEquals(Arrays.asList("A", "B", "C"), tree.pathTo("C"));
+        Assert.assertEquals(Arrays.asList("A", "D"), tree.pathTo("D"));
+        Assert.assertEquals(Arrays.asList("A", "E"), tree.pathTo("E"));
+    }
+
+    // Distances from A
+    // Expected A 0, B 5, C 9, D 5, E 7
+    @Test
+    public void distancesFromA() {
+        CompressedDirectedGraph graph = tree.graph();
+        Assert.assertEquals(graph.id("A"), tree.source());
+        Assert.assertEquals(0, tree.distance(graph.id("A")));
+        Assert.assertEquals(5, tree.distance(graph.id("B")));
+        Assert.assertEquals(9, tree.distance(graph.id("C")));
+        Assert.assertEquals(5, tree.distance(graph.id("D")));
+        Assert.assertEquals(7, tree.distance(graph.id("E")));
+        Assert.assertEquals(ShortestPathTree.NO_PARENT, tree.parent(graph.id("A")));
+    }
+
+    // Nothing reaches A from B
+    @Test
+    public void unreachableVertex() {
+        ShortestPathTree fromB = new DijkstraQueryEngine(tree.graph()).shortestPathTree("B");
+        int a = tree.graph().id("A");
+
+        Assert.assertFalse(fromB.isReachable(a));
+        Assert.assertEquals(ShortestPathTree.UNREACHABLE, fromB.distance(a));
+        Assert.assertTrue(fromB.pathTo("A").isEmpty());
+    }
+
+    // One tree answers every destination
+    // the same way as point-to-point queries
+    @Test
+    public void gridAgreesWithPointToPoint() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(10, 10, 7));
+        DijkstraQueryEngine engine = new DijkstraQueryEngine(graph);
+        int[] path = new int[graph.numberOfVertices()];
+
+        for (int source = 0; source < graph.numberOfVertices(); source += 9) {
+            ShortestPathTree fromSource = engine.shortestPathTree(source);
+            for (int target = 0; target < graph.numberOfVertices(); target++) {
+                Assert.assertEquals(engine.shortestDistance(source, target), fromSource.distance(target));
+
+                int length = fromSource.pathTo(target, path);
+                int total = 0;
+                for (int i = 1; i < length; i++) {
+                    total += graph.distance(path[i - 1], path[i]);
+                }
+                Assert.assertEquals(source, path[0]);
+                Assert.assertEquals(target, path[length - 1]);
+                Assert.assertEquals(fromSource.distance(target), total);
+            }
+        }
+    }
+}
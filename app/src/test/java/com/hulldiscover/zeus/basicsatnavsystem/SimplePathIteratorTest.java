@@ -0,0 +1,164 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.BreadthFirstFindAllPaths;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.SimplePathIterator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class SimplePathIteratorTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    DirectedGraph directedGraph;
+    CompressedDirectedGraph graph;
+
+    /**
+     * Set up test environment
+     * based on given specification.
+     * */
+    @Before
+    public void setUp() {
+        directedGraph = new DirectedGraph(GRAPH);
+        graph = directedGraph.compressed();
+    }
+
+    private Set<List<String>> names(SimplePathIterator paths) {
+        Set<List<String>> result = new HashSet<List<String>>();
+        while (paths.hasNext()) {
+            List<String> names = new ArrayList<String>();
+            for (int v : paths.next()) {
+                names.add(graph.name(v));
+            }
+            Assert.assertTrue(result.add(names));
+        }
+        return result;
+    }
+
+    private SimplePathIterator paths(String from, String to) {
+        return new SimplePathIterator(graph, graph.id(from), graph.id(to));
+    }
+
+    // All paths A to C
+    // Expected ABC, ADC, AEBC, ADEBC
+    @Test
+    public void allPathsAToC() {
+        Set<List<String>> expected = new HashSet<List<String>>();
+        expected.add(Arrays.asList("A", "B", "C"));
+        expected.add(Arrays.asList("A", "D", "C"));
+        expected.add(Arrays.asList("A", "E", "B", "C"));
+        expected.add(Arrays.asList("A", "D", "E", "B", "C"));
+
+        Assert.assertEquals(expected, names(paths("A", "C")));
+    }
+
+    // Same paths as the recursive search
+    @Test
+    public void agreesWithRecursiveSearch() {
+        BreadthFirstFindAllPaths findAllPaths = new BreadthFirstFindAllPaths(directedGraph);
+        String[] vertices = {"A", "B", "C", "D", "E"};
+        for (String from : vertices) {
+            for (String to : vertices) {
+                if (from.equals(to)) {
+                    continue;
+                }
+                Set<List<String>> expected = new HashSet<List<String>>(findAllPaths.getAllPaths(from, to));
+                Assert.assertEquals(from + to, expected, names(paths(from, to)));
+
+                Set<List<String>> lazy = new HashSet<List<String>>();
+                Iterator<List<String>> iterator = findAllPaths.pathIterator(from, to);
+                while (iterator.hasNext()) {
+                    lazy.add(iterator.next());
+                }
+                Assert.assertEquals(from + to, expected, lazy);
+            }
+        }
+    }
+
+    // Nothing leads back to A, and
+    // the only path B to B is B
+    @Test
+    public void unreachableAndTrivialPaths() {
+        SimplePathIterator none = paths("B", "A");
+        Assert.assertFalse(none.hasNext());
+        Assert.assertEquals(0, none.pathCount());
+        try {
+            none.next();
+            Assert.fail();
+        } catch (NoSuchElementException expected) {
+            // no more paths
+        }
+
+        SimplePathIterator self = paths("B", "B");
+        Assert.assertArrayEquals(new int[]{graph.id("B")}, self.next());
+        Assert.assertFalse(self.hasNext());
+    }
+
+    // At most 2 stops A to C
+    // Expected ABC, ADC
+    @Test
+    public void stopLimit() {
+        SimplePathIterator paths = new SimplePathIterator(graph, graph.id("A"), graph.id("C"),
+                2, SimplePathIterator.UNLIMITED);
+        Set<List<String>> expected = new HashSet<List<String>>();
+        expected.add(Arrays.asList("A", "B", "C"));
+        expected.add(Arrays.asList("A", "D", "C"));
+
+        Assert.assertEquals(expected, names(paths));
+    }
+
+    // At most 3 paths A to C
+    @Test
+    public void pathLimit() {
+        SimplePathIterator paths = new SimplePathIterator(graph, graph.id("A"), graph.id("C"),
+                SimplePathIterator.UNLIMITED, 3);
+
+        Assert.assertEquals(3, names(paths).size());
+        Assert.assertEquals(3, paths.pathCount());
+        Assert.assertFalse(new SimplePathIterator(graph, graph.id("A"), graph.id("C"),
+                SimplePathIterator.UNLIMITED, 0).hasNext());
+    }
+
+    // Paths into a reused buffer, stopping early
+    @Test
+    public void bufferAndEarlyStop() {
+        SimplePathIterator paths = paths("A", "E");
+        int[] buffer = new int[graph.numberOfVertices()];
+        int length = paths.next(buffer);
+
+        Assert.assertTrue(length > 1);
+        Assert.assertEquals(graph.id("A"), buffer[0]);
+        Assert.assertEquals(graph.id("E"), buffer[length - 1]);
+        Assert.assertEquals(1, paths.pathCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeLimit() {
+        new SimplePathIterator(graph, 0, 1, -1, 1);
+    }
+}
@@ -0,0 +1,116 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.RoutePathLength;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.TripLengths;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class TripLengthsTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    // Trips A-B-C, A-E-D, C-D-C, (empty) and A-E-B-C-D
+    // Expected 9, invalid, 15, invalid and 21
+    @Test
+    public void sampleTrips() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(GRAPH);
+        int a = graph.id("A");
+        int b = graph.id("B");
+        int c = graph.id("C");
+        int d = graph.id("D");
+        int e = graph.id("E");
+        int[] vertices = {a, b, c, a, e, d, c, d, c, a, e, b, c, d};
+        int[] offsets = {0, 3, 6, 9, 9, 14};
+
+        TripLengths trips = RoutePathLength.routeLengths(graph, vertices, offsets, null);
+
+        Assert.assertEquals(5, trips.size());
+        Assert.assertArrayEquals(new long[] {9, RoutePathLength.NOT_A_ROUTE, 15,
+                RoutePathLength.NOT_A_ROUTE, 21}, trips.lengths());
+        Assert.assertTrue(trips.isValid(0));
+        Assert.assertFalse(trips.isValid(1));
+        Assert.assertFalse(trips.isValid(3));
+        Assert.assertEquals(2, trips.invalidCount());
+        BitSet invalid = new BitSet();
+        invalid.set(1);
+        invalid.set(3);
+        Assert.assertEquals(invalid, trips.invalid());
+    }
+
+    // Random trips on a grid, some with a broken hop,
+    // match one by one lengths on one thread and on four
+    @Test
+    public void gridTripsAgreeWithSingleTrips() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(20, 20, 17));
+        Random random = new Random(5);
+        int tripCount = 1000;
+        List<Integer> flat = new ArrayList<Integer>();
+        int[] offsets = new int[tripCount + 1];
+        for (int trip = 0; trip < tripCount; trip++) {
+            offsets[trip] = flat.size();
+            int vertex = random.nextInt(graph.numberOfVertices());
+            flat.add(vertex);
+            int hops = random.nextInt(30);
+            for (int hop = 0; hop < hops; hop++) {
+                if (random.nextInt(100) == 0) {
+                    vertex = random.nextInt(graph.numberOfVertices());
+                } else {
+                    int edge = graph.firstEdge(vertex) + random.nextInt(graph.outDegree(vertex));
+                    vertex = graph.target(edge);
+                }
+                flat.add(vertex);
+            }
+        }
+        offsets[tripCount] = flat.size();
+        int[] vertices = new int[flat.size()];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = flat.get(i);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            TripLengths single = RoutePathLength.routeLengths(graph, vertices, offsets, null);
+            TripLengths parallel = RoutePathLength.routeLengths(graph, vertices, offsets, executor);
+            for (int trip = 0; trip < tripCount; trip++) {
+                long expected = RoutePathLength.routeLength(graph, vertices, offsets[trip], offsets[trip + 1]);
+                Assert.assertEquals(expected, single.length(trip));
+                Assert.assertEquals(expected, parallel.length(trip));
+                Assert.assertEquals(expected != RoutePathLength.NOT_A_ROUTE, parallel.isValid(trip));
+            }
+            Assert.assertEquals(single.invalid(), parallel.invalid());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Offsets must not run backwards
+    @Test(expected = IllegalArgumentException.class)
+    public void decreasingOffsets() {
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(GRAPH);
+        RoutePathLength.routeLengths(graph, new int[] {0, 1, 2}, new int[] {0, 2, 1}, null);
+    }
+}
@@ -16,7 +16,28 @@ import org.junit.runners.Suite;
         GraphHasVertex.class,
         PathFinderTest.class,
         RouteLengthTest.class,
-        ShortestPathTest.class})
+        ShortestPathTest.class,
+        CompressedDirectedGraphTest.class,
+        IndexedDaryMinHeapTest.class,
+        DijkstraQueryEngineTest.class,
+        BidirectionalDijkstraQueryEngineTest.class,
+        AStarLandmarkQueryEngineTest.class,
+        ContractionHierarchyTest.class,
+        HubLabelIndexTest.class,
+        DistanceMatrixEngineTest.class,
+        ShortestPathTreeTest.class,
+        DeltaSteppingShortestPathTest.class,
+        DialBucketQueueTest.class,
+        IndexedPairingHeapTest.class,
+        YenKShortestPathsTest.class,
+        SimplePathIteratorTest.class,
+        ParallelPathEnumeratorTest.class,
+        BoundedRouteSearchTest.class,
+        RouteCounterTest.class,
+        TripLengthsTest.class,
+        VersionedGraphTest.class,
+        DynamicShortestPathTreeTest.class,
+        ShortestPathCacheTest.class})
 
 public class UnitTestSuite {}
 
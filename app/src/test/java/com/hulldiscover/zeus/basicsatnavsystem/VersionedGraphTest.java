@@ -0,0 +1,329 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DijkstraQueryEngine;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.GraphDelta;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.QueueType;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.ShortestPathTree;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.VersionedGraph;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class VersionedGraphTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    VersionedGraph versions;
+
+    /**
+     * Set up test environment
+     * based on given specification.
+     * */
+    @Before
+    public void setUp() {
+        versions = new VersionedGraph(CompressedDirectedGraph.fromEdges(GRAPH));
+    }
+
+    // Traffic on A-B makes A-D-C the shortest
+    // route A to C, the pinned old version still
+    // answers A-B-C 9
+    @Test
+    public void distanceUpdate() {
+        CompressedDirectedGraph before = versions.current();
+        CompressedDirectedGraph after = versions.apply(new GraphDelta().setDistance("A", "B", 20));
+
+        Assert.assertEquals(0, before.version());
+        Assert.assertEquals(1, after.version());
+        Assert.assertSame(after, versions.current());
+        Assert.assertEquals(1, versions.version());
+        Assert.assertEquals(5, before.distance(before.id("A"), before.id("B")));
+        Assert.assertEquals(20, after.distance(after.id("A"), after.id("B")));
+        Assert.assertEquals(20, after.maxWeight());
+
+        Assert.assertEquals(Arrays.asList("A", "B", "C"), new DijkstraQueryEngine(before).shortestPath("A", "C"));
+        Assert.assertEquals(Arrays.asList("A", "D", "C"), versions.queryEngine().shortestPath("A", "C"));
+        Assert.assertSame(after, versions.queryEngine().graph());
+    }
+
+    // Closing B-C and opening B-F, F-C keeps
+    // the ids of all old vertices
+    @Test
+    public void closeAndAddSegments() {
+        CompressedDirectedGraph before = versions.current();
+        CompressedDirectedGraph after = versions.apply(new GraphDelta()
+                .close("B", "C")
+                .setDistance("B", "F", 1)
+                .setDistance("F", "C", 1));
+
+        Assert.assertEquals(before.numberOfVertices() + 1, after.numberOfVertices());
+        Assert.assertEquals(before.numberOfEdges() + 1, after.numberOfEdges());
+        for (String name : new String[] {"A", "B", "C", "D", "E"}) {
+            Assert.assertEquals(before.id(name), after.id(name));
+        }
+        Assert.assertEquals(CompressedDirectedGraph.NO_EDGE, after.findEdge(after.id("B"), after.id("C")));
+        Assert.assertEquals(Arrays.asList("A", "B", "F", "C"), versions.queryEngine().shortestPath("A", "C"));
+        Assert.assertEquals(2, after.inDegree(after.id("C")));
+    }
+
+    // A closed segment keeps its slot in the rows
+    // and opens again in the same slot
+    @Test
+    public void closeInPlace() {
+        CompressedDirectedGraph before = versions.current();
+        int a = before.id("A");
+        int b = before.id("B");
+        int edge = before.findEdge(a, b);
+        CompressedDirectedGraph closed = versions.apply(new GraphDelta().close("A", "B"));
+
+        for (int v = 0; v < before.numberOfVertices(); v++) {
+            Assert.assertEquals(before.firstEdge(v), closed.firstEdge(v));
+            Assert.assertEquals(before.endEdge(v), closed.endEdge(v));
+        }
+        Assert.assertEquals(CompressedDirectedGraph.CLOSED, closed.weight(edge));
+        Assert.assertEquals(CompressedDirectedGraph.NO_EDGE, closed.findEdge(a, b));
+        Assert.assertEquals(before.numberOfEdges() - 1, closed.numberOfEdges());
+        Assert.assertEquals(2, closed.outDegree(a));
+        Assert.assertEquals(1, closed.inDegree(b));
+        Assert.assertEquals(5, before.distance(a, b));
+
+        CompressedDirectedGraph opened = versions.apply(new GraphDelta().setDistance("A", "B", 6));
+        Assert.assertEquals(edge, opened.findEdge(a, b));
+        Assert.assertEquals(6, opened.distance(a, b));
+        Assert.assertEquals(before.numberOfEdges(), opened.numberOfEdges());
+    }
+
+    // Random distances, closures and new vertices over
+    // many versions; every version, and the one before it,
+    // has the segments and distances of a graph built anew
+    @Test
+    public void matchesRebuiltGraph() {
+        Map<String, Map<String, Integer>> expected = new HashMap<>();
+        for (DirectedGraph.Edge edge : GRAPH) {
+            segments(expected, edge.vertex1).put(edge.vertex2, edge.distance);
+        }
+        Random random = new Random(7);
+        CompressedDirectedGraph previous = versions.current();
+        Map<String, Map<String, Integer>> previousExpected = copy(expected);
+
+        for (int tick = 0; tick < 400; tick++) {
+            GraphDelta delta = new GraphDelta();
+            for (int i = 0; i < 12; i++) {
+                String from = "V" + random.nextInt(80);
+                String to = random.nextInt(4) == 0 ? String.valueOf((char) ('A' + random.nextInt(5)))
+                        : "V" + random.nextInt(80);
+                if (random.nextInt(3) == 0) {
+                    delta.close(from, to);
+                    segments(expected, from).remove(to);
+                } else {
+                    int distance = random.nextInt(100);
+                    delta.setDistance(from, to, distance);
+                    segments(expected, from).put(to, distance);
+                }
+            }
+            CompressedDirectedGraph next = versions.apply(delta);
+            assertSegments(expected, next);
+            assertSegments(previousExpected, previous);
+            for (int v = 0; v < previous.numberOfVertices(); v++) {
+                Assert.assertEquals(v, next.id(previous.name(v)));
+            }
+
+            // distances from A agree with a graph built anew
+            List<DirectedGraph.Edge> edges = new ArrayList<>();
+            for (Map.Entry<String, Map<String, Integer>> row : expected.entrySet()) {
+                for (Map.Entry<String, Integer> segment : row.getValue().entrySet()) {
+                    edges.add(new DirectedGraph.Edge(row.getKey(), segment.getKey(), segment.getValue()));
+                }
+            }
+            CompressedDirectedGraph rebuilt = CompressedDirectedGraph.fromEdges(edges.toArray(new DirectedGraph.Edge[0]));
+            ShortestPathTree fresh = new DijkstraQueryEngine(rebuilt).shortestPathTree(rebuilt.id("A"));
+            ShortestPathTree updated = versions.queryEngine().shortestPathTree("A");
+            for (int v = 0; v < rebuilt.numberOfVertices(); v++) {
+                Assert.assertEquals(fresh.distance(v), updated.distance(next.id(rebuilt.name(v))));
+            }
+            previous = next;
+            previousExpected = copy(expected);
+        }
+    }
+
+    private static Map<String, Integer> segments(Map<String, Map<String, Integer>> graph, String from) {
+        Map<String, Integer> row = graph.get(from);
+        if (row == null) {
+            row = new HashMap<>();
+            graph.put(from, row);
+        }
+        return row;
+    }
+
+    private static Map<String, Map<String, Integer>> copy(Map<String, Map<String, Integer>> graph) {
+        Map<String, Map<String, Integer>> copy = new HashMap<>();
+        for (Map.Entry<String, Map<String, Integer>> row : graph.entrySet()) {
+            copy.put(row.getKey(), new HashMap<>(row.getValue()));
+        }
+        return copy;
+    }
+
+    // open out and in rows of every vertex
+    // match the expected segments
+    private static void assertSegments(Map<String, Map<String, Integer>> expected, CompressedDirectedGraph graph) {
+        int edgeCount = 0;
+        Map<String, Integer> inDegree = new HashMap<>();
+        for (Map<String, Integer> row : expected.values()) {
+            edgeCount += row.size();
+            for (String to : row.keySet()) {
+                inDegree.put(to, inDegree.containsKey(to) ? inDegree.get(to) + 1 : 1);
+            }
+        }
+        Assert.assertEquals(edgeCount, graph.numberOfEdges());
+        for (int v = 0; v < graph.numberOfVertices(); v++) {
+            String name = graph.name(v);
+            Map<String, Integer> out = new HashMap<>();
+            for (int edge = graph.firstEdge(v); edge < graph.endEdge(v); edge++) {
+                if (graph.weight(edge) != CompressedDirectedGraph.CLOSED) {
+                    out.put(graph.name(graph.target(edge)), graph.weight(edge));
+                }
+            }
+            Map<String, Integer> row = expected.get(name);
+            Assert.assertEquals(row == null ? new HashMap<String, Integer>() : row, out);
+
+            int in = 0;
+            for (int inEdge = graph.firstInEdge(v); inEdge < graph.endInEdge(v); inEdge++) {
+                int edge = graph.forwardEdge(inEdge);
+                Assert.assertEquals(v, graph.target(edge));
+                if (graph.weight(edge) != CompressedDirectedGraph.CLOSED) {
+                    Assert.assertEquals(expected.get(graph.name(graph.source(inEdge))).get(name),
+                            Integer.valueOf(graph.weight(edge)));
+                    in++;
+                }
+            }
+            Assert.assertEquals(inDegree.containsKey(name) ? inDegree.get(name) : 0, in);
+            Assert.assertEquals(in, graph.inDegree(v));
+            Assert.assertEquals(out.size(), graph.outDegree(v));
+        }
+    }
+
+    // A thread that queried an earlier version
+    // gets room for a vertex added later
+    @Test
+    public void workspaceGrowsForNewVertex() {
+        Assert.assertEquals(Arrays.asList("A", "B", "C"), versions.queryEngine().shortestPath("A", "C"));
+        versions.apply(new GraphDelta().setDistance("C", "F", 2));
+
+        Assert.assertEquals(Arrays.asList("A", "B", "C", "F"), versions.queryEngine().shortestPath("A", "F"));
+    }
+
+    // A thread that searched with bucket queues gets larger
+    // ones when a later version has longer edges
+    @Test
+    public void bucketQueuesFollowLongerEdges() {
+        CompressedDirectedGraph first = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(10, 10, 4));
+        VersionedGraph grid = new VersionedGraph(first);
+        grid.queryEngine().shortestDistance(0, 99, QueueType.DIAL_BUCKETS);
+
+        GraphDelta delta = new GraphDelta();
+        for (int vertex = 0; vertex < first.numberOfVertices(); vertex++) {
+            for (int edge = first.firstEdge(vertex); edge < first.endEdge(vertex); edge++) {
+                delta.setDistance(first.name(vertex), first.name(first.target(edge)), first.weight(edge) * 10);
+            }
+        }
+        grid.apply(delta);
+        DijkstraQueryEngine engine = grid.queryEngine();
+        for (int target = 0; target < first.numberOfVertices(); target++) {
+            Assert.assertEquals(engine.shortestDistance(0, target),
+                    engine.shortestDistance(0, target, QueueType.DIAL_BUCKETS));
+        }
+    }
+
+    // A delta that changes nothing
+    // publishes no new version
+    @Test
+    public void emptyDelta() {
+        CompressedDirectedGraph before = versions.current();
+
+        Assert.assertSame(before, versions.apply(new GraphDelta()));
+        Assert.assertSame(before, versions.apply(new GraphDelta().setDistance("A", "B", 5)));
+        Assert.assertSame(before, versions.apply(new GraphDelta().close("B", "A")));
+    }
+
+    // Later changes to a segment win
+    @Test
+    public void lastChangeWins() {
+        GraphDelta delta = new GraphDelta().setDistance("A", "B", 1).close("A", "B").setDistance("A", "B", 2);
+        CompressedDirectedGraph after = versions.apply(delta);
+
+        Assert.assertEquals(1, delta.size());
+        Assert.assertEquals(2, after.distance(after.id("A"), after.id("B")));
+    }
+
+    // Readers querying while a writer publishes
+    // versions always see one whole version: every
+    // distance in version v is (v % 3 + 1) times the first
+    @Test
+    public void readersSeeWholeVersions() throws Exception {
+        final CompressedDirectedGraph first = CompressedDirectedGraph.fromEdges(BenchmarkGraphs.grid(30, 30, 17));
+        final VersionedGraph grid = new VersionedGraph(first);
+        final int target = first.numberOfVertices() - 1;
+        final int expected = new DijkstraQueryEngine(first).shortestDistance(0, target);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 200; i++) {
+                            DijkstraQueryEngine engine = grid.queryEngine();
+                            long factor = engine.graph().version() % 3 + 1;
+                            Assert.assertEquals(expected * factor, engine.shortestDistance(0, target));
+                        }
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    }
+                }
+            });
+            readers[r].start();
+        }
+        for (int v = 1; v <= 100; v++) {
+            GraphDelta delta = new GraphDelta();
+            for (int vertex = 0; vertex < first.numberOfVertices(); vertex++) {
+                for (int edge = first.firstEdge(vertex); edge < first.endEdge(vertex); edge++) {
+                    delta.setDistance(first.name(vertex), first.name(first.target(edge)),
+                            first.weight(edge) * (v % 3 + 1));
+                }
+            }
+            grid.apply(delta);
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        Assert.assertEquals(100, grid.version());
+    }
+}
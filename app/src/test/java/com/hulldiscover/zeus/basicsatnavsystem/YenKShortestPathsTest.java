@@ -0,0 +1,136 @@
+package com.hulldiscover.zeus.basicsatnavsystem;
+
+import com.hulldiscover.zeus.basicsatnavsystem.Production.CompressedDirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.DirectedGraph;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.Route;
+import com.hulldiscover.zeus.basicsatnavsystem.Production.YenKShortestPaths;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Created by Zeus on 17/10/26.
+ */
+public class YenKShortestPathsTest {
+
+    // DirectedGraph Edges
+    private static final DirectedGraph.Edge[] GRAPH = {
+            new DirectedGraph.Edge("A", "B", 5),
+            new DirectedGraph.Edge("B", "C", 4),
+            new DirectedGraph.Edge("C", "D", 7),
+            new DirectedGraph.Edge("D", "C", 8),
+            new DirectedGraph.Edge("D", "E", 6),
+            new DirectedGraph.Edge("A", "D", 5),
+            new DirectedGraph.Edge("C", "E", 2),
+            new DirectedGraph.Edge("E", "B", 3),
+            new DirectedGraph.Edge("A", "E", 7),
+    };
+
+    // Route finder
+    YenKShortestPaths finder;
+
+    /**
+     * Set up test environment
+     * based on given specification.
+     * */
+    @Before
+    public void setUp() {
+        finder = new YenKShortestPaths(new DirectedGraph(GRAPH).compressed());
+    }
+
+    // All routes A to C, shortest first
+    // Expected ABC 9, ADC 13, AEBC 14, ADEBC 18
+    @Test
+    public void allRoutesAToC() {
+        List<Route> routes = finder.shortestRoutes("A", "C", 10);
+
+        Assert.assertEquals(4, routes.size());
+        Assert.assertEquals(Arrays.asList("A", "B", "C"), routes.get(0).names());
+        Assert.assertEquals(9, routes.get(0).distance());
+        Assert.assertEquals(Arrays.asList("A", "D", "C"), routes.get(1).names());
+        Assert.assertEquals(13, routes.get(1).distance());
+        Assert.assertEquals(Arrays.asList("A", "E", "B", "C"), routes.get(2).names());
+        Assert.assertEquals(14, routes.get(2).distance());
+        Assert.assertEquals(Arrays.asList("A", "D", "E", "B", "C"), routes.get(3).names());
+        Assert.assertEquals(18, routes.get(3).distance());
+    }
+
+    // Only the best two routes A to C
+    @Test
+    public void bestTwoRoutes() {
+        List<Route> routes = finder.shortestRoutes("A", "C", 2);
+
+        Assert.assertEquals(2, routes.size());
+        Assert.assertEquals(9, routes.get(0).distance());
+        Assert.assertEquals(13, routes.get(1).distance());
+    }
+
+    // No route back to A, and the
+    // only loopless route B to B is B
+    @Test
+    public void unreachableAndTrivialRoutes() {
+        Assert.assertTrue(finder.shortestRoutes("B", "A", 3).isEmpty());
+
+        List<Route> routes = finder.shortestRoutes("B", "B", 3);
+        Assert.assertEquals(1, routes.size());
+        Assert.assertEquals(Arrays.asList("B"), routes.get(0).names());
+        Assert.assertEquals(0, routes.get(0).distance());
+    }
+
+    // Same distances as ranking every simple
+    // route of a small random graph
+    @Test
+    public void randomGraphAgreesWithEnumeration() {
+        Random random = new Random(5);
+        DirectedGraph.Edge[] edges = new DirectedGraph.Edge[40];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = new DirectedGraph.Edge("V" + random.nextInt(10), "V" + random.nextInt(10), 1 + random.nextInt(9));
+        }
+        CompressedDirectedGraph graph = CompressedDirectedGraph.fromEdges(edges);
+        YenKShortestPaths randomFinder = new YenKShortestPaths(graph);
+
+        for (int source = 0; source < graph.numberOfVertices(); source++) {
+            for (int target = 0; target < graph.numberOfVertices(); target++) {
+                List<Integer> expected = new ArrayList<>();
+                enumerate(graph, source, target, new HashSet<Integer>(), 0, expected);
+                Collections.sort(expected);
+
+                List<Route> routes = randomFinder.shortestRoutes(source, target, 6);
+                Assert.assertEquals(Math.min(6, expected.size()), routes.size());
+                Set<Route> distinct = new HashSet<>(routes);
+                Assert.assertEquals(routes.size(), distinct.size());
+                for (int i = 0; i < routes.size(); i++) {
+                    Assert.assertEquals((int) expected.get(i), routes.get(i).distance());
+                }
+            }
+        }
+    }
+
+    /**
+     * Distances of every simple route, by depth first search.
+     */
+    private void enumerate(CompressedDirectedGraph graph, int current, int target, Set<Integer> visited,
+                           int distance, List<Integer> distances) {
+        if (current == target) {
+            distances.add(distance);
+            return;
+        }
+        visited.add(current);
+        for (int edge = graph.firstEdge(current); edge < graph.endEdge(current); edge++) {
+            int next = graph.target(edge);
+            if (!visited.contains(next)) {
+                enumerate(graph, next, target, visited, distance + graph.weight(edge), distances);
+            }
+        }
+        visited.remove(current);
+    }
+}